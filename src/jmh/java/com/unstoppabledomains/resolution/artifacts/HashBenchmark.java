@@ -0,0 +1,97 @@
+package com.unstoppabledomains.resolution.artifacts;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.jcajce.provider.digest.Keccak;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.unstoppabledomains.exceptions.ns.NamingServiceException;
+import com.unstoppabledomains.resolution.Namehash;
+
+/**
+ * Digest reuse, the 64-byte namehash step and bulk hashing.
+ * Run with {@code ./gradlew jmh}, the gc profiler reports bytes per op as {@code gc.alloc.rate.norm}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashBenchmark {
+    private static final int DOMAINS = 1000;
+
+    private final byte[] node = new byte[64];
+    private final byte[] out = new byte[32];
+    private byte[] bulk;
+    private String[] labels;
+    private String[] domains;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < node.length; i++) {
+            node[i] = (byte) (i * 31);
+        }
+        labels = new String[DOMAINS];
+        domains = new String[DOMAINS];
+        for (int i = 0; i < DOMAINS; i++) {
+            labels[i] = "label-" + i;
+            domains[i] = labels[i] + ".crypto";
+        }
+        bulk = new byte[DOMAINS * Hash.HASH_LENGTH];
+    }
+
+    @Benchmark
+    public byte[] keccak64NewDigest() {
+        return new Keccak.Digest256().digest(node);
+    }
+
+    @Benchmark
+    public byte[] keccak64Specialized() {
+        Hash.sha3(node, 0, node.length, out, 0);
+        return out;
+    }
+
+    @Benchmark
+    public byte[] sha256GetInstance() throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(node);
+    }
+
+    @Benchmark
+    public byte[] sha256ThreadLocal() {
+        Hash.sha256(node, 0, node.length, out, 0);
+        return out;
+    }
+
+    @Benchmark
+    public byte[] labelsOneByOne() {
+        for (int i = 0; i < DOMAINS; i++) {
+            byte[] hash = new Keccak.Digest256().digest(labels[i].getBytes(StandardCharsets.UTF_8));
+            System.arraycopy(hash, 0, bulk, i * Hash.HASH_LENGTH, Hash.HASH_LENGTH);
+        }
+        return bulk;
+    }
+
+    @Benchmark
+    public byte[] labelsBulk() {
+        Hash.sha3Strings(labels, bulk, 0);
+        return bulk;
+    }
+
+    @Benchmark
+    public byte[] namehashesBulk() throws NamingServiceException {
+        Namehash.nameHashes(domains, bulk, 0);
+        return bulk;
+    }
+}
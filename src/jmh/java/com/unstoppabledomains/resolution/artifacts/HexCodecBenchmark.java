@@ -0,0 +1,91 @@
+package com.unstoppabledomains.resolution.artifacts;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esaulpaugh.headlong.util.FastHex;
+
+/**
+ * Hex conversions of a resolution: calldata out, {@code eth_call} answers in, token IDs to namehashes.
+ * Run with {@code ./gradlew jmh}, the gc profiler reports bytes per op as {@code gc.alloc.rate.norm}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HexCodecBenchmark {
+    /** 32 bytes is a namehash, 4k is a getData answer with a few dozen records */
+    @Param({ "32", "4096" })
+    public int size;
+
+    private byte[] bytes;
+    private String answer;
+    private byte[] request;
+    private BigInteger tokenID;
+
+    @Setup
+    public void setup() {
+        bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        answer = HexCodec.encode(bytes);
+        request = new byte[size * 2];
+        tokenID = new BigInteger("56e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9", 16);
+    }
+
+    @Benchmark
+    public String encodeFormat() {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append("0x");
+        for (byte b : bytes) {
+            stringBuilder.append(String.format("%02x", b & 0xFF));
+        }
+        return stringBuilder.toString();
+    }
+
+    @Benchmark
+    public String encode() {
+        return HexCodec.encode(bytes);
+    }
+
+    @Benchmark
+    public byte[] encodeToRequest() {
+        HexCodec.encodeTo(bytes, 0, bytes.length, request, 0);
+        return request;
+    }
+
+    @Benchmark
+    public byte[] decodeReplace() {
+        return FastHex.decode(answer.replace("0x", ""));
+    }
+
+    @Benchmark
+    public byte[] decode() {
+        return HexCodec.decode(answer);
+    }
+
+    @Benchmark
+    public String namehashFormat() {
+        return String.format("0x%64s", tokenID.toString(16)).replace(' ', '0');
+    }
+
+    @Benchmark
+    public String namehash() {
+        return HexCodec.encode(tokenID, 64);
+    }
+}
@@ -0,0 +1,72 @@
+package com.unstoppabledomains.resolution;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.unstoppabledomains.config.network.model.Location;
+import com.unstoppabledomains.resolution.dns.DnsRecord;
+import com.unstoppabledomains.resolution.dns.DnsRecordsType;
+
+/**
+ * Non-blocking counterpart of {@link DomainResolution}.
+ * Returned futures fail with {@link com.unstoppabledomains.exceptions.ns.NamingServiceException}
+ * (wrapped into {@link java.util.concurrent.CompletionException} by {@code join()})
+ * for the same reasons the blocking methods throw it.
+ * Methods return without waiting for the network, but the RPC transport itself is blocking: every call in flight
+ * occupies a thread of the executor until its response has been read. When the executor rejects a call because
+ * it is saturated, the future fails with {@code UnknownError} caused by
+ * {@link java.util.concurrent.RejectedExecutionException}; no call runs on the thread that made the request.
+ * Obtain an instance with {@link Resolution#async()}
+ */
+public interface AsyncDomainResolution {
+
+    /**
+     * Resolves domain for a specific record
+     *
+     * @param domain domain name such as "brad.crypto"
+     * @param recordKey key of the record
+     * @return future of the record value
+     */
+    CompletableFuture<String> getRecord(String domain, String recordKey);
+
+    /**
+     * Resolves domain for specific list of records
+     *
+     * @param domain domain name such as "brad.crypto"
+     * @param recordsKeys list of all recordsKeys to be resolved
+     * @return future of the map of recordKey to values
+     */
+    CompletableFuture<Map<String, String>> getRecords(String domain, List<String> recordsKeys);
+
+    /**
+     * @param domain domain name such as "brad.crypto"
+     * @return future of the owner address
+     */
+    CompletableFuture<String> getOwner(String domain);
+
+    /**
+     * @param domains list of domain names
+     * @return future of the map of domain to owner, owner is {@code null} for unregistered domains
+     */
+    CompletableFuture<Map<String, String>> getBatchOwners(List<String> domains);
+
+    /**
+     * @param domains domain names
+     * @return future of the map of domain names and Location info, {@code null} for domains that are not found
+     */
+    CompletableFuture<Map<String, Location>> getLocations(String... domains);
+
+    /**
+     * @param address blockchain address for reverse resolution
+     * @return future of the reverse resolution domain name
+     */
+    CompletableFuture<String> getReverse(String address);
+
+    /**
+     * @param domain domain name such as "brad.crypto"
+     * @param types List of DnsRecordsType to resolve for
+     * @return future of the list of DnsRecord
+     */
+    CompletableFuture<List<DnsRecord>> getDns(String domain, List<DnsRecordsType> types);
+}
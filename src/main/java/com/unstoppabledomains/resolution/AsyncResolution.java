@@ -0,0 +1,141 @@
+package com.unstoppabledomains.resolution;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import com.unstoppabledomains.config.network.model.Location;
+import com.unstoppabledomains.exceptions.ns.NSExceptionCode;
+import com.unstoppabledomains.exceptions.ns.NSExceptionParams;
+import com.unstoppabledomains.exceptions.ns.NamingServiceException;
+import com.unstoppabledomains.resolution.dns.DnsRecord;
+import com.unstoppabledomains.resolution.dns.DnsRecordsType;
+import com.unstoppabledomains.resolution.naming.service.NamingService;
+import com.unstoppabledomains.resolution.naming.service.NamingServiceType;
+import com.unstoppabledomains.resolution.naming.service.uns.L2Resolver;
+import com.unstoppabledomains.resolution.naming.service.uns.UNS;
+import com.unstoppabledomains.util.Utilities;
+
+/**
+ * {@link AsyncDomainResolution} backed by the same naming services as {@link Resolution}.
+ * UNS layers and ZNS are queried in parallel on the executor and their results are composed without waiting
+ * for them; each blocking RPC occupies an executor thread while it is in flight
+ */
+class AsyncResolution implements AsyncDomainResolution {
+    private final Map<NamingServiceType, NamingService> services;
+    private final Executor executor;
+    private final L2Resolver resolver = new L2Resolver();
+
+    AsyncResolution(Map<NamingServiceType, NamingService> services, Executor executor) {
+        this.services = services;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<String> getRecord(String domain, String recordKey) {
+        return callServicesForDomain(domain,
+            (uns, normalizedDomain) -> uns.getRecordAsync(normalizedDomain, recordKey, executor),
+            (service, normalizedDomain) -> service.getRecord(normalizedDomain, recordKey));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> getRecords(String domain, List<String> recordsKeys) {
+        return callServicesForDomain(domain,
+            (uns, normalizedDomain) -> uns.getRecordsAsync(normalizedDomain, recordsKeys, executor),
+            (service, normalizedDomain) -> service.getRecords(normalizedDomain, recordsKeys));
+    }
+
+    @Override
+    public CompletableFuture<String> getOwner(String domain) {
+        return callServicesForDomain(domain,
+            (uns, normalizedDomain) -> uns.getOwnerAsync(normalizedDomain, executor),
+            (service, normalizedDomain) -> service.getOwner(normalizedDomain));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> getBatchOwners(List<String> domains) {
+        NamingService zns = services.get(NamingServiceType.ZNS);
+        return uns().batchOwnersAsync(domains, executor).thenCompose(unsOwners -> {
+            List<String> znsDomains = domains.stream()
+                .filter(d -> isSupported(zns, d) && unsOwners.get(d) == null)
+                .collect(Collectors.toList());
+            return L2Resolver.callAsync(() -> zns.batchOwners(znsDomains), executor)
+                .thenApply(znsOwners -> mergeInto(unsOwners, znsOwners));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Location>> getLocations(String... domains) {
+        NamingService zns = services.get(NamingServiceType.ZNS);
+        return uns().getLocationsAsync(executor, domains).thenCompose(unsLocations -> {
+            String[] znsDomains = Arrays.stream(domains)
+                .filter(d -> isSupported(zns, d) && unsLocations.get(d) == null)
+                .toArray(String[]::new);
+            return L2Resolver.callAsync(() -> zns.getLocations(znsDomains), executor)
+                .thenApply(znsLocations -> mergeInto(unsLocations, znsLocations));
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> getReverse(String address) {
+        if (!Utilities.verifyAddress(address)) {
+            return L2Resolver.failedFuture(new NamingServiceException(NSExceptionCode.IncorrectAddress));
+        }
+        UNS uns = uns(); // reverse is supported only for UNS
+        return uns.getReverseAsync(address, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<DnsRecord>> getDns(String domain, List<DnsRecordsType> types) {
+        return callServicesForDomain(domain,
+            (uns, normalizedDomain) -> uns.getDnsAsync(normalizedDomain, types, executor),
+            (service, normalizedDomain) -> service.getDns(normalizedDomain, types));
+    }
+
+    private interface UnsCall<T> {
+        CompletableFuture<T> apply(UNS uns, String domain);
+    }
+
+    private interface ServiceCall<T> {
+        T apply(NamingService service, String domain) throws Exception;
+    }
+
+    private <T> CompletableFuture<T> callServicesForDomain(String domain, UnsCall<T> unsCall, ServiceCall<T> znsCall) {
+        String normalizedDomain;
+        try {
+            normalizedDomain = Resolution.normalizeDomain(domain);
+        } catch (NamingServiceException e) {
+            return L2Resolver.failedFuture(e);
+        }
+        NamingService zns = services.get(NamingServiceType.ZNS);
+        CompletableFuture<T> znsResult = isSupported(zns, normalizedDomain)
+            ? L2Resolver.callAsync(() -> znsCall.apply(zns, normalizedDomain), executor)
+            : L2Resolver.failedFuture(new NamingServiceException(NSExceptionCode.UnsupportedDomain, new NSExceptionParams("d", normalizedDomain)));
+        CompletableFuture<T> unsResult = unsCall.apply(uns(), normalizedDomain);
+        return resolver.resolveAsync(unsResult, znsResult);
+    }
+
+    private UNS uns() {
+        return (UNS) services.get(NamingServiceType.UNS);
+    }
+
+    private static boolean isSupported(NamingService service, String domain) {
+        try {
+            return service.isSupported(domain);
+        } catch (NamingServiceException e) {
+            return false;
+        }
+    }
+
+    private static <T> Map<String, T> mergeInto(Map<String, T> target, Map<String, T> other) {
+        other.forEach((k, v) -> {
+            if (v != null) {
+                target.merge(k, v, (v1, v2) -> v2);
+            }
+        });
+        return target;
+    }
+}
@@ -12,41 +12,177 @@ import com.unstoppabledomains.resolution.artifacts.Hash;
 import com.unstoppabledomains.resolution.artifacts.Numeric;
 
 import java.net.IDN;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Namehashes are computed from the root label towards the leftmost one, and the hash of every
+ * name on the way is kept in a bounded LRU cache. Subdomains reuse the hashes of their parents,
+ * and a domain queried on several layers is hashed once. Each step hashes 64 bytes (parent and label hash)
+ * with a specialized Keccak permutation in a per-thread buffer.
+ */
 public class Namehash {
     private Namehash() {}
 
-    private static final byte[] EMPTY = new byte[32];
+    private static final byte[] EMPTY = new byte[Hash.HASH_LENGTH];
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[2 * Hash.HASH_LENGTH]);
+    private static final int MAX_CACHED_NAMES = 10_000;
+    private static final Map<String, byte[]> HASHES = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > MAX_CACHED_NAMES;
+        }
+    };
 
     public static byte[] nameHashAsBytes(String domain) throws NamingServiceException {
-        return Numeric.hexStringToByteArray(nameHash(domain));
+        return nameHashOf(domain).clone();
     }
 
     public static String nameHash(String domain) throws NamingServiceException {
-        String normaliseddomain = normalise(domain);
-        return Numeric.toHexString(nameHash(normaliseddomain.split("\\.")));
+        return Numeric.toHexString(nameHashOf(domain));
+    }
+
+    /**
+     * Namehashes of many domains, e.g. for bulk jobs. Parent names are cached as usual,
+     * the domains themselves are hashed straight into the result and not cached
+     *
+     * @param domains domains to hash
+     * @return namehashes one after another, {@link Hash#HASH_LENGTH} bytes per domain
+     * @throws NamingServiceException - when a domain is not supported
+     */
+    public static byte[] nameHashes(String[] domains) throws NamingServiceException {
+        byte[] result = new byte[domains.length * Hash.HASH_LENGTH];
+        nameHashes(domains, result, 0);
+        return result;
+    }
+
+    /**
+     * @param domains domains to hash
+     * @param out buffer for the namehashes, {@link Hash#HASH_LENGTH} bytes per domain
+     * @param offset position of the first namehash in the buffer
+     * @throws NamingServiceException - when a domain is not supported
+     * @see #nameHashes(String[])
+     */
+    public static void nameHashes(String[] domains, byte[] out, int offset) throws NamingServiceException {
+        for (int i = 0; i < domains.length; i++) {
+            nameHashInto(domains[i], out, offset + i * Hash.HASH_LENGTH);
+        }
     }
 
-    private static byte[] nameHash(String[] labels) {
-        if (labels.length == 0 || labels[0].equals("")) {
-            return EMPTY;
+    /**
+     * @param domains domains to hash
+     * @param out buffer with room for {@link Hash#HASH_LENGTH} bytes per domain, written from its position
+     * @throws NamingServiceException - when a domain is not supported
+     * @see #nameHashes(String[])
+     */
+    public static void nameHashes(String[] domains, ByteBuffer out) throws NamingServiceException {
+        if (out.hasArray()) {
+            int position = out.position();
+            nameHashes(domains, out.array(), out.arrayOffset() + position);
+            out.position(position + domains.length * Hash.HASH_LENGTH);
+            return;
+        }
+        byte[] hash = new byte[Hash.HASH_LENGTH];
+        for (String domain : domains) {
+            nameHashInto(domain, hash, 0);
+            out.put(hash);
+        }
+    }
+
+    private static void nameHashInto(String domain, byte[] out, int offset) throws NamingServiceException {
+        byte[] cached = cached(domain);
+        if (cached != null) {
+            System.arraycopy(cached, 0, out, offset, Hash.HASH_LENGTH);
         } else {
-            String[] tail;
-            if (labels.length == 1) {
-                tail = new String[]{};
-            } else {
-                tail = Arrays.copyOfRange(labels, 1, labels.length);
+            hashNormalised(normalise(domain), out, offset);
+        }
+    }
+
+    private static byte[] nameHashOf(String domain) throws NamingServiceException {
+        // cached names are normalised already, and normalising them again doesn't change them
+        byte[] cached = cached(domain);
+        if (cached != null) {
+            return cached;
+        }
+        return hashNormalised(normalise(domain), null, 0);
+    }
+
+    /**
+     * Hashes the labels of a normalised name right to left, starting from its closest cached ancestor.
+     * Ancestors are cached. With no {@code out} buffer the name itself is cached and its hash returned,
+     * otherwise the hash is written to {@code out} and null returned
+     */
+    private static byte[] hashNormalised(String name, byte[] out, int offset) {
+        name = truncateAtEmptyLabel(name);
+        if (name.isEmpty()) {
+            return result(EMPTY, out, offset);
+        }
+
+        // find the closest ancestor (or the name itself) that is already known
+        byte[] hash = EMPTY;
+        int end = name.length();
+        int dot = -1;
+        do {
+            byte[] known = cached(name.substring(dot + 1));
+            if (known != null) {
+                hash = known;
+                end = dot;
+                break;
             }
+            dot = name.indexOf('.', dot + 1);
+        } while (dot >= 0);
 
-            byte[] remainderHash = nameHash(tail);
-            byte[] result = Arrays.copyOf(remainderHash, 64);
+        // hash the remaining labels right to left in the thread's buffer of parent and label hash
+        byte[] buffer = BUFFER.get();
+        while (end > 0) {
+            int labelStart = name.lastIndexOf('.', end - 1) + 1;
+            System.arraycopy(hash, 0, buffer, 0, Hash.HASH_LENGTH);
+            Hash.sha3String(name, labelStart, end, buffer, Hash.HASH_LENGTH);
+            if (labelStart == 0 && out != null) {
+                Hash.sha3(buffer, 0, buffer.length, out, offset);
+                return null;
+            }
+            hash = new byte[Hash.HASH_LENGTH];
+            Hash.sha3(buffer, 0, buffer.length, hash, 0);
+            cache(name.substring(labelStart), hash);
+            end = labelStart - 1;
+        }
+        return result(hash, out, offset);
+    }
 
-            byte[] labelHash = Hash.sha3(labels[0].getBytes(StandardCharsets.UTF_8));
-            System.arraycopy(labelHash, 0, result, 32, labelHash.length);
+    /**
+     * An empty label hashes to the empty namehash together with all labels right of it,
+     * like in the original recursive implementation, so a trailing dot is ignored and "a..b" is hashed as "a"
+     */
+    private static String truncateAtEmptyLabel(String name) {
+        if (name.startsWith(".")) {
+            return "";
+        }
+        int empty = name.indexOf("..");
+        if (empty >= 0) {
+            return name.substring(0, empty);
+        }
+        return name.endsWith(".") ? name.substring(0, name.length() - 1) : name;
+    }
+
+    private static byte[] result(byte[] hash, byte[] out, int offset) {
+        if (out == null) {
+            return hash;
+        }
+        System.arraycopy(hash, 0, out, offset, Hash.HASH_LENGTH);
+        return null;
+    }
+
+    private static byte[] cached(String name) {
+        synchronized (HASHES) {
+            return HASHES.get(name);
+        }
+    }
 
-            return Hash.sha3(result);
+    private static void cache(String name, byte[] hash) {
+        synchronized (HASHES) {
+            HASHES.put(name, hash);
         }
     }
 
@@ -5,6 +5,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import com.unstoppabledomains.config.network.NetworkConfigLoader;
@@ -15,23 +16,26 @@ import com.unstoppabledomains.exceptions.ns.NSExceptionCode;
 import com.unstoppabledomains.exceptions.ns.NSExceptionParams;
 import com.unstoppabledomains.exceptions.ns.NamingServiceException;
 import com.unstoppabledomains.resolution.contracts.DefaultProvider;
-import com.unstoppabledomains.resolution.contracts.JsonProvider;
+import com.unstoppabledomains.resolution.contracts.MetadataClient;
 import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
 import com.unstoppabledomains.resolution.dns.DnsRecord;
 import com.unstoppabledomains.resolution.dns.DnsRecordsType;
 import com.unstoppabledomains.resolution.naming.service.NSConfig;
 import com.unstoppabledomains.resolution.naming.service.NamingService;
 import com.unstoppabledomains.resolution.naming.service.NamingServiceType;
+import com.unstoppabledomains.resolution.naming.service.ResolutionOptions;
 import com.unstoppabledomains.resolution.naming.service.ZNS;
 import com.unstoppabledomains.resolution.naming.service.uns.L2Resolver;
 import com.unstoppabledomains.resolution.naming.service.uns.ResolutionMethods;
 import com.unstoppabledomains.resolution.naming.service.uns.UNS;
 import com.unstoppabledomains.resolution.naming.service.uns.UNSConfig;
 import com.unstoppabledomains.resolution.naming.service.uns.UNSLocation;
+import com.unstoppabledomains.util.DefaultExecutor;
 import com.unstoppabledomains.util.Utilities;
 
 public class Resolution implements DomainResolution {
     private Map<NamingServiceType, NamingService> services;
+    private final ResolutionOptions options;
 
     /**
      * Use {@link ResolutionBuilder} methods to override default configs
@@ -52,10 +56,34 @@ public class Resolution implements DomainResolution {
     public Resolution(String apiKey) {
         IProvider provider = new DefaultProvider();
         services = getServices(provider, apiKey);
+        options = new ResolutionOptions();
     }
 
-    private Resolution(Map<NamingServiceType, NamingService> services) {
+    private Resolution(Map<NamingServiceType, NamingService> services, ResolutionOptions options) {
         this.services = services;
+        this.options = options;
+    }
+
+    /**
+     * Returns a non-blocking view of this resolution that shares its configuration and naming services.
+     * Network calls are made on the executor set with {@link ResolutionBuilder#asyncExecutor(Executor)},
+     * or on a shared bounded daemon thread pool which rejects calls once its queue is full
+     *
+     * @return asynchronous resolution
+     */
+    public AsyncDomainResolution async() {
+        Executor executor = options.getAsyncExecutor();
+        return async(executor != null ? executor : DefaultExecutor.getInstance());
+    }
+
+    /**
+     * Returns a non-blocking view of this resolution that shares its configuration and naming services
+     *
+     * @param executor executor to run network calls on
+     * @return asynchronous resolution
+     */
+    public AsyncDomainResolution async(Executor executor) {
+        return new AsyncResolution(services, executor);
     }
 
     @Override
@@ -245,9 +273,8 @@ public class Resolution implements DomainResolution {
         if (!Utilities.verifyAddress(address)) {
             throw new NamingServiceException(NSExceptionCode.IncorrectAddress);
         }
-        NamingService service = services.get(NamingServiceType.UNS); // reverse is supported only for UNS 
-        String tokenIdHash = service.getReverseTokenId(address);
-        return unhash(tokenIdHash, NamingServiceType.UNS);
+        UNS service = (UNS) services.get(NamingServiceType.UNS); // reverse is supported only for UNS 
+        return service.getReverse(address);
     }
 
     @Override
@@ -256,14 +283,13 @@ public class Resolution implements DomainResolution {
             throw new NamingServiceException(NSExceptionCode.IncorrectAddress);
         }
         UNS service = (UNS) services.get(NamingServiceType.UNS); // reverse is supported only for UNS 
-        String tokenIdHash = service.getReverseTokenId(address, location);
-        return unhash(tokenIdHash, NamingServiceType.UNS);
+        return service.getReverse(address, location);
     }
 
     private TokenUriMetadata getMetadataFromTokenURI(String tokenURI) throws NamingServiceException {
         try {
-            JsonProvider provider = new JsonProvider();
-            return provider.request(tokenURI, TokenUriMetadata.class);
+            MetadataClient client = options.getMetadataClient();
+            return (client != null ? client : MetadataClient.getDefault()).get(tokenURI, TokenUriMetadata.class);
         } catch (Exception e) {
             throw new NamingServiceException(NSExceptionCode.UnknownError, new NSExceptionParams("m", "getMetadataFromTokenURI"), e);
         }
@@ -306,7 +332,7 @@ public class Resolution implements DomainResolution {
         }).build());
     }
 
-    private String normalizeDomain(String domain) throws NamingServiceException {
+    static String normalizeDomain(String domain) throws NamingServiceException {
         String normalizedDomain = domain.trim().toLowerCase();
         if (!normalizedDomain.matches("^[.a-z\\d-]+$")) {
             throw new NamingServiceException(NSExceptionCode.InvalidDomain, new NSExceptionParams("d", domain));
@@ -340,8 +366,8 @@ public class Resolution implements DomainResolution {
     public static final class ResolutionBuilderConnector {
         private ResolutionBuilderConnector() {}
 
-        public Resolution buildResolution(Map<NamingServiceType, NamingService> services) {
-            return new Resolution(services);
+        public Resolution buildResolution(Map<NamingServiceType, NamingService> services, ResolutionOptions options) {
+            return new Resolution(services, options);
         }
     }
 }
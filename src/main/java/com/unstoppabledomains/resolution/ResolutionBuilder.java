@@ -1,20 +1,42 @@
 package com.unstoppabledomains.resolution;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Executor;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.unstoppabledomains.config.network.NetworkConfigLoader;
 import com.unstoppabledomains.config.network.model.Network;
+import com.unstoppabledomains.resolution.cache.DnsCache;
+import com.unstoppabledomains.resolution.cache.NegativeCache;
+import com.unstoppabledomains.resolution.cache.RecordCache;
+import com.unstoppabledomains.resolution.cache.ReverseCache;
+import com.unstoppabledomains.resolution.cache.ZnsCache;
+import com.unstoppabledomains.resolution.contracts.BlockPinningConfig;
+import com.unstoppabledomains.resolution.contracts.CircuitBreakerConfig;
+import com.unstoppabledomains.resolution.contracts.CircuitBreakerProvider;
 import com.unstoppabledomains.resolution.contracts.DefaultProvider;
+import com.unstoppabledomains.resolution.contracts.LoadBalancingConfig;
+import com.unstoppabledomains.resolution.contracts.LoadBalancingProvider;
+import com.unstoppabledomains.resolution.contracts.MetadataClient;
+import com.unstoppabledomains.resolution.contracts.MetadataClientConfig;
+import com.unstoppabledomains.resolution.contracts.MulticallBatchingConfig;
+import com.unstoppabledomains.resolution.contracts.RateLimitConfig;
+import com.unstoppabledomains.resolution.contracts.RateLimitingProvider;
+import com.unstoppabledomains.resolution.contracts.RetryConfig;
+import com.unstoppabledomains.resolution.contracts.RetryingProvider;
 import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
 import com.unstoppabledomains.resolution.naming.service.NSConfig;
 import com.unstoppabledomains.resolution.naming.service.NamingService;
 import com.unstoppabledomains.resolution.naming.service.NamingServiceType;
+import com.unstoppabledomains.resolution.naming.service.ResolutionOptions;
 import com.unstoppabledomains.resolution.naming.service.ZNS;
 import com.unstoppabledomains.resolution.naming.service.uns.UNS;
+import com.unstoppabledomains.resolution.naming.service.uns.LayerAffinityCache;
 import com.unstoppabledomains.resolution.naming.service.uns.UNSConfig;
 import com.unstoppabledomains.resolution.naming.service.uns.UNSLocation;
 import com.unstoppabledomains.util.BuilderNSConfig;
@@ -28,6 +50,12 @@ public class ResolutionBuilder {
     private final Map<NamingServiceType, BuilderNSConfig> serviceConfigs;
     private final Map<UNSLocation, BuilderNSConfig> unsConfigs;
     private IProvider provider;
+    private final ResolutionOptions options;
+    private final Map<String, List<String>> endpointGroups;
+    private LoadBalancingConfig loadBalancing;
+    private CircuitBreakerConfig circuitBreaker;
+    private RateLimitConfig rateLimit;
+    private RetryConfig retry;
     private Resolution.ResolutionBuilderConnector connector;
 
     public ResolutionBuilder(Resolution.ResolutionBuilderConnector connector) {
@@ -42,6 +70,9 @@ public class ResolutionBuilder {
         unsConfigs.put(UNSLocation.Layer2, new BuilderNSConfig(Network.MATIC_MAINNET, null, unsl2ProxyAddress));
         
         provider = new DefaultProvider();
+        options = new ResolutionOptions();
+        endpointGroups = new LinkedHashMap<>();
+        loadBalancing = LoadBalancingConfig.defaultConfig();
     }
 
     /**
@@ -86,6 +117,190 @@ public class ResolutionBuilder {
         return this.providerUrl(nsConfig, providerUrl, false);
     }
 
+    /**
+     * Serves repeated record lookups from memory. Keep a reference to the cache to read its statistics
+     * or to share it between several resolutions
+     * @param cache record cache, see {@link com.unstoppabledomains.resolution.cache.CacheConfig} for size and lifetime
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder recordCache(RecordCache cache) {
+        options.setRecordCache(cache);
+        return this;
+    }
+
+    /**
+     * Answers repeated lookups of unregistered domains, domains without resolver and missing records
+     * from memory until the entry expires
+     * @param cache negative cache, usually configured with a shorter lifetime than the record cache
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder negativeCache(NegativeCache cache) {
+        options.setNegativeCache(cache);
+        return this;
+    }
+
+    /**
+     * Sends the UNS calls of each layer against one block number, refreshed with {@code eth_blockNumber},
+     * instead of "latest". When the block moves forward, cached entries are dropped only for the domains
+     * that registry events of the new blocks touched, so caches can be configured with long lifetimes
+     * @param config polling settings, see {@link com.unstoppabledomains.resolution.contracts.BlockTracker}
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder blockPinning(BlockPinningConfig config) {
+        options.setBlockPinning(config);
+        return this;
+    }
+
+    /**
+     * Remembers which UNS layer each domain lives on, so record and owner lookups query one layer instead of both
+     * @param cache layer cache, its entry lifetime bounds how long a domain moved to L2 may still be read from L1
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder layerAffinity(LayerAffinityCache cache) {
+        options.setLayerAffinity(cache);
+        return this;
+    }
+
+    /**
+     * Remembers reverse resolutions of addresses, so repeated {@code getReverse} and {@code getReverseTokenId} calls
+     * skip the {@code reverseOf}, {@code tokenURI} and metadata round trips. Entries of a domain are dropped when an
+     * owner lookup sees it owned by another address
+     * @param cache reverse cache
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder reverseCache(ReverseCache cache) {
+        options.setReverseCache(cache);
+        return this;
+    }
+
+    /**
+     * Keeps the owner and resolver address of ZNS domains and the record maps of ZNS resolvers, so repeated
+     * lookups of a {@code .zil} domain need no RPC call until the entries expire
+     * @param cache ZNS cache
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder znsCache(ZnsCache cache) {
+        options.setZnsCache(cache);
+        return this;
+    }
+
+    /**
+     * Serves {@code getDns} from memory for as long as the TTLs of the records allow, refreshing entries
+     * that are close to expiry in the background
+     * @param cache DNS cache, see {@link com.unstoppabledomains.resolution.cache.DnsCacheConfig}
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder dnsCache(DnsCache cache) {
+        options.setDnsCache(cache);
+        return this;
+    }
+
+    /**
+     * Reads UNS records through {@code getDataByHash}, sending 32-byte keccak hashes of the record keys
+     * instead of the ABI encoded key strings. Shrinks the calldata of {@code getAllRecords} from tens of KB
+     * to 32 bytes per key
+     * @param enabled whether records are read by key hash
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder keyHashReads(boolean enabled) {
+        options.setKeyHashReads(enabled);
+        return this;
+    }
+
+    /**
+     * Runs the network calls of {@link Resolution#async()} on the given executor instead of the shared
+     * {@link com.unstoppabledomains.util.DefaultExecutor}, whose thread count and queue are bounded.
+     * Every RPC in flight occupies a thread of the executor since the transport is blocking
+     * @param executor executor of asynchronous lookups
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder asyncExecutor(Executor executor) {
+        options.setAsyncExecutor(executor);
+        return this;
+    }
+
+    /**
+     * Fetches token metadata for {@code getTokenURIMetadata}, {@code getDomainName}, {@code unhash} and reverse lookups
+     * through the given client instead of the shared default one, e.g. to change its cache size or timeouts
+     * @param client metadata client, see {@link MetadataClientConfig}
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder metadataClient(MetadataClient client) {
+        options.setMetadataClient(client);
+        return this;
+    }
+
+    /**
+     * Spreads ZNS requests over several equivalent blockchain provider URLs, see {@link LoadBalancingProvider}
+     * @param providerUrls blockchain provider URLs, the first one is used to detect the network
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder znsProviderUrls(List<String> providerUrls) {
+        checkProviderUrls(providerUrls);
+        znsProviderUrl(providerUrls.get(0));
+        endpointGroups.put(providerUrls.get(0), providerUrls);
+        return this;
+    }
+
+    /**
+     * Spreads UNS requests of a layer over several equivalent blockchain provider URLs, see {@link LoadBalancingProvider}
+     * @param location the location of the UNS service (layer 1 or layer 2)
+     * @param providerUrls blockchain provider URLs, the first one is used to detect the network
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder unsProviderUrls(UNSLocation location, List<String> providerUrls) {
+        checkProviderUrls(providerUrls);
+        unsProviderUrl(location, providerUrls.get(0));
+        endpointGroups.put(providerUrls.get(0), providerUrls);
+        return this;
+    }
+
+    /**
+     * Tunes how requests are spread over the URLs given to {@link #unsProviderUrls} and {@link #znsProviderUrls}
+     * @param config load balancing settings
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder loadBalancing(LoadBalancingConfig config) {
+        loadBalancing = config;
+        return this;
+    }
+
+    /**
+     * Stops sending requests to an RPC endpoint for a while after it failed several times in a row, see {@link CircuitBreakerProvider}
+     * @param config circuit breaker settings
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder circuitBreaker(CircuitBreakerConfig config) {
+        circuitBreaker = config;
+        return this;
+    }
+
+    /**
+     * Limits the rate of requests to every RPC endpoint and slows down on 429 responses, see {@link RateLimitingProvider}
+     * @param config rate limit settings
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder rateLimit(RateLimitConfig config) {
+        rateLimit = config;
+        return this;
+    }
+
+    /**
+     * Retries read-only RPC requests that failed with a transient error, see {@link RetryingProvider}
+     * @param config retry settings
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder retry(RetryConfig config) {
+        retry = config;
+        return this;
+    }
+
+    private void checkProviderUrls(List<String> providerUrls) {
+        if (providerUrls == null || providerUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one provider url is required");
+        }
+    }
+
     public ResolutionBuilder udUnsClient(String apiKey) {
         NSConfig l1NsConfig = unsConfigs.get(UNSLocation.Layer1);
         l1NsConfig.setChainId(Network.MAINNET);
@@ -145,6 +360,18 @@ public class ResolutionBuilder {
         return this;
     } 
 
+    /**
+     * Enables batching of concurrent UNS contract calls into a single {@code multicall}.
+     * Calls arriving within the configured window are sent together, which reduces the amount of RPC requests
+     * when many threads resolve domains at the same time
+     * @param config window and maximum batch size
+     * @return builder object to allow chaining
+     */
+    public ResolutionBuilder multicallBatching(MulticallBatchingConfig config) {
+        options.setMulticallBatching(config);
+        return this;
+    }
+
 
     private <T extends Enum<T>> void checkConfigs(Map<T, BuilderNSConfig> configs, String messagePrefix) throws IllegalArgumentException{
         for (Entry<T, BuilderNSConfig> config : configs.entrySet()) {
@@ -172,11 +399,36 @@ public class ResolutionBuilder {
         checkConfigs(unsConfigs, "Invalid configuration for UNS layer");
         checkConfigs(serviceConfigs, "Invalid configuration for service");
 
+        IProvider serviceProvider = buildProvider();
         Map<NamingServiceType, NamingService> services = new HashMap<>();
         services.put(NamingServiceType.UNS, new UNS(new UNSConfig(unsConfigs.get(UNSLocation.Layer1),
-                                                              unsConfigs.get(UNSLocation.Layer2)), provider));
-        services.put(NamingServiceType.ZNS, new ZNS(serviceConfigs.get(NamingServiceType.ZNS), provider));
-        return connector.buildResolution(services);
+                                                              unsConfigs.get(UNSLocation.Layer2)), serviceProvider, options));
+        services.put(NamingServiceType.ZNS, new ZNS(serviceConfigs.get(NamingServiceType.ZNS), serviceProvider, options));
+        return connector.buildResolution(services, options);
+    }
+
+    /**
+     * Wraps the configured provider into the providers required by the enabled options.
+     * Rate limiting and circuit breaking apply per endpoint, so they sit below load balancing;
+     * retries go on top so that a retried request can be sent to another endpoint
+     */
+    private IProvider buildProvider() {
+        IProvider result = provider;
+        if (rateLimit != null) {
+            result = new RateLimitingProvider(result, rateLimit);
+        }
+        if (circuitBreaker != null) {
+            result = new CircuitBreakerProvider(result, circuitBreaker);
+        }
+        if (!endpointGroups.isEmpty()) {
+            LoadBalancingProvider balancer = new LoadBalancingProvider(result, loadBalancing);
+            endpointGroups.forEach(balancer::addEndpoints);
+            result = balancer;
+        }
+        if (retry != null) {
+            result = new RetryingProvider(result, retry);
+        }
+        return result;
     }
 
     private void setProvider(IProvider provider) {
@@ -5,19 +5,34 @@ package com.unstoppabledomains.resolution.artifacts;
  * https://github.com/web3j/web3j/blob/5877c308e11c0de8e24e50c882effa84354a8e57/utils/src/main/java/org/web3j/crypto/Hash.java#L29
  */
 
+import org.bouncycastle.crypto.digests.KeccakDigest;
 import org.bouncycastle.crypto.digests.RIPEMD160Digest;
 import org.bouncycastle.crypto.digests.SHA512Digest;
 import org.bouncycastle.crypto.macs.HMac;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.jcajce.provider.digest.Blake2b;
-import org.bouncycastle.jcajce.provider.digest.Keccak;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
 
-/** Cryptographic hash functions. */
+/**
+ * Cryptographic hash functions.
+ * Digests are kept per thread and reset by every hash, so hashing allocates at most the result
+ */
 public class Hash {
+    /** Size of Keccak-256 and SHA-256 hashes in bytes */
+    public static final int HASH_LENGTH = 32;
+
+    private static final ThreadLocal<KeccakDigest> KECCAK = ThreadLocal.withInitial(() -> new KeccakDigest(256));
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> newDigest("SHA-256"));
+    private static final ThreadLocal<Map<String, MessageDigest>> DIGESTS = ThreadLocal.withInitial(HashMap::new);
+    private static final ThreadLocal<byte[]> OUTPUT = ThreadLocal.withInitial(() -> new byte[HASH_LENGTH]);
+
     private Hash() {}
 
     /**
@@ -29,9 +44,19 @@ public class Hash {
      * @throws RuntimeException If we couldn't find any provider for the given algorithm
      */
     public static byte[] hash(byte[] input, String algorithm) {
+        String name = algorithm.toUpperCase();
+        Map<String, MessageDigest> digests = DIGESTS.get();
+        MessageDigest digest = digests.get(name);
+        if (digest == null) {
+            digest = newDigest(name);
+            digests.put(name, digest);
+        }
+        return digest.digest(input);
+    }
+
+    private static MessageDigest newDigest(String algorithm) {
         try {
-            MessageDigest digest = MessageDigest.getInstance(algorithm.toUpperCase());
-            return digest.digest(input);
+            return MessageDigest.getInstance(algorithm);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("Couldn't find a " + algorithm + " provider", e);
         }
@@ -58,9 +83,107 @@ public class Hash {
      * @return hash value
      */
     public static byte[] sha3(byte[] input, int offset, int length) {
-        Keccak.DigestKeccak kecc = new Keccak.Digest256();
-        kecc.update(input, offset, length);
-        return kecc.digest();
+        byte[] result = new byte[HASH_LENGTH];
+        sha3(input, offset, length, result, 0);
+        return result;
+    }
+
+    /**
+     * Keccak-256 hash function writing into a buffer.
+     *
+     * @param input binary encoded input data
+     * @param offset of start of data
+     * @param length of data
+     * @param out buffer for the hash value
+     * @param outOffset position of the hash value in the buffer
+     */
+    public static void sha3(byte[] input, int offset, int length, byte[] out, int outOffset) {
+        if (length == 64) {
+            KeccakF1600.hash64(input, offset, out, outOffset);
+            return;
+        }
+        KeccakDigest digest = keccak();
+        digest.update(input, offset, length);
+        digest.doFinal(out, outOffset);
+    }
+
+    /**
+     * @return the thread's Keccak-256 digest, reset in case a previous call failed halfway
+     */
+    private static KeccakDigest keccak() {
+        KeccakDigest digest = KECCAK.get();
+        digest.reset();
+        return digest;
+    }
+
+    /**
+     * Keccak-256 hash function of a UTF-8 encoded part of a String, writing into a buffer.
+     * ASCII strings are fed to the digest without being encoded first.
+     *
+     * @param input string
+     * @param start index of the first char
+     * @param end index after the last char
+     * @param out buffer for the hash value
+     * @param outOffset position of the hash value in the buffer
+     */
+    public static void sha3String(String input, int start, int end, byte[] out, int outOffset) {
+        KeccakDigest digest = keccak();
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c >= 0x80) {
+                digest.reset();
+                byte[] bytes = input.substring(start, end).getBytes(StandardCharsets.UTF_8);
+                digest.update(bytes, 0, bytes.length);
+                break;
+            }
+            digest.update((byte) c);
+        }
+        digest.doFinal(out, outOffset);
+    }
+
+    /**
+     * Keccak-256 hashes of UTF-8 encoded Strings, such as labels, written one after another.
+     *
+     * @param inputs strings to hash
+     * @param out buffer for the hash values, {@link #HASH_LENGTH} bytes per input
+     * @param outOffset position of the first hash value in the buffer
+     */
+    public static void sha3Strings(String[] inputs, byte[] out, int outOffset) {
+        for (int i = 0; i < inputs.length; i++) {
+            sha3String(inputs[i], 0, inputs[i].length(), out, outOffset + i * HASH_LENGTH);
+        }
+    }
+
+    /**
+     * Keccak-256 hashes of UTF-8 encoded Strings, written one after another from the buffer position.
+     *
+     * @param inputs strings to hash
+     * @param out buffer with room for {@link #HASH_LENGTH} bytes per input
+     */
+    public static void sha3Strings(String[] inputs, ByteBuffer out) {
+        if (out.hasArray()) {
+            int position = out.position();
+            sha3Strings(inputs, out.array(), out.arrayOffset() + position);
+            out.position(position + inputs.length * HASH_LENGTH);
+            return;
+        }
+        byte[] buffer = OUTPUT.get();
+        for (String input : inputs) {
+            sha3String(input, 0, input.length(), buffer, 0);
+            out.put(buffer);
+        }
+    }
+
+    /**
+     * Keccak-256 hashes of UTF-8 encoded Strings.
+     *
+     * @param inputs strings to hash
+     * @return hash values one after another, {@link #HASH_LENGTH} bytes per input
+     */
+    public static byte[] sha3Strings(String[] inputs) {
+        byte[] result = new byte[inputs.length * HASH_LENGTH];
+        sha3Strings(inputs, result, 0);
+        return result;
     }
 
     /**
@@ -80,7 +203,9 @@ public class Hash {
      * @return hash value as hex encoded string
      */
     public static String sha3String(String utf8String) {
-        return Numeric.toHexString(sha3(utf8String.getBytes(StandardCharsets.UTF_8)));
+        byte[] buffer = OUTPUT.get();
+        sha3String(utf8String, 0, utf8String.length(), buffer, 0);
+        return Numeric.toHexString(buffer);
     }
 
     /**
@@ -91,11 +216,40 @@ public class Hash {
      * @throws RuntimeException If we couldn't find any SHA-256 provider
      */
     public static byte[] sha256(byte[] input) {
+        return sha256(input, 0, input.length);
+    }
+
+    /**
+     * Generates SHA-256 digest of part of the {@code input}.
+     *
+     * @param input binary encoded input data
+     * @param offset of start of data
+     * @param length of data
+     * @return hash value
+     */
+    public static byte[] sha256(byte[] input, int offset, int length) {
+        byte[] result = new byte[HASH_LENGTH];
+        sha256(input, offset, length, result, 0);
+        return result;
+    }
+
+    /**
+     * Generates SHA-256 digest of part of the {@code input} into a buffer.
+     *
+     * @param input binary encoded input data
+     * @param offset of start of data
+     * @param length of data
+     * @param out buffer for the hash value
+     * @param outOffset position of the hash value in the buffer
+     */
+    public static void sha256(byte[] input, int offset, int length, byte[] out, int outOffset) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        digest.update(input, offset, length);
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            return digest.digest(input);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Couldn't find a SHA-256 provider", e);
+            digest.digest(out, outOffset, HASH_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalArgumentException("No room for the hash in the output buffer", e);
         }
     }
 
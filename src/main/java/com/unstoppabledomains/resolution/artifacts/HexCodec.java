@@ -0,0 +1,187 @@
+package com.unstoppabledomains.resolution.artifacts;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Lookup-table hex encoding and decoding.
+ * Encoding goes through a per-thread char buffer or straight into a caller's request buffer,
+ * decoding skips an optional {@code 0x} prefix by offset instead of copying the string
+ */
+public final class HexCodec {
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+    private static final byte[] HEX_BYTES = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
+    private static final byte[] DIGITS = new byte[128];
+    private static final int INITIAL_BUFFER = 256;
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[INITIAL_BUFFER]);
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            DIGITS['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            DIGITS['a' + i] = (byte) (10 + i);
+            DIGITS['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private HexCodec() {}
+
+    /**
+     * @param input bytes to encode
+     * @return lowercase hex with the {@code 0x} prefix
+     */
+    public static String encode(byte[] input) {
+        return encode(input, 0, input.length, true);
+    }
+
+    /**
+     * @param input bytes to encode
+     * @param offset of start of data
+     * @param length of data
+     * @param withPrefix whether the result starts with {@code 0x}
+     * @return lowercase hex
+     */
+    public static String encode(byte[] input, int offset, int length, boolean withPrefix) {
+        int size = length * 2 + (withPrefix ? 2 : 0);
+        char[] buffer = BUFFER.get();
+        if (buffer.length < size) {
+            buffer = new char[Math.max(size, buffer.length * 2)];
+            BUFFER.set(buffer);
+        }
+        int pos = 0;
+        if (withPrefix) {
+            buffer[pos++] = '0';
+            buffer[pos++] = 'x';
+        }
+        encodeTo(input, offset, length, buffer, pos);
+        return new String(buffer, 0, size);
+    }
+
+    /**
+     * Encodes a number without going through {@link BigInteger#toString(int)}
+     * @param value non-negative number, e.g. a token ID
+     * @param digits minimal amount of digits, the number is encoded in whole bytes
+     * @return {@code 0x} prefixed lowercase hex left padded with zeros
+     */
+    public static String encode(BigInteger value, int digits) {
+        if (value.signum() < 0) {
+            throw new IllegalArgumentException("Negative number " + value);
+        }
+        byte[] bytes = value.toByteArray();
+        int offset = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        int length = bytes.length - offset;
+        char[] result = new char[2 + Math.max(digits, length * 2)];
+        result[0] = '0';
+        result[1] = 'x';
+        int padding = result.length - 2 - length * 2;
+        Arrays.fill(result, 2, 2 + padding, '0');
+        encodeTo(bytes, offset, length, result, 2 + padding);
+        return new String(result);
+    }
+
+    /**
+     * Writes lowercase hex digits of the input into a char buffer
+     * @return position in the buffer after the written digits
+     */
+    public static int encodeTo(byte[] input, int offset, int length, char[] dest, int destOffset) {
+        int pos = destOffset;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int b = input[i];
+            dest[pos++] = HEX_CHARS[(b >> 4) & 0xF];
+            dest[pos++] = HEX_CHARS[b & 0xF];
+        }
+        return pos;
+    }
+
+    /**
+     * Writes lowercase hex digits of the input as ASCII into a byte buffer, e.g. a request body
+     * @return position in the buffer after the written digits
+     */
+    public static int encodeTo(byte[] input, int offset, int length, byte[] dest, int destOffset) {
+        int pos = destOffset;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int b = input[i];
+            dest[pos++] = HEX_BYTES[(b >> 4) & 0xF];
+            dest[pos++] = HEX_BYTES[b & 0xF];
+        }
+        return pos;
+    }
+
+    /**
+     * @param hex hex digits with optional {@code 0x} prefix
+     * @return decoded bytes, an odd leading digit makes its own byte
+     * @throws IllegalArgumentException on a non hex character
+     */
+    public static byte[] decode(CharSequence hex) {
+        return decode(hex, 0, hex.length());
+    }
+
+    /**
+     * @param hex sequence holding the hex digits
+     * @param offset of start of the digits, an optional {@code 0x} prefix there is skipped
+     * @param length of the digits including the prefix
+     * @return decoded bytes, an odd leading digit makes its own byte
+     * @throws IllegalArgumentException on a non hex character
+     */
+    public static byte[] decode(CharSequence hex, int offset, int length) {
+        int start = offset + prefixLength(hex, offset, length);
+        int end = offset + length;
+        byte[] result = new byte[(end - start + 1) / 2];
+        decodeTo(hex, start, end - start, result, 0);
+        return result;
+    }
+
+    /**
+     * Decodes hex digits (without prefix) into a byte buffer
+     * @return position in the buffer after the written bytes
+     * @throws IllegalArgumentException on a non hex character
+     */
+    public static int decodeTo(CharSequence hex, int offset, int length, byte[] dest, int destOffset) {
+        int pos = destOffset;
+        int i = offset;
+        int end = offset + length;
+        if ((length & 1) != 0) {
+            dest[pos++] = (byte) digit(hex, i++);
+        }
+        while (i < end) {
+            dest[pos++] = (byte) ((digit(hex, i) << 4) | digit(hex, i + 1));
+            i += 2;
+        }
+        return pos;
+    }
+
+    /**
+     * @param hex hex number with optional {@code 0x} prefix
+     * @param digits minimal amount of digits
+     * @return {@code 0x} prefixed number left padded with zeros to the amount of digits
+     */
+    public static String padded(String hex, int digits) {
+        int start = prefixLength(hex, 0, hex.length());
+        int length = hex.length() - start;
+        if (start == 2 && length >= digits) {
+            return hex;
+        }
+        char[] result = new char[2 + Math.max(length, digits)];
+        result[0] = '0';
+        result[1] = 'x';
+        int padding = result.length - 2 - length;
+        Arrays.fill(result, 2, 2 + padding, '0');
+        hex.getChars(start, hex.length(), result, 2 + padding);
+        return new String(result);
+    }
+
+    private static int prefixLength(CharSequence hex, int offset, int length) {
+        return length > 1 && hex.charAt(offset) == '0' && hex.charAt(offset + 1) == 'x' ? 2 : 0;
+    }
+
+    private static int digit(CharSequence hex, int index) {
+        char c = hex.charAt(index);
+        int digit = c < 128 ? DIGITS[c] : -1;
+        if (digit < 0) {
+            throw new IllegalArgumentException("Illegal hex character '" + c + "' at " + index);
+        }
+        return digit;
+    }
+}
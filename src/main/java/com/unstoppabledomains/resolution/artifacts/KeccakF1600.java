@@ -0,0 +1,148 @@
+package com.unstoppabledomains.resolution.artifacts;
+
+/**
+ * Keccak-256 of exactly 64 bytes, the input of every namehash step (parent hash followed by label hash).
+ * The input fits one 136-byte block, so absorbing and padding are constant: the eight input lanes,
+ * the padding lanes and the whole Keccak-f[1600] state live in local variables, with no buffering or allocation
+ */
+final class KeccakF1600 {
+    private static final long[] ROUND_CONSTANTS = {
+        0x0000000000000001L, 0x0000000000008082L, 0x800000000000808aL, 0x8000000080008000L,
+        0x000000000000808bL, 0x0000000080000001L, 0x8000000080008081L, 0x8000000000008009L,
+        0x000000000000008aL, 0x0000000000000088L, 0x0000000080008009L, 0x000000008000000aL,
+        0x000000008000808bL, 0x800000000000008bL, 0x8000000000008089L, 0x8000000000008003L,
+        0x8000000000008002L, 0x8000000000000080L, 0x000000000000800aL, 0x800000008000000aL,
+        0x8000000080008081L, 0x8000000000008080L, 0x0000000080000001L, 0x8000000080008008L
+    };
+
+    private KeccakF1600() {}
+
+    /**
+     * @param in input buffer
+     * @param inOffset start of the 64 input bytes
+     * @param out output buffer
+     * @param outOffset start of the 32 output bytes
+     */
+    static void hash64(byte[] in, int inOffset, byte[] out, int outOffset) {
+        long a00 = lane(in, inOffset), a01 = lane(in, inOffset + 8), a02 = lane(in, inOffset + 16),
+            a03 = lane(in, inOffset + 24), a04 = lane(in, inOffset + 32), a05 = lane(in, inOffset + 40),
+            a06 = lane(in, inOffset + 48), a07 = lane(in, inOffset + 56);
+        // keccak padding: 0x01 right after the input, 0x80 in the last byte of the 136-byte rate
+        long a08 = 0x01L, a09 = 0, a10 = 0, a11 = 0, a12 = 0, a13 = 0, a14 = 0, a15 = 0;
+        long a16 = 0x8000000000000000L, a17 = 0, a18 = 0, a19 = 0, a20 = 0, a21 = 0, a22 = 0, a23 = 0, a24 = 0;
+
+        for (int round = 0; round < 24; round++) {
+            // theta
+            long c0 = a00 ^ a05 ^ a10 ^ a15 ^ a20;
+            long c1 = a01 ^ a06 ^ a11 ^ a16 ^ a21;
+            long c2 = a02 ^ a07 ^ a12 ^ a17 ^ a22;
+            long c3 = a03 ^ a08 ^ a13 ^ a18 ^ a23;
+            long c4 = a04 ^ a09 ^ a14 ^ a19 ^ a24;
+
+            long d0 = c4 ^ (c1 << 1 | c1 >>> 63);
+            long d1 = c0 ^ (c2 << 1 | c2 >>> 63);
+            long d2 = c1 ^ (c3 << 1 | c3 >>> 63);
+            long d3 = c2 ^ (c4 << 1 | c4 >>> 63);
+            long d4 = c3 ^ (c0 << 1 | c0 >>> 63);
+
+            a00 ^= d0; a05 ^= d0; a10 ^= d0; a15 ^= d0; a20 ^= d0;
+            a01 ^= d1; a06 ^= d1; a11 ^= d1; a16 ^= d1; a21 ^= d1;
+            a02 ^= d2; a07 ^= d2; a12 ^= d2; a17 ^= d2; a22 ^= d2;
+            a03 ^= d3; a08 ^= d3; a13 ^= d3; a18 ^= d3; a23 ^= d3;
+            a04 ^= d4; a09 ^= d4; a14 ^= d4; a19 ^= d4; a24 ^= d4;
+
+            // rho and pi
+            c1  = a01 <<  1 | a01 >>> 63;
+            a01 = a06 << 44 | a06 >>> 20;
+            a06 = a09 << 20 | a09 >>> 44;
+            a09 = a22 << 61 | a22 >>>  3;
+            a22 = a14 << 39 | a14 >>> 25;
+            a14 = a20 << 18 | a20 >>> 46;
+            a20 = a02 << 62 | a02 >>>  2;
+            a02 = a12 << 43 | a12 >>> 21;
+            a12 = a13 << 25 | a13 >>> 39;
+            a13 = a19 <<  8 | a19 >>> 56;
+            a19 = a23 << 56 | a23 >>>  8;
+            a23 = a15 << 41 | a15 >>> 23;
+            a15 = a04 << 27 | a04 >>> 37;
+            a04 = a24 << 14 | a24 >>> 50;
+            a24 = a21 <<  2 | a21 >>> 62;
+            a21 = a08 << 55 | a08 >>>  9;
+            a08 = a16 << 45 | a16 >>> 19;
+            a16 = a05 << 36 | a05 >>> 28;
+            a05 = a03 << 28 | a03 >>> 36;
+            a03 = a18 << 21 | a18 >>> 43;
+            a18 = a17 << 15 | a17 >>> 49;
+            a17 = a11 << 10 | a11 >>> 54;
+            a11 = a07 <<  6 | a07 >>> 58;
+            a07 = a10 <<  3 | a10 >>> 61;
+            a10 = c1;
+
+            // chi
+            c0 = a00 ^ (~a01 & a02);
+            c1 = a01 ^ (~a02 & a03);
+            a02 ^= ~a03 & a04;
+            a03 ^= ~a04 & a00;
+            a04 ^= ~a00 & a01;
+            a00 = c0;
+            a01 = c1;
+
+            c0 = a05 ^ (~a06 & a07);
+            c1 = a06 ^ (~a07 & a08);
+            a07 ^= ~a08 & a09;
+            a08 ^= ~a09 & a05;
+            a09 ^= ~a05 & a06;
+            a05 = c0;
+            a06 = c1;
+
+            c0 = a10 ^ (~a11 & a12);
+            c1 = a11 ^ (~a12 & a13);
+            a12 ^= ~a13 & a14;
+            a13 ^= ~a14 & a10;
+            a14 ^= ~a10 & a11;
+            a10 = c0;
+            a11 = c1;
+
+            c0 = a15 ^ (~a16 & a17);
+            c1 = a16 ^ (~a17 & a18);
+            a17 ^= ~a18 & a19;
+            a18 ^= ~a19 & a15;
+            a19 ^= ~a15 & a16;
+            a15 = c0;
+            a16 = c1;
+
+            c0 = a20 ^ (~a21 & a22);
+            c1 = a21 ^ (~a22 & a23);
+            a22 ^= ~a23 & a24;
+            a23 ^= ~a24 & a20;
+            a24 ^= ~a20 & a21;
+            a20 = c0;
+            a21 = c1;
+
+            // iota
+            a00 ^= ROUND_CONSTANTS[round];
+        }
+
+        putLane(a00, out, outOffset);
+        putLane(a01, out, outOffset + 8);
+        putLane(a02, out, outOffset + 16);
+        putLane(a03, out, outOffset + 24);
+    }
+
+    private static long lane(byte[] in, int offset) {
+        return (in[offset] & 0xFFL)
+            | (in[offset + 1] & 0xFFL) << 8
+            | (in[offset + 2] & 0xFFL) << 16
+            | (in[offset + 3] & 0xFFL) << 24
+            | (in[offset + 4] & 0xFFL) << 32
+            | (in[offset + 5] & 0xFFL) << 40
+            | (in[offset + 6] & 0xFFL) << 48
+            | (in[offset + 7] & 0xFFL) << 56;
+    }
+
+    private static void putLane(long lane, byte[] out, int offset) {
+        for (int i = 0; i < 8; i++) {
+            out[offset + i] = (byte) (lane >>> (8 * i));
+        }
+    }
+}
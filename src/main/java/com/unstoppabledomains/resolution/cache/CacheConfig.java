@@ -0,0 +1,22 @@
+package com.unstoppabledomains.resolution.cache;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Size and lifetime of an in-memory cache
+ */
+@Getter
+@Builder
+public class CacheConfig {
+  /** Maximum amount of entries, least recently used entries are evicted first */
+  @Builder.Default
+  private int maxSize = 10_000;
+  /** How long an entry stays valid, in milliseconds */
+  @Builder.Default
+  private long ttl = 60_000;
+
+  public static CacheConfig defaultConfig() {
+    return CacheConfig.builder().build();
+  }
+}
@@ -0,0 +1,23 @@
+package com.unstoppabledomains.resolution.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Point in time statistics of a cache
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CacheStats {
+  private final long hits;
+  private final long misses;
+  private final long evictions;
+  private final int size;
+
+  public double getHitRate() {
+    long requests = hits + misses;
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+}
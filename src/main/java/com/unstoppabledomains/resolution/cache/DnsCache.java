@@ -0,0 +1,172 @@
+package com.unstoppabledomains.resolution.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.unstoppabledomains.resolution.dns.DnsRecord;
+import com.unstoppabledomains.resolution.dns.DnsRecordsType;
+import com.unstoppabledomains.resolution.dns.DnsUtils;
+import com.unstoppabledomains.util.DefaultExecutor;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Cache of {@code getDns} results per (namehash, record type). Each entry lives as long as the TTL of its records,
+ * parsed from {@code dns.<TYPE>.ttl} or {@code dns.ttl}, and types without records are remembered for
+ * {@link DnsUtils#DEFAULT_TTL} seconds. Records with a TTL of 0 are never cached.
+ * When a lookup is served from an entry close to expiry, the entry is refreshed in the background,
+ * so hot names don't fall back to the chain when they expire
+ */
+public class DnsCache {
+  private final DnsCacheConfig config;
+  private final Executor executor;
+  private final TtlCache<Key, Entry> entries;
+  private final Set<Key> prefetching = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Loads the records of all requested types from the chain
+   */
+  public interface Loader {
+    /**
+     * @return records of all requested types, {@code null} to keep the current entries,
+     * e.g. when the chain moved while they were loaded
+     */
+    List<DnsRecord> load() throws Exception;
+  }
+
+  public DnsCache() {
+    this(DnsCacheConfig.defaultConfig());
+  }
+
+  public DnsCache(DnsCacheConfig config) {
+    this(config, DefaultExecutor.getInstance());
+  }
+
+  /**
+   * @param config size, lifetime bound and prefetch settings
+   * @param executor executor to run prefetches on
+   */
+  public DnsCache(DnsCacheConfig config, Executor executor) {
+    this.config = config;
+    this.executor = executor;
+    this.entries = new TtlCache<>(config.getMaxSize(), config.getMaxTtl());
+  }
+
+  /**
+   * @param namehash domain namehash
+   * @param types requested record types
+   * @param loader loads all requested types when some of them are about to expire
+   * @return records of all types, {@code null} unless every type is cached
+   */
+  public List<DnsRecord> get(String namehash, List<DnsRecordsType> types, Loader loader) {
+    List<DnsRecord> result = new ArrayList<>();
+    List<Key> expiring = new ArrayList<>();
+    for (DnsRecordsType type : types) {
+      Key key = new Key(namehash, type);
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      result.addAll(entry.records);
+      if (entries.remainingTtl(key) < entry.ttl * config.getPrefetchRatio()) {
+        expiring.add(key);
+      }
+    }
+    if (!expiring.isEmpty()) {
+      prefetch(namehash, types, expiring, loader);
+    }
+    return result;
+  }
+
+  /**
+   * @param namehash domain namehash
+   * @param types requested record types
+   * @param records records returned for the types
+   */
+  public void put(String namehash, List<DnsRecordsType> types, List<DnsRecord> records) {
+    Map<DnsRecordsType, List<DnsRecord>> byType = new EnumMap<>(DnsRecordsType.class);
+    for (DnsRecord record : records) {
+      byType.computeIfAbsent(record.getType(), type -> new ArrayList<>()).add(record);
+    }
+    for (DnsRecordsType type : types) {
+      List<DnsRecord> typed = byType.getOrDefault(type, Collections.emptyList());
+      long ttl = DnsUtils.DEFAULT_TTL;
+      if (!typed.isEmpty()) {
+        ttl = Integer.MAX_VALUE;
+        for (DnsRecord record : typed) {
+          ttl = Math.min(ttl, record.getTtl());
+        }
+      }
+      long millis = Math.min(ttl * 1000, config.getMaxTtl());
+      entries.put(new Key(namehash, type), new Entry(Collections.unmodifiableList(typed), millis), millis);
+    }
+  }
+
+  /**
+   * Drops all records of a domain
+   * @param namehash domain namehash
+   */
+  public void invalidate(String namehash) {
+    entries.removeIf(key -> key.namehash.equals(namehash));
+  }
+
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * @return statistics of (domain, record type) entries
+   */
+  public CacheStats getStats() {
+    return entries.getStats();
+  }
+
+  private void prefetch(String namehash, List<DnsRecordsType> types, List<Key> expiring, Loader loader) {
+    List<Key> claimed = new ArrayList<>();
+    for (Key key : expiring) {
+      if (prefetching.add(key)) {
+        claimed.add(key);
+      }
+    }
+    if (claimed.isEmpty()) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          List<DnsRecord> records = loader.load();
+          if (records != null) {
+            put(namehash, types, records);
+          }
+        } catch (Exception e) {
+          // keep serving the old entry until it expires, the next lookup loads it again
+        } finally {
+          prefetching.removeAll(claimed);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      prefetching.removeAll(claimed);
+    }
+  }
+
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  private static class Key {
+    private final String namehash;
+    private final DnsRecordsType type;
+  }
+
+  @AllArgsConstructor
+  private static class Entry {
+    private final List<DnsRecord> records;
+    private final long ttl;
+  }
+}
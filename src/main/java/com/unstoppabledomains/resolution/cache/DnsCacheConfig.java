@@ -0,0 +1,28 @@
+package com.unstoppabledomains.resolution.cache;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings for {@link DnsCache}
+ */
+@Getter
+@Builder
+public class DnsCacheConfig {
+  /** Maximum amount of cached (domain, record type) entries, least recently used entries are evicted first */
+  @Builder.Default
+  private int maxSize = 10_000;
+  /** Upper bound for the lifetime taken from record TTLs, in milliseconds */
+  @Builder.Default
+  private long maxTtl = 86_400_000;
+  /**
+   * Share of an entry's lifetime left at which a lookup served from the cache also refreshes it in the background,
+   * 0 disables prefetching
+   */
+  @Builder.Default
+  private double prefetchRatio = 0.1;
+
+  public static DnsCacheConfig defaultConfig() {
+    return DnsCacheConfig.builder().build();
+  }
+}
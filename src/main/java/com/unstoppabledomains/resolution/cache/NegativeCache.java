@@ -0,0 +1,92 @@
+package com.unstoppabledomains.resolution.cache;
+
+import com.unstoppabledomains.exceptions.ns.NSExceptionCode;
+import com.unstoppabledomains.exceptions.ns.NSExceptionParams;
+import com.unstoppabledomains.exceptions.ns.NamingServiceException;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Remembers lookups that ended with {@link NSExceptionCode#UnregisteredDomain}, {@link NSExceptionCode#UnspecifiedResolver}
+ * (per domain and layer) or {@link NSExceptionCode#RecordNotFound} (per domain, record key and layer),
+ * so repeated misses are answered without RPC calls. Entries should live shorter than positive ones
+ * since a domain can be registered or get a record at any moment
+ */
+public class NegativeCache {
+  private final TtlCache<Key, Outcome> outcomes;
+
+  public NegativeCache() {
+    this(CacheConfig.builder().ttl(10_000).build());
+  }
+
+  public NegativeCache(CacheConfig config) {
+    outcomes = new TtlCache<>(config);
+  }
+
+  /**
+   * @param namehash domain namehash
+   * @param recordKey record key, {@code null} for outcomes that concern the whole domain
+   * @param layer layer or naming service
+   * @return new exception with the remembered outcome, {@code null} if there is none
+   */
+  public NamingServiceException get(String namehash, String recordKey, String layer) {
+    Outcome outcome = outcomes.get(new Key(namehash, recordKey, layer));
+    return outcome == null ? null : new NamingServiceException(outcome.code, outcome.params);
+  }
+
+  /**
+   * Remembers the outcome if it is one of the cacheable codes
+   * @return exception to throw
+   */
+  public NamingServiceException remember(String namehash, String recordKey, String layer, NSExceptionCode code, NSExceptionParams params) {
+    if (isCacheable(code)) {
+      outcomes.put(new Key(namehash, recordKey, layer), new Outcome(code, params));
+    }
+    return new NamingServiceException(code, params);
+  }
+
+  /**
+   * Drops everything remembered for a domain
+   * @param namehash domain namehash
+   */
+  public void invalidate(String namehash) {
+    outcomes.removeIf(key -> key.namehash.equals(namehash));
+  }
+
+  /**
+   * Drops everything remembered for a layer
+   * @param layer layer or naming service
+   */
+  public void invalidateLayer(String layer) {
+    outcomes.removeIf(key -> key.layer.equals(layer));
+  }
+
+  public void clear() {
+    outcomes.clear();
+  }
+
+  public CacheStats getStats() {
+    return outcomes.getStats();
+  }
+
+  private static boolean isCacheable(NSExceptionCode code) {
+    return code == NSExceptionCode.UnregisteredDomain
+        || code == NSExceptionCode.UnspecifiedResolver
+        || code == NSExceptionCode.RecordNotFound;
+  }
+
+  @AllArgsConstructor
+  private static class Outcome {
+    private final NSExceptionCode code;
+    private final NSExceptionParams params;
+  }
+
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  private static class Key {
+    private final String namehash;
+    private final String recordKey;
+    private final String layer;
+  }
+}
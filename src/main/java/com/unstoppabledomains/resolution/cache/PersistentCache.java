@@ -0,0 +1,494 @@
+package com.unstoppabledomains.resolution.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.unstoppabledomains.resolution.artifacts.Numeric;
+import com.unstoppabledomains.resolution.contracts.uns.ProxyData;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+/**
+ * On-disk cache tier for resolved records, owners and domain locations, kept in a memory-mapped file
+ * so a restarted process starts warm and several processes on one host can share it.
+ * <p>
+ * The file is an append-only log of entries after a 16 byte header (magic, generation, end offset).
+ * Every entry holds its length, kind, 32 byte namehash, layer, write time and payload, and the latest entry for
+ * a (namehash, layer, kind) wins. Entries written by other processes are picked up on the next lookup.
+ * When the file is full, live entries are compacted to its start and the generation is increased,
+ * which makes other processes re-read the file. Appends and compaction hold a file lock.
+ * Use one instance per file in a process
+ */
+public class PersistentCache implements Closeable {
+  private static final int MAGIC = 0x55445243; // "UDRC"
+  private static final int HEADER_SIZE = 16;
+  private static final int GENERATION_OFFSET = 4;
+  private static final int END_OFFSET = 8;
+
+  private static final byte RECORDS = 0;
+  private static final byte RECORD_SET = 1;
+  private static final byte LOCATION = 2;
+  private static final byte TOMBSTONE = 3;
+
+  private static final byte SCOPE_DOMAIN = 0;
+  private static final byte SCOPE_LAYER = 1;
+
+  private final PersistentCacheConfig config;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final Map<Key, Integer> index = new HashMap<>();
+  // indexed records by namehash and by layer, so tombstones don't scan the whole index
+  private final Map<String, Set<Key>> domains = new HashMap<>();
+  private final Map<String, Set<Key>> layers = new HashMap<>();
+  private int generation;
+  private int scannedEnd = HEADER_SIZE;
+  private long hits;
+  private long misses;
+
+  public PersistentCache(Path file) throws IOException {
+    this(file, PersistentCacheConfig.defaultConfig());
+  }
+
+  public PersistentCache(Path file, PersistentCacheConfig config) throws IOException {
+    this.config = config;
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, config.getCapacity());
+    FileLock lock = channel.lock();
+    try {
+      if (buffer.getInt(0) != MAGIC || end() < HEADER_SIZE || end() > config.getCapacity()) {
+        buffer.putInt(GENERATION_OFFSET, 0);
+        buffer.putLong(END_OFFSET, HEADER_SIZE);
+        buffer.putInt(0, MAGIC);
+      }
+    } finally {
+      lock.release();
+    }
+    synchronized (this) {
+      refresh();
+    }
+  }
+
+  /**
+   * @param namehash domain namehash
+   * @param layer layer or naming service the data comes from
+   * @param keys record keys
+   * @return resolver, owner and values of all keys, {@code null} unless every key is stored
+   */
+  public synchronized ProxyData get(String namehash, String layer, String[] keys) {
+    Record record = read(namehash, layer, RECORDS);
+    if (record == null || !record.records.keySet().containsAll(Arrays.asList(keys))) {
+      return count(null);
+    }
+    List<String> values = new ArrayList<>(keys.length);
+    for (String key : keys) {
+      values.add(record.records.get(key));
+    }
+    return count(new ProxyData(record.resolver, record.owner, values));
+  }
+
+  /**
+   * Stores the values together with those already stored for the domain,
+   * the merged entry keeps the write time of the stored values so they don't outlive their ttl
+   * @param namehash domain namehash
+   * @param layer layer or naming service the data comes from
+   * @param keys record keys
+   * @param data resolver, owner and values of the keys in the same order
+   */
+  public synchronized void put(String namehash, String layer, String[] keys, ProxyData data) {
+    Entry previous = readEntry(namehash, layer, RECORDS);
+    Map<String, String> records = new LinkedHashMap<>();
+    long writtenAt = System.currentTimeMillis();
+    if (previous != null && previous.record.resolver.equals(data.getResolver()) && previous.record.owner.equals(data.getOwner())) {
+      records.putAll(previous.record.records);
+    }
+    Set<String> kept = new HashSet<>(records.keySet());
+    List<String> values = data.getValues();
+    for (int i = 0; i < keys.length && i < values.size(); i++) {
+      records.put(keys[i], values.get(i));
+      kept.remove(keys[i]);
+    }
+    if (!kept.isEmpty()) {
+      writtenAt = previous.writtenAt;
+    }
+    append(namehash, layer, RECORDS, new Record(data.getResolver(), data.getOwner(), records, null), writtenAt);
+  }
+
+  /**
+   * @return all records of the domain, {@code null} if they are not stored
+   */
+  public synchronized Map<String, String> getAll(String namehash, String layer) {
+    Record record = read(namehash, layer, RECORD_SET);
+    return count(record == null ? null : new HashMap<>(record.records));
+  }
+
+  public synchronized void putAll(String namehash, String layer, Map<String, String> all) {
+    append(namehash, layer, RECORD_SET, new Record("", "", all, null));
+  }
+
+  /**
+   * @param namehash domain namehash
+   * @return layer the domain lives on, {@code null} if it is not stored
+   */
+  public synchronized String getLocation(String namehash) {
+    Record record = read(namehash, "", LOCATION);
+    return count(record == null || record.location.isEmpty() ? null : record.location);
+  }
+
+  /**
+   * @param namehash domain namehash
+   * @param location layer the domain lives on, {@code null} to forget it
+   */
+  public synchronized void putLocation(String namehash, String location) {
+    append(namehash, "", LOCATION, new Record("", "", Collections.emptyMap(), location == null ? "" : location));
+  }
+
+  /**
+   * Drops records of a domain on all layers, its location is kept
+   * @param namehash domain namehash
+   */
+  public synchronized void invalidate(String namehash) {
+    if (!isStorable(namehash)) {
+      return;
+    }
+    refresh();
+    if (domains.containsKey(namehash.toLowerCase())) {
+      appendTombstone(namehash, "", SCOPE_DOMAIN);
+    }
+  }
+
+  /**
+   * Drops records of all domains on a layer
+   * @param layer layer or naming service
+   */
+  public synchronized void invalidateLayer(String layer) {
+    refresh();
+    if (layers.containsKey(layer)) {
+      appendTombstone(null, layer, SCOPE_LAYER);
+    }
+  }
+
+  public synchronized void clear() {
+    try {
+      FileLock lock = channel.lock();
+      try {
+        buffer.putLong(END_OFFSET, HEADER_SIZE);
+        buffer.putInt(GENERATION_OFFSET, buffer.getInt(GENERATION_OFFSET) + 1);
+      } finally {
+        lock.release();
+      }
+    } catch (IOException e) {
+      return;
+    }
+    refresh();
+  }
+
+  /**
+   * @return lookups answered from the file, size is the amount of live entries
+   */
+  public synchronized CacheStats getStats() {
+    return new CacheStats(hits, misses, 0, index.size());
+  }
+
+  @Override
+  public void close() throws IOException {
+    buffer.force();
+    channel.close();
+  }
+
+  private <T> T count(T result) {
+    if (result == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return result;
+  }
+
+  private Record read(String namehash, String layer, byte kind) {
+    Entry entry = readEntry(namehash, layer, kind);
+    return entry == null ? null : entry.record;
+  }
+
+  private Entry readEntry(String namehash, String layer, byte kind) {
+    if (!isStorable(namehash)) {
+      return null;
+    }
+    refresh();
+    Key key = new Key(namehash.toLowerCase(), layer, kind);
+    Integer offset = index.get(key);
+    if (offset == null) {
+      return null;
+    }
+    try {
+      Entry entry = parse(offset);
+      // another process may have compacted the file since it was indexed, moving other entries to the offset
+      if (buffer.getInt(GENERATION_OFFSET) != generation || !key.equals(new Key(entry.namehash, entry.layer, entry.kind))) {
+        return null;
+      }
+      if (System.currentTimeMillis() - entry.writtenAt >= config.getTtl()) {
+        return null;
+      }
+      return entry;
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      // rewritten by another process meanwhile
+      return null;
+    }
+  }
+
+  private void append(String namehash, String layer, byte kind, Record record) {
+    append(namehash, layer, kind, record, System.currentTimeMillis());
+  }
+
+  private void append(String namehash, String layer, byte kind, Record record, long writtenAt) {
+    if (!isStorable(namehash)) {
+      return;
+    }
+    ByteBuffer payload = ByteBuffer.allocate(payloadSize(record));
+    writeString(payload, record.resolver);
+    writeString(payload, record.owner);
+    payload.putInt(record.records.size());
+    for (Map.Entry<String, String> value : record.records.entrySet()) {
+      writeString(payload, value.getKey());
+      writeString(payload, value.getValue());
+    }
+    writeString(payload, record.location == null ? "" : record.location);
+    write(Numeric.hexStringToByteArray(namehash), layer, kind, payload.array(), writtenAt);
+  }
+
+  private void appendTombstone(String namehash, String layer, byte scope) {
+    byte[] target = namehash == null ? new byte[32] : Numeric.hexStringToByteArray(namehash);
+    write(target, layer, TOMBSTONE, new byte[] { scope }, System.currentTimeMillis());
+  }
+
+  private void write(byte[] namehash, String layer, byte kind, byte[] payload, long writtenAt) {
+    byte[] layerBytes = layer.getBytes(StandardCharsets.UTF_8);
+    int length = 4 + 1 + 32 + 1 + layerBytes.length + 8 + payload.length;
+    if (layerBytes.length > 0xFF || length > config.getCapacity() - HEADER_SIZE) {
+      return;
+    }
+    try {
+      FileLock lock = channel.lock();
+      try {
+        refresh();
+        if (end() + length > config.getCapacity()) {
+          compact();
+          if (end() + length > config.getCapacity()) {
+            return;
+          }
+        }
+        int offset = (int) end();
+        ByteBuffer target = buffer.duplicate();
+        target.position(offset);
+        target.putInt(length);
+        target.put(kind);
+        target.put(namehash);
+        target.put((byte) layerBytes.length);
+        target.put(layerBytes);
+        target.putLong(writtenAt);
+        target.put(payload);
+        // publish the entry only once it is complete
+        buffer.putLong(END_OFFSET, offset + length);
+      } finally {
+        lock.release();
+      }
+    } catch (IOException e) {
+      // the cache is best effort
+    }
+    refresh();
+  }
+
+  /**
+   * Rewrites the live entries to the start of the file, must be called holding the file lock
+   */
+  private void compact() {
+    long now = System.currentTimeMillis();
+    List<byte[]> live = new ArrayList<>();
+    for (Integer offset : index.values()) {
+      Entry entry = parse(offset);
+      if (now - entry.writtenAt < config.getTtl()) {
+        byte[] bytes = new byte[entry.length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset);
+        source.get(bytes);
+        live.add(bytes);
+      }
+    }
+    // move readers of other processes to an empty new generation before overwriting entries
+    buffer.putLong(END_OFFSET, HEADER_SIZE);
+    buffer.putInt(GENERATION_OFFSET, buffer.getInt(GENERATION_OFFSET) + 1);
+    ByteBuffer target = buffer.duplicate();
+    target.position(HEADER_SIZE);
+    for (byte[] bytes : live) {
+      target.put(bytes);
+    }
+    buffer.putLong(END_OFFSET, target.position());
+    refresh();
+  }
+
+  /**
+   * Indexes entries appended since the last call, or the whole file after another process compacted it
+   */
+  private void refresh() {
+    int currentGeneration = buffer.getInt(GENERATION_OFFSET);
+    if (currentGeneration != generation) {
+      generation = currentGeneration;
+      index.clear();
+      domains.clear();
+      layers.clear();
+      scannedEnd = HEADER_SIZE;
+    }
+    long end = end();
+    while (scannedEnd < end) {
+      Entry entry;
+      try {
+        entry = parse(scannedEnd);
+      } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+        return;
+      }
+      if (entry.kind == TOMBSTONE) {
+        applyTombstone(entry);
+      } else {
+        index(new Key(entry.namehash, entry.layer, entry.kind), scannedEnd);
+      }
+      scannedEnd += entry.length;
+    }
+  }
+
+  private void index(Key key, int offset) {
+    index.put(key, offset);
+    // locations survive tombstones
+    if (key.kind != LOCATION) {
+      domains.computeIfAbsent(key.namehash, k -> new HashSet<>()).add(key);
+      layers.computeIfAbsent(key.layer, k -> new HashSet<>()).add(key);
+    }
+  }
+
+  private void applyTombstone(Entry tombstone) {
+    Set<Key> keys = tombstone.scope == SCOPE_LAYER ? layers.remove(tombstone.layer) : domains.remove(tombstone.namehash);
+    if (keys == null) {
+      return;
+    }
+    for (Key key : keys) {
+      index.remove(key);
+      unlink(tombstone.scope == SCOPE_LAYER ? domains : layers, tombstone.scope == SCOPE_LAYER ? key.namehash : key.layer, key);
+    }
+  }
+
+  private static void unlink(Map<String, Set<Key>> keys, String group, Key key) {
+    Set<Key> grouped = keys.get(group);
+    if (grouped != null && grouped.remove(key) && grouped.isEmpty()) {
+      keys.remove(group);
+    }
+  }
+
+  private Entry parse(int offset) {
+    ByteBuffer source = buffer.duplicate();
+    source.position(offset);
+    Entry entry = new Entry();
+    entry.length = source.getInt();
+    if (entry.length <= 0 || offset + entry.length > config.getCapacity()) {
+      throw new IllegalArgumentException("Corrupted entry at " + offset);
+    }
+    entry.kind = source.get();
+    byte[] namehash = new byte[32];
+    source.get(namehash);
+    entry.namehash = Numeric.toHexString(namehash);
+    byte[] layer = new byte[source.get() & 0xFF];
+    source.get(layer);
+    entry.layer = new String(layer, StandardCharsets.UTF_8);
+    entry.writtenAt = source.getLong();
+    if (entry.kind == TOMBSTONE) {
+      entry.scope = source.get();
+      return entry;
+    }
+    String resolver = readString(source);
+    String owner = readString(source);
+    int count = source.getInt();
+    Map<String, String> records = new LinkedHashMap<>();
+    for (int i = 0; i < count; i++) {
+      records.put(readString(source), readString(source));
+    }
+    entry.record = new Record(resolver, owner, records, readString(source));
+    return entry;
+  }
+
+  private long end() {
+    return buffer.getLong(END_OFFSET);
+  }
+
+  private static boolean isStorable(String namehash) {
+    return namehash != null && namehash.length() == 66 && namehash.startsWith("0x");
+  }
+
+  private static int payloadSize(Record record) {
+    int size = 4 + utf8Length(record.resolver) + 4 + utf8Length(record.owner) + 4;
+    for (Map.Entry<String, String> value : record.records.entrySet()) {
+      size += 4 + utf8Length(value.getKey()) + 4 + utf8Length(value.getValue());
+    }
+    return size + 4 + utf8Length(record.location == null ? "" : record.location);
+  }
+
+  private static int utf8Length(String value) {
+    return value.getBytes(StandardCharsets.UTF_8).length;
+  }
+
+  private static void writeString(ByteBuffer target, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    target.putInt(bytes.length);
+    target.put(bytes);
+  }
+
+  private static String readString(ByteBuffer source) {
+    int length = source.getInt();
+    if (length < 0 || length > source.remaining()) {
+      throw new IllegalArgumentException("Corrupted string");
+    }
+    byte[] bytes = new byte[length];
+    source.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @AllArgsConstructor
+  private static class Record {
+    private final String resolver;
+    private final String owner;
+    private final Map<String, String> records;
+    private final String location;
+  }
+
+  private static class Entry {
+    private int length;
+    private byte kind;
+    private String namehash;
+    private String layer;
+    private long writtenAt;
+    private byte scope;
+    private Record record;
+  }
+
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  private static class Key {
+    private final String namehash;
+    private final String layer;
+    private final byte kind;
+  }
+}
@@ -0,0 +1,22 @@
+package com.unstoppabledomains.resolution.cache;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Size and lifetime of a {@link PersistentCache}
+ */
+@Getter
+@Builder
+public class PersistentCacheConfig {
+  /** Size of the cache file in bytes. Expired and overwritten entries are compacted away when it fills up */
+  @Builder.Default
+  private int capacity = 64 * 1024 * 1024;
+  /** How long an entry stays valid after it was written, in milliseconds. Also applies to entries written by earlier runs */
+  @Builder.Default
+  private long ttl = 24 * 60 * 60 * 1000L;
+
+  public static PersistentCacheConfig defaultConfig() {
+    return PersistentCacheConfig.builder().build();
+  }
+}
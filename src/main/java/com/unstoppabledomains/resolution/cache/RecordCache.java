@@ -0,0 +1,246 @@
+package com.unstoppabledomains.resolution.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.unstoppabledomains.config.KnownRecords;
+import com.unstoppabledomains.resolution.contracts.uns.ProxyData;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Cache of resolved records keyed by (namehash, record key, layer).
+ * Resolver and owner of a domain are kept per (namehash, layer) next to the records, so a fully cached
+ * lookup can be answered without any RPC call. Services that always load every record of a domain (ZNS)
+ * keep the whole record set under the record key {@value #ALL_RECORDS}.
+ * Share one instance between resolutions to share the cached data
+ */
+public class RecordCache {
+  /** Record key under which complete record sets are counted in {@link #getKeyStats()} */
+  public static final String ALL_RECORDS = "*";
+  /** Record key under which keys missing from the known records are counted in {@link #getKeyStats()} */
+  public static final String OTHER_RECORDS = "other";
+
+  private static final Set<String> KNOWN_KEYS = KnownRecords.getAllRecordKeys();
+
+  private final TtlCache<Key, String> records;
+  private final TtlCache<Key, ProxyData> domains;
+  private final TtlCache<Key, Map<String, String>> recordSets;
+  private final Map<String, AtomicLong[]> keyStats = new ConcurrentHashMap<>();
+  // keys of the cached entries by namehash and by layer, so invalidation doesn't scan the caches
+  private final Map<String, Set<Key>> byDomain = new ConcurrentHashMap<>();
+  private final Map<String, Set<Key>> byLayer = new ConcurrentHashMap<>();
+  private final PersistentCache persistent;
+
+  public RecordCache() {
+    this(CacheConfig.defaultConfig());
+  }
+
+  public RecordCache(CacheConfig config) {
+    this(config, null);
+  }
+
+  /**
+   * @param config size and lifetime of the in-memory tier
+   * @param persistent on-disk tier consulted on memory misses and written through, may be {@code null}
+   */
+  public RecordCache(CacheConfig config, PersistentCache persistent) {
+    records = new TtlCache<>(config, this::unlink);
+    domains = new TtlCache<>(config, this::unlink);
+    recordSets = new TtlCache<>(config, this::unlink);
+    this.persistent = persistent;
+  }
+
+  /**
+   * @param namehash domain namehash
+   * @param layer layer or naming service the data comes from
+   * @param keys record keys
+   * @return resolver, owner and values of all keys, {@code null} unless every key is cached
+   */
+  public ProxyData get(String namehash, String layer, String[] keys) {
+    ProxyData domain = domains.get(new Key(namehash, null, layer));
+    List<String> values = new ArrayList<>(keys.length);
+    boolean complete = domain != null;
+    for (String key : keys) {
+      String value = complete ? records.get(new Key(namehash, key, layer)) : null;
+      count(key, value != null);
+      complete &= value != null;
+      values.add(value);
+    }
+    if (complete) {
+      return new ProxyData(domain.getResolver(), domain.getOwner(), values);
+    }
+    ProxyData stored = persistent != null ? persistent.get(namehash, layer, keys) : null;
+    if (stored != null) {
+      putInMemory(namehash, layer, keys, stored);
+    }
+    return stored;
+  }
+
+  /**
+   * @param namehash domain namehash
+   * @param layer layer or naming service the data comes from
+   * @param keys record keys
+   * @param data resolver, owner and values of the keys in the same order
+   */
+  public void put(String namehash, String layer, String[] keys, ProxyData data) {
+    putInMemory(namehash, layer, keys, data);
+    if (persistent != null) {
+      persistent.put(namehash, layer, keys, data);
+    }
+  }
+
+  private void putInMemory(String namehash, String layer, String[] keys, ProxyData data) {
+    Key domain = link(new Key(namehash, null, layer));
+    domains.put(domain, new ProxyData(data.getResolver(), data.getOwner(), Collections.emptyList()));
+    List<String> values = data.getValues();
+    for (int i = 0; i < keys.length && i < values.size(); i++) {
+      records.put(link(new Key(namehash, keys[i], layer)), values.get(i));
+    }
+  }
+
+  /**
+   * @param namehash domain namehash
+   * @param layer layer or naming service the data comes from
+   * @return all records of the domain, {@code null} if they are not cached
+   */
+  public Map<String, String> getAll(String namehash, String layer) {
+    Map<String, String> result = recordSets.get(new Key(namehash, ALL_RECORDS, layer));
+    count(ALL_RECORDS, result != null);
+    if (result == null && persistent != null) {
+      result = persistent.getAll(namehash, layer);
+      if (result != null) {
+        recordSets.put(link(new Key(namehash, ALL_RECORDS, layer)), result);
+      }
+    }
+    return result == null ? null : new HashMap<>(result);
+  }
+
+  public void putAll(String namehash, String layer, Map<String, String> all) {
+    recordSets.put(link(new Key(namehash, ALL_RECORDS, layer)), new HashMap<>(all));
+    if (persistent != null) {
+      persistent.putAll(namehash, layer, all);
+    }
+  }
+
+  /**
+   * Drops everything cached for a domain on all layers
+   * @param namehash domain namehash
+   */
+  public void invalidate(String namehash) {
+    Set<Key> keys = byDomain.remove(namehash);
+    if (keys != null) {
+      for (Key key : keys) {
+        remove(key);
+        unlink(byLayer, key.layer, key);
+      }
+    }
+    if (persistent != null) {
+      persistent.invalidate(namehash);
+    }
+  }
+
+  /**
+   * Drops everything cached for a layer
+   * @param layer layer or naming service
+   */
+  public void invalidateLayer(String layer) {
+    Set<Key> keys = byLayer.remove(layer);
+    if (keys != null) {
+      for (Key key : keys) {
+        remove(key);
+        unlink(byDomain, key.namehash, key);
+      }
+    }
+    if (persistent != null) {
+      persistent.invalidateLayer(layer);
+    }
+  }
+
+  public void clear() {
+    records.clear();
+    domains.clear();
+    recordSets.clear();
+    byDomain.clear();
+    byLayer.clear();
+    if (persistent != null) {
+      persistent.clear();
+    }
+  }
+
+  /**
+   * @return statistics of individual records
+   */
+  public CacheStats getStats() {
+    return records.getStats();
+  }
+
+  /**
+   * @return hits and misses per known record key and complete record sets,
+   * other keys are counted together under {@value #OTHER_RECORDS}
+   */
+  public Map<String, CacheStats> getKeyStats() {
+    Map<String, CacheStats> stats = new HashMap<>();
+    keyStats.forEach((key, counters) -> stats.put(key, new CacheStats(counters[0].get(), counters[1].get(), 0, 0)));
+    return stats;
+  }
+
+  private Key link(Key key) {
+    link(byDomain, key.namehash, key);
+    link(byLayer, key.layer, key);
+    return key;
+  }
+
+  private void unlink(Key key) {
+    unlink(byDomain, key.namehash, key);
+    unlink(byLayer, key.layer, key);
+  }
+
+  private void remove(Key key) {
+    if (key.recordKey == null) {
+      domains.remove(key);
+    } else if (key.recordKey.equals(ALL_RECORDS)) {
+      recordSets.remove(key);
+    } else {
+      records.remove(key);
+    }
+  }
+
+  private static void link(Map<String, Set<Key>> index, String group, Key key) {
+    index.compute(group, (g, keys) -> {
+      Set<Key> linked = keys == null ? new HashSet<>() : keys;
+      linked.add(key);
+      return linked;
+    });
+  }
+
+  private static void unlink(Map<String, Set<Key>> index, String group, Key key) {
+    index.computeIfPresent(group, (g, keys) -> {
+      keys.remove(key);
+      return keys.isEmpty() ? null : keys;
+    });
+  }
+
+  private void count(String key, boolean hit) {
+    // keys come from callers, so only a bounded set of them gets its own counters
+    String counted = key.equals(ALL_RECORDS) || KNOWN_KEYS.contains(key) ? key : OTHER_RECORDS;
+    AtomicLong[] counters = keyStats.computeIfAbsent(counted, k -> new AtomicLong[] { new AtomicLong(), new AtomicLong() });
+    counters[hit ? 0 : 1].incrementAndGet();
+  }
+
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  private static class Key {
+    private final String namehash;
+    private final String recordKey;
+    private final String layer;
+  }
+}
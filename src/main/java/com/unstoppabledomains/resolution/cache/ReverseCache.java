@@ -0,0 +1,118 @@
+package com.unstoppabledomains.resolution.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Cache of reverse resolutions keyed by (address, scope), where the scope is the layer the reverse record
+ * was read from or the naming service when both layers were asked. Each entry holds the token ID (as namehash)
+ * and, once it has been looked up and verified, the domain name.
+ * Entries of an address are dropped as soon as a forward lookup sees the domain owned by another address,
+ * since a transfer also clears the reverse record on chain
+ */
+public class ReverseCache {
+  private final TtlCache<Key, Reverse> reverses;
+  private final TtlCache<String, String> addresses;
+
+  public ReverseCache() {
+    this(CacheConfig.defaultConfig());
+  }
+
+  public ReverseCache(CacheConfig config) {
+    reverses = new TtlCache<>(config);
+    addresses = new TtlCache<>(config);
+  }
+
+  /**
+   * @param address wallet address
+   * @param scope layer or naming service
+   * @return namehash of the reverse token, {@code null} if it isn't cached
+   */
+  public String getTokenId(String address, String scope) {
+    Reverse reverse = reverses.get(new Key(address.toLowerCase(), scope));
+    return reverse == null ? null : reverse.tokenId;
+  }
+
+  /**
+   * @param address wallet address
+   * @param scope layer or naming service
+   * @return verified domain name of the reverse token, {@code null} if it isn't cached
+   */
+  public String getName(String address, String scope) {
+    Reverse reverse = reverses.get(new Key(address.toLowerCase(), scope));
+    return reverse == null ? null : reverse.name;
+  }
+
+  /**
+   * Remembers the reverse token of an address, a known name is kept when the token didn't change
+   * @param address wallet address
+   * @param scope layer or naming service
+   * @param tokenId namehash of the reverse token
+   */
+  public void putTokenId(String address, String scope, String tokenId) {
+    Key key = new Key(address.toLowerCase(), scope);
+    Reverse known = reverses.get(key);
+    String name = known != null && known.tokenId.equals(tokenId) ? known.name : null;
+    reverses.put(key, new Reverse(tokenId, name));
+    addresses.put(tokenId, key.address);
+  }
+
+  /**
+   * @param address wallet address
+   * @param scope layer or naming service
+   * @param tokenId namehash of the reverse token
+   * @param name domain name the token ID was verified against
+   */
+  public void putName(String address, String scope, String tokenId, String name) {
+    Key key = new Key(address.toLowerCase(), scope);
+    reverses.put(key, new Reverse(tokenId, name));
+    addresses.put(tokenId, key.address);
+  }
+
+  /**
+   * Called with owners seen by forward lookups, drops the reverse entries that point at a domain
+   * which now belongs to another address
+   * @param namehash domain namehash
+   * @param owner current owner, {@code null} or empty if the domain isn't registered
+   */
+  public void ownerSeen(String namehash, String owner) {
+    String address = addresses.get(namehash);
+    if (address != null && (owner == null || !address.equalsIgnoreCase(owner))) {
+      invalidate(namehash);
+    }
+  }
+
+  /**
+   * Drops the reverse entries that point at a domain
+   * @param namehash domain namehash
+   */
+  public void invalidate(String namehash) {
+    String address = addresses.get(namehash);
+    if (address != null) {
+      addresses.remove(namehash);
+      reverses.removeIf(key -> key.address.equals(address));
+    }
+  }
+
+  public void clear() {
+    reverses.clear();
+    addresses.clear();
+  }
+
+  public CacheStats getStats() {
+    return reverses.getStats();
+  }
+
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  private static class Key {
+    private final String address;
+    private final String scope;
+  }
+
+  @AllArgsConstructor
+  private static class Reverse {
+    private final String tokenId;
+    private final String name;
+  }
+}
@@ -0,0 +1,159 @@
+package com.unstoppabledomains.resolution.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Thread safe in-memory cache bounded by size (least recently used entries go first) and entry lifetime
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class TtlCache<K, V> {
+  private final int maxSize;
+  private final long ttl;
+  private final Consumer<K> onDrop;
+  private final LinkedHashMap<K, Entry<V>> entries;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public TtlCache(CacheConfig config) {
+    this(config, key -> { });
+  }
+
+  /**
+   * @param config size and lifetime of entries
+   * @param onDrop called with keys the cache drops by itself, when they are evicted or found expired
+   */
+  public TtlCache(CacheConfig config, Consumer<K> onDrop) {
+    this(config.getMaxSize(), config.getTtl(), onDrop);
+  }
+
+  /**
+   * @param maxSize maximum amount of entries
+   * @param ttl default lifetime of entries in milliseconds
+   */
+  public TtlCache(int maxSize, long ttl) {
+    this(maxSize, ttl, key -> { });
+  }
+
+  /**
+   * @param maxSize maximum amount of entries
+   * @param ttl default lifetime of entries in milliseconds
+   * @param onDrop called with keys the cache drops by itself, when they are evicted or found expired
+   */
+  public TtlCache(int maxSize, long ttl, Consumer<K> onDrop) {
+    this.maxSize = maxSize;
+    this.ttl = ttl;
+    this.onDrop = onDrop;
+    this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+        if (size() > TtlCache.this.maxSize) {
+          evictions++;
+          onDrop.accept(eldest.getKey());
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * @param key key
+   * @return cached value or {@code null} if there is none or it has expired
+   */
+  public synchronized V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null || isExpired(entry)) {
+      if (entry != null) {
+        entries.remove(key);
+        onDrop.accept(key);
+      }
+      misses++;
+      return null;
+    }
+    hits++;
+    return entry.value;
+  }
+
+  /**
+   * @param key key
+   * @return true if there is a valid entry for the key, doesn't affect statistics
+   */
+  public synchronized boolean contains(K key) {
+    Entry<V> entry = entries.get(key);
+    return entry != null && !isExpired(entry);
+  }
+
+  public void put(K key, V value) {
+    put(key, value, ttl);
+  }
+
+  /**
+   * @param key key
+   * @param value value
+   * @param ttl lifetime of this entry in milliseconds
+   */
+  public synchronized void put(K key, V value, long ttl) {
+    if (ttl <= 0) {
+      return;
+    }
+    entries.put(key, new Entry<>(value, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttl)));
+  }
+
+  public synchronized void remove(K key) {
+    entries.remove(key);
+  }
+
+  /**
+   * Removes all entries with keys matching the filter
+   * @param filter key filter
+   */
+  public synchronized void removeIf(Predicate<K> filter) {
+    Iterator<K> keys = entries.keySet().iterator();
+    while (keys.hasNext()) {
+      if (filter.test(keys.next())) {
+        keys.remove();
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  /**
+   * @param key key
+   * @return remaining lifetime of the entry in milliseconds, 0 if there is no valid entry
+   */
+  public synchronized long remainingTtl(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return 0;
+    }
+    return Math.max(0, TimeUnit.NANOSECONDS.toMillis(entry.expiresAt - System.nanoTime()));
+  }
+
+  public synchronized CacheStats getStats() {
+    return new CacheStats(hits, misses, evictions, entries.size());
+  }
+
+  private static boolean isExpired(Entry<?> entry) {
+    return System.nanoTime() - entry.expiresAt >= 0;
+  }
+
+  private static class Entry<V> {
+    final V value;
+    final long expiresAt;
+
+    Entry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
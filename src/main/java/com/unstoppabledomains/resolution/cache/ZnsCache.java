@@ -0,0 +1,87 @@
+package com.unstoppabledomains.resolution.cache;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Cache of the two ZNS lookups behind every record or owner call: the registry entry of a domain
+ * (namehash to owner and resolver address) and the {@code records} map of a resolver contract.
+ * Record maps are keyed by resolver address, so a domain that switches resolver never reads the records of the old one
+ */
+public class ZnsCache {
+  private final TtlCache<String, String[]> addresses;
+  private final TtlCache<String, JsonObject> records;
+
+  public ZnsCache() {
+    this(CacheConfig.defaultConfig());
+  }
+
+  public ZnsCache(CacheConfig config) {
+    addresses = new TtlCache<>(config);
+    records = new TtlCache<>(config);
+  }
+
+  /**
+   * @param namehash domain namehash
+   * @return owner and resolver address, {@code null} if they are not cached
+   */
+  public String[] getAddresses(String namehash) {
+    String[] cached = addresses.get(namehash.toLowerCase());
+    return cached == null ? null : cached.clone();
+  }
+
+  /**
+   * @param namehash domain namehash
+   * @param ownerAndResolver registry arguments of the domain, owner first and resolver second
+   */
+  public void putAddresses(String namehash, String[] ownerAndResolver) {
+    addresses.put(namehash.toLowerCase(), ownerAndResolver.clone());
+  }
+
+  /**
+   * @param resolver resolver contract address
+   * @return copy of the records map of the resolver, {@code null} if it is not cached
+   */
+  public JsonObject getRecords(String resolver) {
+    JsonObject cached = records.get(resolver.toLowerCase());
+    return cached == null ? null : cached.deepCopy();
+  }
+
+  public void putRecords(String resolver, JsonObject recordsMap) {
+    records.put(resolver.toLowerCase(), recordsMap.deepCopy());
+  }
+
+  /**
+   * Drops the registry entry of a domain, its resolver records expire on their own
+   * @param namehash domain namehash
+   */
+  public void invalidate(String namehash) {
+    addresses.remove(namehash.toLowerCase());
+  }
+
+  /**
+   * Drops the cached records of a resolver
+   * @param resolver resolver contract address
+   */
+  public void invalidateResolver(String resolver) {
+    records.remove(resolver.toLowerCase());
+  }
+
+  public void clear() {
+    addresses.clear();
+    records.clear();
+  }
+
+  /**
+   * @return statistics of the registry entries
+   */
+  public CacheStats getAddressStats() {
+    return addresses.getStats();
+  }
+
+  /**
+   * @return statistics of the resolver record maps
+   */
+  public CacheStats getRecordStats() {
+    return records.getStats();
+  }
+}
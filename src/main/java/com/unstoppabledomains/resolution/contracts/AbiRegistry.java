@@ -0,0 +1,158 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import com.esaulpaugh.headlong.abi.Function;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.unstoppabledomains.resolution.artifacts.Hash;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Immutable index of a contract ABI. Functions are parsed once into headlong {@link Function}s
+ * (with their selectors) keyed by name and arity, and event topics are hashed once, so contract calls never
+ * touch the ABI JSON. Each ABI is loaded once per resource path and shared by all contracts using it
+ */
+public final class AbiRegistry {
+  private static final Map<String, AbiRegistry> LOADED = new ConcurrentHashMap<>();
+
+  private final JsonArray abi;
+  private final Map<String, Function> functions;
+  private final Map<String, JsonObject> events;
+  private final Map<String, String> eventTopics;
+
+  private AbiRegistry(JsonArray abi) {
+    this.abi = abi;
+    Map<String, Function> functions = new HashMap<>();
+    Map<String, JsonObject> events = new HashMap<>();
+    Map<String, String> eventTopics = new HashMap<>();
+    for (JsonElement element : abi) {
+      JsonObject description = element.getAsJsonObject();
+      JsonElement jname = description.get("name");
+      if (jname == null) {
+        continue;
+      }
+      String name = jname.getAsString();
+      JsonElement type = description.get("type");
+      if (type != null && type.getAsString().equals("event")) {
+        if (!events.containsKey(name)) {
+          events.put(name, description);
+          eventTopics.put(name, topicOf(name, description));
+        }
+        continue;
+      }
+      JsonArray inputs = description.getAsJsonArray("inputs");
+      String key = key(name, inputs == null ? 0 : inputs.size());
+      if (!functions.containsKey(key)) {
+        try {
+          functions.put(key, Function.fromJson(description.toString()));
+        } catch (RuntimeException e) {
+          // not a callable function, such as an entry headlong can't parse; calls report it as missing
+        }
+      }
+    }
+    this.functions = Collections.unmodifiableMap(functions);
+    this.events = Collections.unmodifiableMap(events);
+    this.eventTopics = Collections.unmodifiableMap(eventTopics);
+  }
+
+  /**
+   * @param path ABI resource path, identifies the ABI
+   * @param loader reads the ABI JSON, called only the first time the path is asked for
+   * @return index of the ABI shared by everyone asking for the same path
+   */
+  public static AbiRegistry forPath(String path, Supplier<JsonArray> loader) {
+    return LOADED.computeIfAbsent(path, p -> new AbiRegistry(loader.get()));
+  }
+
+  /**
+   * @param abi ABI JSON
+   * @return index of the ABI, not shared
+   */
+  public static AbiRegistry fromJson(JsonArray abi) {
+    return new AbiRegistry(abi.deepCopy());
+  }
+
+  /**
+   * @param name function name
+   * @param arity amount of inputs
+   * @return parsed function
+   * @throws RuntimeException when the ABI has no such function
+   */
+  public Function getFunction(String name, int arity) {
+    Function function = functions.get(key(name, arity));
+    if (function == null) {
+      throw new RuntimeException("Couldn't found method " + name + " from ABI");
+    }
+    return function;
+  }
+
+  public boolean hasFunction(String name, int arity) {
+    return functions.containsKey(key(name, arity));
+  }
+
+  /**
+   * @param name event name
+   * @return keccak hash of the event signature, the first topic of its logs
+   * @throws RuntimeException when the ABI has no such event
+   */
+  public String getEventTopic(String name) {
+    getEvent(name);
+    return eventTopics.get(name);
+  }
+
+  /**
+   * @param event event name
+   * @param input name of an indexed input
+   * @return position of the input in the topics of the event logs, -1 if the event has no such indexed input
+   * @throws RuntimeException when the ABI has no such event
+   */
+  public int getTopicIndex(String event, String input) {
+    int index = 1;
+    for (JsonElement element : getEvent(event).getAsJsonArray("inputs")) {
+      JsonObject description = element.getAsJsonObject();
+      JsonElement indexed = description.get("indexed");
+      if (indexed == null || !indexed.getAsBoolean()) {
+        continue;
+      }
+      if (description.get("name").getAsString().equals(input)) {
+        return index;
+      }
+      index++;
+    }
+    return -1;
+  }
+
+  /**
+   * @return copy of the ABI JSON
+   */
+  public JsonArray getAbi() {
+    return abi.deepCopy();
+  }
+
+  private JsonObject getEvent(String name) {
+    JsonObject description = events.get(name);
+    if (description == null) {
+      throw new RuntimeException("Couldn't find event " + name + " from ABI");
+    }
+    return description;
+  }
+
+  private static String topicOf(String name, JsonObject description) {
+    List<String> types = new ArrayList<>();
+    for (JsonElement input : description.getAsJsonArray("inputs")) {
+      types.add(input.getAsJsonObject().get("type").getAsString());
+    }
+    return Hash.sha3String(name + "(" + String.join(",", types) + ")");
+  }
+
+  private static String key(String name, int arity) {
+    return name + "/" + arity;
+  }
+}
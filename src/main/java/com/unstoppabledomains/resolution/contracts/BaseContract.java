@@ -2,7 +2,6 @@ package com.unstoppabledomains.resolution.contracts;
 
 import com.esaulpaugh.headlong.abi.Function;
 import com.esaulpaugh.headlong.abi.Tuple;
-import com.esaulpaugh.headlong.util.FastHex;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -13,10 +12,12 @@ import com.google.gson.stream.JsonReader;
 import com.unstoppabledomains.exceptions.ns.NSExceptionCode;
 import com.unstoppabledomains.exceptions.ns.NSExceptionParams;
 import com.unstoppabledomains.exceptions.ns.NamingServiceException;
+import com.unstoppabledomains.resolution.artifacts.HexCodec;
 import com.unstoppabledomains.resolution.contracts.uns.ProxyData;
 
 import lombok.AllArgsConstructor;
 
+import com.unstoppabledomains.resolution.contracts.interfaces.IEthCallProvider;
 import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
 
 import java.io.IOException;
@@ -33,15 +34,20 @@ public abstract class BaseContract {
   private String namingServiceName;
   private String address;
   private String url;
-  private JsonArray abi;
+  private AbiRegistry abi;
   private IProvider provider;
+  private EthCallTemplate callTemplate;
+  private MulticallBatcher batcher;
+  private BlockTracker blockTracker;
+  private volatile EthCallTemplate pinnedTemplate;
 
   protected BaseContract(String namingServiceName, String url, String address, IProvider provider) {
     this.namingServiceName = namingServiceName;
     this.address = address;
     this.url = url;
-    this.abi = getAbi();
+    this.abi = AbiRegistry.forPath(getAbiPath(), this::getAbi);
     this.provider = provider;
+    this.callTemplate = new EthCallTemplate(address);
 
     gson = new GsonBuilder()
       .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
@@ -50,6 +56,9 @@ public abstract class BaseContract {
   
   protected abstract String getAbiPath();
 
+  /**
+   * Reads the ABI JSON, called once per ABI path; contracts share the parsed {@link AbiRegistry}
+   */
   protected JsonArray getAbi() {
       String path = getAbiPath();
       final JsonReader jsonReader =
@@ -67,7 +76,23 @@ public abstract class BaseContract {
   }
 
   protected ProxyData fetchData(Object[] args) throws NamingServiceException {
-    Tuple answ = fetchMethod("getData", args);
+    return toProxyData(fetchMethod("getData", args));
+  }
+
+  /**
+   * @param answ decoded return of {@code getData}
+   * @return resolver, owner and record values
+   */
+  protected ProxyData toProxyData(Tuple answ) {
+    return toProxyData(answ, 2);
+  }
+
+  /**
+   * @param answ decoded return of a {@code getData} variant
+   * @param valuesIndex position of the record values in the answer
+   * @return resolver, owner and record values
+   */
+  protected ProxyData toProxyData(Tuple answ, int valuesIndex) {
     String resolver = "";
     String owner = "";
     BigInteger resolverValue = (BigInteger) answ.get(0);
@@ -79,41 +104,110 @@ public abstract class BaseContract {
     if (ownerValue.intValue() != 0 ) {
       owner = "0x" + ((BigInteger) answ.get(1)).toString(16);
     }
-    List<String> values = Arrays.asList((String[]) answ.get(2));
+    List<String> values = Arrays.asList((String[]) answ.get(valuesIndex));
     return new ProxyData(resolver, owner, values);
   }
 
   private Tuple fetchMethod(String method, Object[] args) throws NamingServiceException {
-    JsonObject methodDescription = getMethodDescription(method, args.length);
-    Function function = Function.fromJson(methodDescription.toString());
-    ByteBuffer encoded = function.encodeCallWithArgs(args);
-    String data = toHexString(encoded.array());
-    JsonArray params = prepareParamsForBody(data, address);
-    JsonObject body = HTTPUtil.prepareBody("eth_call", params);
+    Function function = abi.getFunction(method, args.length);
+    return fetchEncoded(function, function.encodeCallWithArgs(args).array());
+  }
+
+  /**
+   * Calls a method with calldata that is already encoded, e.g. filled from a {@link CalldataTemplate}
+   * @param function called function, used to decode the answer
+   * @param calldata selector and encoded arguments
+   * @return decoded answer, empty tuple when the call failed on the contract level
+   */
+  protected Tuple fetchEncoded(Function function, byte[] calldata) throws NamingServiceException {
+    byte[] answer = batcher != null ? batcher.call(calldata) : sendCall(calldata);
+    if (answer == null) {
+      return new Tuple();
+    }
+    return function.decodeReturn(answer);
+  }
+
+  /**
+   * @param method function name
+   * @param arity amount of inputs
+   * @return function from the shared ABI index
+   */
+  protected Function getFunction(String method, int arity) {
+    return abi.getFunction(method, arity);
+  }
+
+  /**
+   * Makes concurrent single calls to this contract go through {@code multicall} in batches.
+   * Does nothing if the contract ABI has no multicall method
+   * @param config batching settings
+   */
+  protected void enableMulticallBatching(MulticallBatchingConfig config) {
+    if (!abi.hasFunction("multicall", 1)) {
+      return;
+    }
+    batcher = new MulticallBatcher(config, new MulticallBatcher.Transport() {
+      @Override
+      public List<byte[]> multicall(List<byte[]> calls) throws NamingServiceException {
+        return sendMulticall(calls);
+      }
+
+      @Override
+      public byte[] call(byte[] calldata) throws NamingServiceException {
+        return sendCall(calldata);
+      }
+    });
+  }
+
+  /**
+   * Sends all further calls against the block given by the tracker instead of "latest"
+   * @param tracker block tracker of the chain this contract lives on
+   */
+  public void pinToBlock(BlockTracker tracker) {
+    this.blockTracker = tracker;
+  }
+
+  private EthCallTemplate currentTemplate() {
+    if (blockTracker == null) {
+      return callTemplate;
+    }
+    long block = blockTracker.currentBlock();
+    if (block < 0) {
+      return callTemplate;
+    }
+    EthCallTemplate pinned = pinnedTemplate;
+    if (pinned == null || !pinned.getBlockTag().equals(EthCallTemplate.toBlockTag(block))) {
+      pinned = callTemplate.atBlock(block);
+      pinnedTemplate = pinned;
+    }
+    return pinned;
+  }
+
+  private byte[] sendCall(byte[] calldata) throws NamingServiceException {
     try {
-      JsonObject response = provider.request(url, body);
+      EthCallTemplate template = currentTemplate();
+      JsonObject response = provider instanceof IEthCallProvider
+          ? ((IEthCallProvider) provider).ethCall(url, template, calldata)
+          : provider.request(url, template.toJson(calldata));
       if (isUnknownError(response)) {
-        return new Tuple();
+        return null;
       }
-      String answer = response.get("result").getAsString();
-      final String replacedAnswer = answer.replace("0x", "");
-      return function.decodeReturn(FastHex.decode(replacedAnswer));
+      return HexCodec.decode(response.get("result").getAsString());
     } catch(IOException exception) {
-      if (exception.getMessage().matches("(.*)response code: (403|401|429)(.*)")) {
-        throw new NamingServiceException(
-          NSExceptionCode.RPCServerError,
-          new NSExceptionParams("sv",  exception.getMessage()),
-          exception
-        );
-      }
-      throw new NamingServiceException(
-        NSExceptionCode.BlockchainIsDown,
-        new NSExceptionParams("n", namingServiceName),
-        exception
-      );
+      throw toNamingServiceException(exception);
     }
   }
 
+  private List<byte[]> sendMulticall(List<byte[]> calls) throws NamingServiceException {
+    Function function = abi.getFunction("multicall", 1);
+    ByteBuffer encoded = function.encodeCallWithArgs(new Object[]{calls.toArray(new byte[calls.size()][])});
+    byte[] answer = sendCall(encoded.array());
+    if (answer == null) {
+      return null;
+    }
+    Tuple ansTuple = function.decodeReturn(answer);
+    return Arrays.asList((byte[][]) ansTuple.get(0));
+  }
+
   protected String fetchAddress(String method, Object[] args) throws NamingServiceException {
     BigInteger address = fetchOne(method, args);
     if (address == null) {
@@ -140,114 +234,135 @@ public abstract class BaseContract {
     List<Function> functions = new ArrayList<>();
     List<byte[]> buffers = new ArrayList<>();
     for (MulticallArgs call : args) {
-      JsonObject methodDescription = getMethodDescription(call.functionName, call.args.length);
-      Function function = Function.fromJson(methodDescription.toString());
+      Function function = abi.getFunction(call.functionName, call.args.length);
       functions.add(function);
       buffers.add(function.encodeCallWithArgs(call.args).array());
     }
-    JsonObject methodDescription = getMethodDescription("multicall", 1);
-    Function function = Function.fromJson(methodDescription.toString());
-    ByteBuffer encoded = function.encodeCallWithArgs(new Object[]{buffers.toArray(new byte[buffers.size()][])});
-
-    String data = toHexString(encoded.array());
-    JsonArray params = prepareParamsForBody(data, address);
+    List<byte[]> answers = sendMulticall(buffers);
+    if (answers == null) {
+      return null;
+    }
+    List<Tuple> result = new ArrayList<>();
+    for (int i = 0; i < answers.size(); i++) {
+      result.add(functions.get(i).decodeReturn(answers.get(i)));
+    }
+    return result;
+  }
 
-    JsonObject body = HTTPUtil.prepareBody("eth_call", params);
+  /**
+   * Sends independent calls to this contract as a single JSON-RPC batch
+   * @param args calls to make
+   * @return decoded results in the same order, empty tuple for the calls that failed on the contract level
+   * @throws NamingServiceException when the batch request fails
+   */
+  protected List<Tuple> fetchBatch(List<MulticallArgs> args) throws NamingServiceException {
+    List<Function> functions = new ArrayList<>(args.size());
+    List<JsonObject> bodies = new ArrayList<>(args.size());
+    String blockTag = currentTemplate().getBlockTag();
+    for (int i = 0; i < args.size(); i++) {
+      MulticallArgs call = args.get(i);
+      Function function = abi.getFunction(call.functionName, call.args.length);
+      functions.add(function);
+      String data = HexCodec.encode(function.encodeCallWithArgs(call.args).array());
+      bodies.add(HTTPUtil.prepareBody("eth_call", prepareParamsForBody(data, address, blockTag), i + 1));
+    }
     try {
-      JsonObject response = provider.request(url, body);
-      if (isUnknownError(response)) {
-        return null;
-      }
-      String answer = response.get("result").getAsString();
-      final String replacedAnswer = answer.replace("0x", "");
-
-      Tuple ansTuple = function.decodeReturn(FastHex.decode(replacedAnswer));
-      byte[][] bytes = (byte[][]) ansTuple.get(0);
-      List<Tuple> result = new ArrayList<>();
-      for (int i = 0; i < bytes.length; i++) {
-        result.add(functions.get(i).decodeReturn(bytes[i]));
+      List<JsonObject> responses = provider.requestBatch(url, bodies);
+      List<Tuple> result = new ArrayList<>(responses.size());
+      for (int i = 0; i < responses.size(); i++) {
+        JsonObject response = responses.get(i);
+        if (isUnknownError(response)) {
+          result.add(new Tuple());
+          continue;
+        }
+        result.add(functions.get(i).decodeReturn(HexCodec.decode(response.get("result").getAsString())));
       }
       return result;
     } catch(IOException exception) {
-      if (exception.getMessage().matches("(.*)response code: (403|401|429)(.*)")) {
-        throw new NamingServiceException(
-          NSExceptionCode.RPCServerError,
-          new NSExceptionParams("sv",  exception.getMessage()),
-          exception
-        );
-      }
-      throw new NamingServiceException(
-        NSExceptionCode.BlockchainIsDown,
-        new NSExceptionParams("n", namingServiceName),
-        exception
-      );
+      throw toNamingServiceException(exception);
     }
   }
 
-  private String toHexString(byte[] input) {
-    StringBuilder stringBuilder = new StringBuilder();
-    stringBuilder.append("0x");
-    for (byte b : input) {
-      stringBuilder.append(String.format("%02x", b & 0xFF));
+  /**
+   * Fetches the logs this contract emitted in a block range
+   * @param fromBlock first block
+   * @param toBlock last block, inclusive
+   * @param events names of the events to fetch
+   * @return logs in chain order
+   * @throws NamingServiceException when the request fails
+   */
+  protected List<ContractLogs> fetchLogs(long fromBlock, long toBlock, String... events) throws NamingServiceException {
+    JsonArray eventTopics = new JsonArray();
+    for (String event : events) {
+      eventTopics.add(getEventTopic(event));
     }
-    return stringBuilder.toString();
-  }
-
-  private JsonObject getMethodDescription(String method, int argLen) {
-    JsonObject methodDescription;
-    for (int i = 0; i < abi.size(); i++) {
-      JsonObject m = (JsonObject) abi.get(i);
-      JsonArray inputs = (JsonArray) m.get("inputs");
-      JsonElement jname = m.get("name");
-      if (jname == null) {
-        continue;
-      }
-      String name = jname.getAsString();
-      if (name.equals(method) && inputs.size() == argLen) {
-        methodDescription = m;
-        return methodDescription;
+    JsonArray params = prepareParamsForLogs(EthCallTemplate.toBlockTag(fromBlock), EthCallTemplate.toBlockTag(toBlock), eventTopics);
+    try {
+      JsonObject response = provider.request(url, HTTPUtil.prepareBody("eth_getLogs", params));
+      JsonElement result = response.get("result");
+      if (result == null || !result.isJsonArray()) {
+        throw new NamingServiceException(NSExceptionCode.BlockchainIsDown, new NSExceptionParams("n", namingServiceName));
       }
+      return Arrays.asList(new Gson().fromJson(result, ContractLogs[].class));
+    } catch(IOException exception) {
+      throw toNamingServiceException(exception);
     }
-    throw new RuntimeException("Couldn't found method " + method + " from ABI");
   }
 
-  private JsonObject getEventDescription(String event) {
-    for (JsonElement element : abi) {
-      JsonObject elementObject = (JsonObject) element;
+  /**
+   * @param event event name
+   * @return keccak hash of the event signature, the first topic of its logs
+   */
+  protected String getEventTopic(String event) {
+    return abi.getEventTopic(event);
+  }
 
-      JsonElement jname = elementObject.get("name");
-      if (jname == null) {
-        continue;
-      }
+  /**
+   * @param event event name
+   * @param input name of an indexed input
+   * @return position of the input in the topics of the event logs, -1 if the event has no such indexed input
+   */
+  protected int getTopicIndex(String event, String input) {
+    return abi.getTopicIndex(event, input);
+  }
 
-      String name = jname.getAsString();
-      if (name.equals(event)) {
-        return elementObject;
-      }
+  private NamingServiceException toNamingServiceException(IOException exception) {
+    boolean rejected = exception instanceof HttpStatusException
+        ? ((HttpStatusException) exception).isRejected()
+        // providers that don't report HTTP statuses in a structured way
+        : exception.getMessage() != null && exception.getMessage().matches("(.*)response code: (403|401|429)(.*)");
+    if (rejected) {
+      return new NamingServiceException(
+        NSExceptionCode.RPCServerError,
+        new NSExceptionParams("sv",  exception.getMessage()),
+        exception
+      );
     }
-    throw new RuntimeException("Couldn't find event " + event + " from ABI");
+    return new NamingServiceException(
+      NSExceptionCode.BlockchainIsDown,
+      new NSExceptionParams("n", namingServiceName),
+      exception
+    );
   }
 
-  private JsonArray prepareParamsForBody(String data, String address) {
+  private JsonArray prepareParamsForBody(String data, String address, String blockTag) {
     JsonObject jo = new JsonObject();
     jo.addProperty("data", data);
     jo.addProperty("to", address);
     JsonArray params = new JsonArray();
     params.add(jo);
-    params.add("latest");
+    params.add(blockTag);
     return params;
   }
 
-  private JsonArray prepareParamsForLogs(String fromBlock, String event, String[] topics) {
+  private JsonArray prepareParamsForLogs(String fromBlock, String toBlock, JsonArray eventTopics) {
     JsonObject jo = new JsonObject();
     jo.addProperty("fromBlock", fromBlock);
-    jo.addProperty("toBlock", "latest");
+    jo.addProperty("toBlock", toBlock);
     jo.addProperty("address", this.address);
     JsonArray topicsJson = new JsonArray();
-    topicsJson.add(event);
-    for (String topic : topics) {
-      topicsJson.add(topic);
-    }
+    // any of the events
+    topicsJson.add(eventTopics);
     jo.add("topics", topicsJson);
     JsonArray params = new JsonArray();
     params.add(jo);
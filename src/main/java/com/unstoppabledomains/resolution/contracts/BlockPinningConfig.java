@@ -0,0 +1,25 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings for {@link BlockTracker}
+ */
+@Getter
+@Builder
+public class BlockPinningConfig {
+  /** Delay between background {@code eth_blockNumber} polls, in milliseconds */
+  @Builder.Default
+  private long pollInterval = 1_000;
+  /**
+   * Largest amount of new blocks that is scanned for registry events. When more blocks have passed
+   * since the previous poll, everything cached for the layer is dropped instead
+   */
+  @Builder.Default
+  private long maxScanRange = 1_000;
+
+  public static BlockPinningConfig defaultConfig() {
+    return BlockPinningConfig.builder().build();
+  }
+}
@@ -0,0 +1,143 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+
+/**
+ * Keeps the block number of one chain that all calls of a layer are pinned to.
+ * The number is polled with {@code eth_blockNumber} once per poll interval on a background thread, callers only read
+ * the last published number. When it moves forward, the new number is published first and listeners are told which
+ * blocks are new right after, so calls pinned to the previous block see that it moved and don't cache their results.
+ * Polling stops while nobody asks for the block and starts again with the next caller.
+ */
+public class BlockTracker {
+  /**
+   * Notified when the chain has moved forward
+   */
+  public interface Listener {
+    /**
+     * @param fromBlock first new block
+     * @param toBlock last new block, inclusive
+     */
+    void onNewBlocks(long fromBlock, long toBlock);
+  }
+
+  private static final ThreadFactory DAEMON_THREADS = runnable -> {
+    Thread thread = new Thread(runnable, "resolution-block-tracker");
+    thread.setDaemon(true);
+    return thread;
+  };
+  private static final ScheduledExecutorService POLLER = Executors.newSingleThreadScheduledExecutor(DAEMON_THREADS);
+
+  private final String url;
+  private final IProvider provider;
+  private final BlockPinningConfig config;
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+  private volatile long block = -1;
+  private volatile boolean requested;
+  private volatile ScheduledFuture<?> polling;
+
+  public BlockTracker(String url, IProvider provider) {
+    this(url, provider, BlockPinningConfig.defaultConfig());
+  }
+
+  public BlockTracker(String url, IProvider provider, BlockPinningConfig config) {
+    this.url = url;
+    this.provider = provider;
+    this.config = config;
+  }
+
+  public BlockPinningConfig getConfig() {
+    return config;
+  }
+
+  public void addListener(Listener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * @return last known block number without asking the node, -1 before the first poll
+   */
+  public long getBlock() {
+    return block;
+  }
+
+  /**
+   * Returns the block to pin calls to without waiting for the node, starting the background polling if it is stopped
+   * @return last published block number, -1 if it is not known yet
+   */
+  public long currentBlock() {
+    requested = true;
+    if (polling == null) {
+      startPolling();
+    }
+    return block;
+  }
+
+  private synchronized void startPolling() {
+    if (polling == null) {
+      polling = POLLER.scheduleWithFixedDelay(this::pollIfRequested, 0, Math.max(1, config.getPollInterval()),
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private synchronized void pollIfRequested() {
+    if (!requested) {
+      polling.cancel(false);
+      polling = null;
+      return;
+    }
+    requested = false;
+    poll();
+  }
+
+  /**
+   * Asks the node for the latest block and publishes it. If the poll fails the last known block is kept
+   */
+  void poll() {
+    long latest;
+    try {
+      latest = fetchBlockNumber();
+    } catch (IOException | RuntimeException e) {
+      return;
+    }
+    if (latest > block) {
+      advance(latest);
+    }
+  }
+
+  private void advance(long latest) {
+    long previous = block;
+    // calls made at the previous block must not be cached once this is visible, see listeners
+    block = latest;
+    if (previous >= 0) {
+      for (Listener listener : listeners) {
+        try {
+          listener.onNewBlocks(previous + 1, latest);
+        } catch (RuntimeException e) {
+          // a failing listener must not stop the polling
+        }
+      }
+    }
+  }
+
+  private long fetchBlockNumber() throws IOException {
+    JsonObject response = provider.request(url, HTTPUtil.prepareBody("eth_blockNumber", new JsonArray()));
+    JsonElement result = response.get("result");
+    if (result == null || !result.isJsonPrimitive()) {
+      throw new IOException("Unexpected eth_blockNumber response: " + response);
+    }
+    return Long.parseLong(result.getAsString().replace("0x", ""), 16);
+  }
+}
@@ -0,0 +1,71 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import com.esaulpaugh.headlong.abi.ABIType;
+import com.esaulpaugh.headlong.abi.Function;
+import com.esaulpaugh.headlong.abi.TupleType;
+
+import java.math.BigInteger;
+
+/**
+ * Calldata of a contract call encoded once, with a zero placeholder for one {@code uint256} argument.
+ * Filling the template copies the bytes and writes the argument into its 32-byte head slot,
+ * so the cost of a call no longer grows with the size of the other (e.g. {@code string[]}) arguments
+ */
+public final class CalldataTemplate {
+  private static final int WORD = 32;
+
+  private final Function function;
+  private final byte[] calldata;
+  private final int offset;
+
+  private CalldataTemplate(Function function, byte[] calldata, int offset) {
+    this.function = function;
+    this.calldata = calldata;
+    this.offset = offset;
+  }
+
+  /**
+   * @param function function to call
+   * @param args arguments of the call, the value at {@code slot} is replaced with the placeholder
+   * @param slot index of the {@code uint256} argument filled in later
+   * @return compiled template
+   * @throws IllegalArgumentException when the argument can't be filled in place
+   */
+  public static CalldataTemplate compile(Function function, Object[] args, int slot) {
+    TupleType params = function.getParamTypes();
+    if (slot < 0 || slot >= params.size() || !params.get(slot).getCanonicalType().equals("uint256")) {
+      throw new IllegalArgumentException("Argument " + slot + " of " + function.getCanonicalSignature() + " is not a uint256");
+    }
+    for (int i = 0; i < slot; i++) {
+      ABIType<?> type = params.get(i);
+      boolean singleWordHead = type.isDynamic()
+          || (type.typeCode() != ABIType.TYPE_CODE_ARRAY && type.typeCode() != ABIType.TYPE_CODE_TUPLE);
+      if (!singleWordHead) {
+        throw new IllegalArgumentException("Argument " + i + " of " + function.getCanonicalSignature() + " takes more than one head word");
+      }
+    }
+    Object[] placeholderArgs = args.clone();
+    placeholderArgs[slot] = BigInteger.ZERO;
+    byte[] calldata = function.encodeCallWithArgs(placeholderArgs).array();
+    return new CalldataTemplate(function, calldata, Function.SELECTOR_LEN + slot * WORD);
+  }
+
+  public Function getFunction() {
+    return function;
+  }
+
+  /**
+   * @param value value of the placeholder argument
+   * @return new calldata with the value in place
+   */
+  public byte[] fill(BigInteger value) {
+    if (value.signum() < 0 || value.bitLength() > WORD * 8) {
+      throw new IllegalArgumentException("Value doesn't fit uint256: " + value);
+    }
+    byte[] result = calldata.clone();
+    byte[] bytes = value.toByteArray();
+    int length = Math.min(bytes.length, WORD); // drops the sign byte of 256-bit values
+    System.arraycopy(bytes, bytes.length - length, result, offset + WORD - length, length);
+    return result;
+  }
+}
@@ -0,0 +1,23 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings for {@link CircuitBreakerProvider}
+ */
+@Getter
+@Builder
+public class CircuitBreakerConfig {
+  /** Amount of failed requests in a row that opens the circuit */
+  @Builder.Default
+  private int failureThreshold = 5;
+  /** How long the circuit stays open before a probe request is let through, in milliseconds.
+   * A longer Retry-After from the server takes priority */
+  @Builder.Default
+  private long openTime = 10_000;
+
+  public static CircuitBreakerConfig defaultConfig() {
+    return CircuitBreakerConfig.builder().build();
+  }
+}
@@ -0,0 +1,139 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+
+/**
+ * Stops sending requests to an endpoint after several failures in a row.
+ * While the circuit is open requests fail right away with {@link CircuitOpenException}; once the open time
+ * (or a longer Retry-After) has passed a single probe request is let through, and its outcome closes or reopens the circuit.
+ * 401 and 403 responses open the circuit immediately since repeating the request won't help.
+ */
+public class CircuitBreakerProvider extends DelegatingProvider {
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final CircuitBreakerConfig config;
+  private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+  public CircuitBreakerProvider(IProvider delegate) {
+    this(delegate, CircuitBreakerConfig.defaultConfig());
+  }
+
+  public CircuitBreakerProvider(IProvider delegate, CircuitBreakerConfig config) {
+    super(delegate);
+    this.config = config;
+  }
+
+  public CircuitBreakerConfig getConfig() {
+    return config;
+  }
+
+  /**
+   * @return state of the circuit of every endpoint this provider has talked to, keyed by url
+   */
+  public Map<String, State> getStates() {
+    Map<String, State> states = new HashMap<>();
+    for (Map.Entry<String, Circuit> entry : circuits.entrySet()) {
+      states.put(entry.getKey(), entry.getValue().state());
+    }
+    return states;
+  }
+
+  @Override
+  public CircuitBreakerProvider setHeader(String key, String value) {
+    super.setHeader(key, value);
+    return this;
+  }
+
+  @Override
+  protected <T> T execute(String url, String method, Call<T> call) throws IOException {
+    Circuit circuit = circuits.computeIfAbsent(url, u -> new Circuit());
+    if (!circuit.allow()) {
+      throw new CircuitOpenException(url);
+    }
+    try {
+      T result = call.apply(url);
+      circuit.success();
+      return result;
+    } catch (HttpStatusException e) {
+      if (e.getStatusCode() == 401 || e.getStatusCode() == 403) {
+        circuit.open(e.getRetryAfter());
+      } else if (e.getStatusCode() == 429 || e.getStatusCode() >= 500) {
+        circuit.failure(e.getRetryAfter());
+      } else {
+        circuit.success(); // endpoint is up, the request itself was wrong
+      }
+      throw e;
+    } catch (IOException e) {
+      if (RequestAbort.isCurrentAborted()) {
+        circuit.abandon(); // the losing attempt of a hedged request says nothing about the endpoint
+      } else {
+        circuit.failure(-1);
+      }
+      throw e;
+    } catch (RuntimeException | Error e) {
+      // also ends a half-open probe, otherwise the circuit would wait for its outcome forever
+      circuit.failure(-1);
+      throw e;
+    }
+  }
+
+  private class Circuit {
+    private State state = State.CLOSED;
+    private int failures;
+    private long openUntil;
+    private boolean probing;
+
+    synchronized boolean allow() {
+      if (state == State.CLOSED) {
+        return true;
+      }
+      if (state == State.OPEN && System.nanoTime() - openUntil >= 0) {
+        state = State.HALF_OPEN;
+        probing = false;
+      }
+      if (state == State.HALF_OPEN && !probing) {
+        probing = true;
+        return true;
+      }
+      return false;
+    }
+
+    synchronized void success() {
+      state = State.CLOSED;
+      failures = 0;
+      probing = false;
+    }
+
+    synchronized void failure(long retryAfter) {
+      failures++;
+      if (state == State.HALF_OPEN || failures >= config.getFailureThreshold()) {
+        open(retryAfter);
+      }
+    }
+
+    synchronized void abandon() {
+      if (state == State.HALF_OPEN) {
+        probing = false;
+      }
+    }
+
+    synchronized void open(long retryAfter) {
+      long millis = Math.max(config.getOpenTime(), retryAfter);
+      openUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+      state = State.OPEN;
+      probing = false;
+    }
+
+    synchronized State state() {
+      return state;
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link CircuitBreakerProvider} instead of sending a request to an endpoint that is considered down
+ */
+public class CircuitOpenException extends IOException {
+  private static final long serialVersionUID = 1L;
+
+  private final String url;
+
+  public CircuitOpenException(String url) {
+    super("Circuit is open for " + url);
+    this.url = url;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+}
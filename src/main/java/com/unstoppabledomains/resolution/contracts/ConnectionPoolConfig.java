@@ -0,0 +1,36 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings for {@link PooledProvider}.
+ * Note that idle keep-alive sockets are kept by the JVM itself, its per-host limit is controlled by
+ * the {@code http.maxConnections} system property (5 by default) and should not be lower than {@link #maxConnectionsPerHost}.
+ */
+@Getter
+@Builder
+public class ConnectionPoolConfig {
+  /** Maximum amount of simultaneous connections to a single host */
+  @Builder.Default
+  private int maxConnectionsPerHost = 8;
+  /** How long a request waits for a free connection before failing, in milliseconds */
+  @Builder.Default
+  private long acquireTimeout = 10_000;
+  /** Connect timeout in milliseconds */
+  @Builder.Default
+  private int connectTimeout = 5_000;
+  /** Read timeout in milliseconds */
+  @Builder.Default
+  private int readTimeout = 15_000;
+  /**
+   * Reuse connections between requests through the JDK keep-alive cache, whose size per host is set
+   * with the {@code http.maxConnections} system property. When false, every request asks the server to close the connection
+   */
+  @Builder.Default
+  private boolean keepAlive = true;
+
+  public static ConnectionPoolConfig defaultConfig() {
+    return ConnectionPoolConfig.builder().build();
+  }
+}
@@ -1,24 +1,41 @@
 package com.unstoppabledomains.resolution.contracts;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.unstoppabledomains.config.client.Client;
-import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+import com.unstoppabledomains.resolution.contracts.interfaces.IEthCallProvider;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.zip.GZIPInputStream;
 
-public class DefaultProvider implements IProvider {
+public class DefaultProvider implements IEthCallProvider {
 
   private Map<String, String> headers;
+  private int connectTimeout = 0;
+  private int readTimeout = 0;
+  private boolean gzip = true;
 
   /**
    * Default constructor
@@ -62,28 +79,271 @@ public class DefaultProvider implements IProvider {
     return headers;
   }
 
+  /**
+   * Set the connect timeout for future requests
+   * @param millis timeout in milliseconds, 0 means no timeout
+   * @return DefaultProvider for chaining
+   */
+  public DefaultProvider setConnectTimeout(int millis) {
+    this.connectTimeout = millis;
+    return this;
+  }
+
+  /**
+   * Set the read timeout for future requests
+   * @param millis timeout in milliseconds, 0 means no timeout
+   * @return DefaultProvider for chaining
+   */
+  public DefaultProvider setReadTimeout(int millis) {
+    this.readTimeout = millis;
+    return this;
+  }
+
+  /**
+   * Enable or disable gzip negotiation (Accept-Encoding: gzip) for future requests
+   * @param enabled whether to ask the server for compressed responses
+   * @return DefaultProvider for chaining
+   */
+  public DefaultProvider setGzip(boolean enabled) {
+    this.gzip = enabled;
+    return this;
+  }
+
+  public boolean isGzip() {
+    return gzip;
+  }
+
+  public int getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public int getReadTimeout() {
+    return readTimeout;
+  }
+
   @Override
   public JsonObject request(String url, JsonObject body) throws IOException {
-    String rawResponse = rawRequest(url, body);
-    return (JsonObject) JsonParser.parseString(rawResponse);
+    return exchange(url, body, DefaultProvider::readResponse);
   }
 
-  protected String rawRequest(String url, JsonObject body) throws IOException {
-    HttpURLConnection con = createAndConfigureCon(url);
-    if (body != null) {
-      try (OutputStream os = con.getOutputStream()) {
-        byte[] input = body.toString().getBytes(StandardCharsets.UTF_8);
-        os.write(input, 0, input.length);
+  @Override
+  public JsonObject ethCall(String url, EthCallTemplate template, byte[] calldata) throws IOException {
+    return exchange(url, os -> template.writeTo(os, calldata), DefaultProvider::readResponse);
+  }
+
+  @Override
+  public List<JsonObject> requestBatch(String url, List<JsonObject> bodies) throws IOException {
+    if (bodies.size() == 1) {
+      List<JsonObject> single = new ArrayList<>(1);
+      single.add(request(url, bodies.get(0)));
+      return single;
+    }
+    JsonArray batch = new JsonArray(bodies.size());
+    Map<String, Integer> positions = new HashMap<>();
+    for (JsonObject body : bodies) {
+      String id = body.get("id").getAsString();
+      if (positions.put(id, positions.size()) != null) {
+        throw new IllegalArgumentException("Duplicate JSON-RPC id in batch: " + id);
+      }
+      batch.add(body);
+    }
+    JsonElement response = exchange(url, batch, DefaultProvider::parseJson);
+    if (!response.isJsonArray()) {
+      // endpoint rejected the batch as a whole, e.g. batching is not supported
+      return IEthCallProvider.super.requestBatch(url, bodies);
+    }
+    JsonObject[] ordered = new JsonObject[bodies.size()];
+    for (JsonElement element : response.getAsJsonArray()) {
+      if (!element.isJsonObject()) {
+        continue; // malformed item, its request gets the missing response error below
+      }
+      JsonObject item = element.getAsJsonObject();
+      JsonElement id = item.get("id");
+      Integer position = id == null || !id.isJsonPrimitive() ? null : positions.get(id.getAsString());
+      if (position != null) {
+        ordered[position] = item;
       }
     }
+    List<JsonObject> result = new ArrayList<>(ordered.length);
+    for (int i = 0; i < ordered.length; i++) {
+      result.add(ordered[i] != null ? ordered[i] : missingBatchResponse(bodies.get(i)));
+    }
+    return result;
+  }
+
+  private static JsonObject missingBatchResponse(JsonObject body) {
+    JsonObject error = new JsonObject();
+    error.addProperty("code", -32603);
+    error.addProperty("message", "No response for request in batch");
+    JsonObject response = new JsonObject();
+    response.addProperty("jsonrpc", "2.0");
+    response.add("id", body.get("id"));
+    response.add("error", error);
+    return response;
+  }
 
-    try (BufferedReader br = new BufferedReader(new InputStreamReader(con.getInputStream(), StandardCharsets.UTF_8))) {
+  protected String rawRequest(String url, JsonElement body) throws IOException {
+    return exchange(url, body, reader -> {
+      BufferedReader br = new BufferedReader(reader);
       StringBuilder response = new StringBuilder();
       String responseLine;
       while ((responseLine = br.readLine()) != null) {
         response.append(responseLine.trim());
       }
       return response.toString();
+    });
+  }
+
+  /**
+   * Reads the decoded response body of a request
+   */
+  protected interface ResponseReader<T> {
+    T read(Reader reader) throws IOException;
+  }
+
+  /**
+   * Writes the request body to the connection
+   */
+  protected interface RequestWriter {
+    void writeTo(OutputStream os) throws IOException;
+  }
+
+  protected <T> T exchange(String url, JsonElement body, ResponseReader<T> responseReader) throws IOException {
+    if (body == null) {
+      return exchange(url, (RequestWriter) null, responseReader);
+    }
+    return exchange(url, os -> {
+      byte[] input = body.toString().getBytes(StandardCharsets.UTF_8);
+      os.write(input, 0, input.length);
+    }, responseReader);
+  }
+
+  /**
+   * Sends the body and hands the (gzip decoded) response stream to the reader without buffering it into a string
+   */
+  protected <T> T exchange(String url, RequestWriter body, ResponseReader<T> responseReader) throws IOException {
+    HttpURLConnection con = createAndConfigureCon(url);
+    RequestAbort abort = RequestAbort.current();
+    if (abort != null) {
+      abort.attach(con);
+    }
+    try {
+      if (body != null) {
+        try (OutputStream os = con.getOutputStream()) {
+          body.writeTo(os);
+        }
+      }
+
+      InputStream stream = openResponseStream(con);
+      if ("gzip".equalsIgnoreCase(con.getContentEncoding())) {
+        stream = new GZIPInputStream(stream);
+      }
+      try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+        return responseReader.read(reader);
+      }
+    } finally {
+      if (abort != null) {
+        abort.detach(con);
+      }
+    }
+  }
+
+  /**
+   * Streams a JSON-RPC response object. String results, such as large eth_call return data,
+   * are read straight from the stream into a single string instead of going through a parsed tree.
+   * @throws IOException when the body is not a JSON object, e.g. an error page of a proxy
+   */
+  static JsonObject readResponse(Reader in) throws IOException {
+    JsonReader reader = new JsonReader(in);
+    try {
+      if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+        JsonElement element = JsonParser.parseReader(reader);
+        throw new IOException("Unexpected JSON-RPC response: " + element);
+      }
+      JsonObject response = new JsonObject();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        String name = reader.nextName();
+        if ("result".equals(name) && reader.peek() == JsonToken.STRING) {
+          response.add(name, new JsonPrimitive(reader.nextString()));
+        } else {
+          response.add(name, JsonParser.parseReader(reader));
+        }
+      }
+      reader.endObject();
+      return response;
+    } catch (JsonParseException | IllegalStateException e) {
+      throw new IOException("Malformed JSON-RPC response", e);
+    }
+  }
+
+  private static JsonElement parseJson(Reader reader) throws IOException {
+    try {
+      return JsonParser.parseReader(reader);
+    } catch (JsonParseException e) {
+      throw new IOException("Malformed JSON-RPC response", e);
+    }
+  }
+
+  /**
+   * Opens the response body. On HTTP errors the error body is drained and closed before
+   * rethrowing, so the underlying socket can go back to the keep-alive cache instead of being dropped.
+   * HTTP error statuses are reported as {@link HttpStatusException}
+   */
+  protected InputStream openResponseStream(HttpURLConnection con) throws IOException {
+    try {
+      return con.getInputStream();
+    } catch (IOException exception) {
+      drain(con.getErrorStream());
+      int status = responseCode(con);
+      if (status >= 400) {
+        throw new HttpStatusException(status, retryAfter(con.getHeaderField("Retry-After")), exception.getMessage(), exception);
+      }
+      throw exception;
+    }
+  }
+
+  private static int responseCode(HttpURLConnection con) {
+    try {
+      return con.getResponseCode();
+    } catch (IOException e) {
+      return -1; // no response at all, e.g. connection refused
+    }
+  }
+
+  /**
+   * @param header value of the Retry-After header, either delay in seconds or an HTTP date
+   * @return delay in milliseconds, -1 if the header is missing or malformed
+   */
+  static long retryAfter(String header) {
+    if (header == null || header.trim().isEmpty()) {
+      return -1;
+    }
+    String value = header.trim();
+    try {
+      return Math.max(0, Long.parseLong(value) * 1000);
+    } catch (NumberFormatException e) {
+      // not a number of seconds, try the date form
+    }
+    try {
+      ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+      return Math.max(0, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+    } catch (DateTimeParseException e) {
+      return -1;
+    }
+  }
+
+  private static void drain(InputStream stream) {
+    if (stream == null) {
+      return;
+    }
+    byte[] buffer = new byte[1024];
+    try (InputStream is = stream) {
+      while (is.read(buffer) != -1) {
+        // discard
+      }
+    } catch (IOException ignored) {
+      // connection will simply not be reused
     }
   }
 
@@ -94,6 +354,11 @@ public class DefaultProvider implements IProvider {
     for(Entry<String, String> entry:headers.entrySet()) {
       con.setRequestProperty(entry.getKey(), entry.getValue());
     }
+    if (gzip && con.getRequestProperty("Accept-Encoding") == null) {
+      con.setRequestProperty("Accept-Encoding", "gzip");
+    }
+    con.setConnectTimeout(connectTimeout);
+    con.setReadTimeout(readTimeout);
     con.setDoOutput(true);
     return con;
   }
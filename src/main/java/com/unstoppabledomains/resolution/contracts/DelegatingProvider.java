@@ -0,0 +1,100 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.unstoppabledomains.resolution.contracts.interfaces.IEthCallProvider;
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+
+/**
+ * Base class for providers that add behaviour around another provider.
+ * Every kind of request goes through {@link #execute(String, String, Call)}, which decides
+ * where and how often the actual call is made.
+ */
+public abstract class DelegatingProvider implements IEthCallProvider {
+  private static final Set<String> READ_ONLY_METHODS = new HashSet<>(Arrays.asList(
+      "eth_call", "eth_getLogs", "eth_blockNumber", "eth_chainId", "eth_getBlockByNumber", "net_version",
+      "GetSmartContractSubState", "GetSmartContractState", "GetSmartContractInit", "GetBlockchainInfo"));
+
+  protected final IProvider delegate;
+
+  protected DelegatingProvider(IProvider delegate) {
+    this.delegate = delegate;
+  }
+
+  public IProvider getDelegate() {
+    return delegate;
+  }
+
+  /**
+   * Single attempt of a request against the given endpoint
+   */
+  protected interface Call<T> {
+    T apply(String url) throws IOException;
+  }
+
+  /**
+   * @param url endpoint the caller asked for
+   * @param method JSON-RPC method, {@code null} if unknown or mixed
+   * @param call the request itself
+   */
+  protected abstract <T> T execute(String url, String method, Call<T> call) throws IOException;
+
+  @Override
+  public JsonObject request(String url, JsonObject body) throws IOException {
+    return execute(url, methodOf(body), u -> delegate.request(u, body));
+  }
+
+  @Override
+  public JsonObject ethCall(String url, EthCallTemplate template, byte[] calldata) throws IOException {
+    return execute(url, "eth_call", u -> ethCall(delegate, u, template, calldata));
+  }
+
+  @Override
+  public List<JsonObject> requestBatch(String url, List<JsonObject> bodies) throws IOException {
+    return execute(url, methodOf(bodies), u -> delegate.requestBatch(u, bodies));
+  }
+
+  @Override
+  public DelegatingProvider setHeader(String key, String value) {
+    delegate.setHeader(key, value);
+    return this;
+  }
+
+  protected static JsonObject ethCall(IProvider provider, String url, EthCallTemplate template, byte[] calldata) throws IOException {
+    if (provider instanceof IEthCallProvider) {
+      return ((IEthCallProvider) provider).ethCall(url, template, calldata);
+    }
+    return provider.request(url, template.toJson(calldata));
+  }
+
+  /**
+   * @param method JSON-RPC method
+   * @return true for methods that only read chain state and can safely be sent more than once
+   */
+  protected static boolean isReadOnly(String method) {
+    return method != null && READ_ONLY_METHODS.contains(method);
+  }
+
+  static String methodOf(JsonObject body) {
+    JsonElement method = body == null ? null : body.get("method");
+    return method == null || !method.isJsonPrimitive() ? null : method.getAsString();
+  }
+
+  static String methodOf(List<JsonObject> bodies) {
+    String common = null;
+    for (JsonObject body : bodies) {
+      String method = methodOf(body);
+      if (method == null || (common != null && !common.equals(method))) {
+        return null;
+      }
+      common = method;
+    }
+    return common;
+  }
+}
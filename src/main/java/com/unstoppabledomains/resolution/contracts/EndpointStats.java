@@ -0,0 +1,20 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Point in time statistics of {@link LoadBalancingProvider} for a single endpoint
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class EndpointStats {
+  private final String url;
+  private final double latencyMillis;
+  private final double errorRate;
+  private final int inflightRequests;
+  private final long totalRequests;
+  private final boolean available;
+}
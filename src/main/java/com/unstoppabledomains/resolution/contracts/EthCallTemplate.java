@@ -0,0 +1,90 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.unstoppabledomains.resolution.artifacts.HexCodec;
+
+/**
+ * Pre-encoded body of an {@code eth_call} JSON-RPC request to a fixed contract at a fixed block, "latest" by default.
+ * Only the call data changes between requests, so the constant parts are kept as bytes and
+ * the call data is hex encoded straight into the request buffer.
+ */
+public class EthCallTemplate {
+  private static final String LATEST = "latest";
+
+  private final String to;
+  private final String blockTag;
+  private final byte[] prefix;
+  private final byte[] suffix;
+
+  public EthCallTemplate(String to) {
+    this(to, LATEST);
+  }
+
+  /**
+   * @param to contract address
+   * @param blockTag hex encoded block number or one of the block tags like "latest"
+   */
+  public EthCallTemplate(String to, String blockTag) {
+    this.to = to;
+    this.blockTag = blockTag;
+    this.prefix = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"eth_call\",\"params\":[{\"data\":\"0x"
+        .getBytes(StandardCharsets.UTF_8);
+    this.suffix = ("\",\"to\":\"" + to + "\"},\"" + blockTag + "\"]}").getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @param block block number
+   * @return template for the same contract pinned to the block
+   */
+  public EthCallTemplate atBlock(long block) {
+    return new EthCallTemplate(to, toBlockTag(block));
+  }
+
+  public static String toBlockTag(long block) {
+    return block < 0 ? LATEST : "0x" + Long.toHexString(block);
+  }
+
+  public String getTo() {
+    return to;
+  }
+
+  public String getBlockTag() {
+    return blockTag;
+  }
+
+  /**
+   * @param calldata ABI encoded call
+   * @return complete request body as UTF-8 bytes
+   */
+  public byte[] encode(byte[] calldata) {
+    byte[] body = new byte[prefix.length + calldata.length * 2 + suffix.length];
+    System.arraycopy(prefix, 0, body, 0, prefix.length);
+    int pos = HexCodec.encodeTo(calldata, 0, calldata.length, body, prefix.length);
+    System.arraycopy(suffix, 0, body, pos, suffix.length);
+    return body;
+  }
+
+  public void writeTo(OutputStream os, byte[] calldata) throws IOException {
+    os.write(encode(calldata));
+  }
+
+  /**
+   * Same request as a Gson tree, for providers that only accept {@link JsonObject} bodies
+   * @param calldata ABI encoded call
+   * @return request body
+   */
+  public JsonObject toJson(byte[] calldata) {
+    JsonObject jo = new JsonObject();
+    jo.addProperty("data", HexCodec.encode(calldata));
+    jo.addProperty("to", to);
+    JsonArray params = new JsonArray();
+    params.add(jo);
+    params.add(blockTag);
+    return HTTPUtil.prepareBody("eth_call", params);
+  }
+}
@@ -8,9 +8,13 @@ public class HTTPUtil {
     }
 
     public static JsonObject prepareBody(String method, JsonArray params) {
+        return prepareBody(method, params, 1);
+    }
+
+    public static JsonObject prepareBody(String method, JsonArray params, int id) {
         JsonObject body = new JsonObject();
         body.addProperty("jsonrpc", "2.0");
-        body.addProperty("id", 1);
+        body.addProperty("id", id);
         body.addProperty("method", method);
         body.add("params", params);
         return body;
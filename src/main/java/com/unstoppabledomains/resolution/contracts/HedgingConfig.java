@@ -0,0 +1,39 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings of hedged requests in {@link LoadBalancingProvider}.
+ * A read-only request that has not been answered within the configured percentile of recent latency
+ * is sent once more to another endpoint and the first answer wins.
+ */
+@Getter
+@Builder
+public class HedgingConfig {
+  /** Percentile of recent latency after which the duplicate request is sent, between 0 and 1 */
+  @Builder.Default
+  private double percentile = 0.95;
+  /** Lower bound of the hedging delay, in milliseconds */
+  @Builder.Default
+  private long minDelay = 10;
+  /** Amount of latency samples required before requests are hedged */
+  @Builder.Default
+  private int minSamples = 20;
+  /** Maximum share of requests that may be duplicated, so hedging can't double the load during an outage */
+  @Builder.Default
+  private double budget = 0.1;
+  /** Amount of hedges that may be sent in a row when the budget has been saved up */
+  @Builder.Default
+  private int maxBurst = 10;
+  /**
+   * Largest amount of hedged requests in flight. Both attempts of a hedged request run on a dedicated pool of this size,
+   * a request is sent without hedging when the pool is full
+   */
+  @Builder.Default
+  private int maxConcurrent = 32;
+
+  public static HedgingConfig defaultConfig() {
+    return HedgingConfig.builder().build();
+  }
+}
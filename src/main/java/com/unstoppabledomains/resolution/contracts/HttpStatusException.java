@@ -0,0 +1,39 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link DefaultProvider} when the server answers with an HTTP error status.
+ * The message is the one of the original {@link java.net.HttpURLConnection} error,
+ * e.g. "Server returned HTTP response code: 429 for URL: ..."
+ */
+public class HttpStatusException extends IOException {
+  private static final long serialVersionUID = 1L;
+
+  private final int statusCode;
+  private final long retryAfter;
+
+  public HttpStatusException(int statusCode, long retryAfter, String message, Throwable cause) {
+    super(message, cause);
+    this.statusCode = statusCode;
+    this.retryAfter = retryAfter;
+  }
+
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  /**
+   * @return delay requested by the server with the Retry-After header in milliseconds, -1 if there was none
+   */
+  public long getRetryAfter() {
+    return retryAfter;
+  }
+
+  /**
+   * @return true for statuses that mean the client is throttled or not allowed (401, 403 and 429)
+   */
+  public boolean isRejected() {
+    return statusCode == 401 || statusCode == 403 || statusCode == 429;
+  }
+}
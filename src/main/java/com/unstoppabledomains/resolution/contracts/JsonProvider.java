@@ -9,7 +9,7 @@ import java.net.HttpURLConnection;
 
 public class JsonProvider extends DefaultProvider {
   private String method = "GET";
-  private Gson gson;
+  protected final Gson gson;
   
   public JsonProvider() {
     super();
@@ -31,8 +31,7 @@ public class JsonProvider extends DefaultProvider {
   }
 
   public <T> T request(String url, JsonObject body, java.lang.Class<T> classOfT) throws IOException {
-    String rawResponse = super.rawRequest(url, body);
-    return gson.fromJson(rawResponse, classOfT);
+    return exchange(url, body, reader -> gson.fromJson(reader, classOfT));
   }
   
   @Override
@@ -0,0 +1,49 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latest latency samples and answers percentile queries over them.
+ * Percentiles are recomputed every few samples, so reading them is cheap.
+ */
+class LatencyTracker {
+  private static final int RECOMPUTE_EVERY = 32;
+
+  private final long[] samples;
+  private final double percentile;
+  private int size;
+  private int next;
+  private int sinceRecompute;
+  private volatile long cached = -1;
+
+  LatencyTracker(int capacity, double percentile) {
+    this.samples = new long[capacity];
+    this.percentile = percentile;
+  }
+
+  synchronized void record(long nanos) {
+    samples[next] = nanos;
+    next = (next + 1) % samples.length;
+    if (size < samples.length) {
+      size++;
+    }
+    if (++sinceRecompute >= RECOMPUTE_EVERY || cached < 0) {
+      sinceRecompute = 0;
+      long[] sorted = Arrays.copyOf(samples, size);
+      Arrays.sort(sorted);
+      int index = (int) Math.ceil(percentile * size) - 1;
+      cached = sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  /**
+   * @return latency at the configured percentile in nanoseconds, -1 if there are no samples yet
+   */
+  long percentile() {
+    return cached;
+  }
+}
@@ -0,0 +1,33 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings for {@link LoadBalancingProvider}
+ */
+@Getter
+@Builder
+public class LoadBalancingConfig {
+  /** Weight of the newest sample in the moving averages of latency and error rate, between 0 and 1 */
+  @Builder.Default
+  private double decay = 0.2;
+  /** Endpoint is taken out of rotation once its error rate goes above this value */
+  @Builder.Default
+  private double maxErrorRate = 0.5;
+  /** Endpoint is taken out of rotation once its latency is this many times higher than the fastest endpoint's */
+  @Builder.Default
+  private double maxLatencyRatio = 5;
+  /** Amount of requests an endpoint has to serve before it can be taken out of rotation */
+  @Builder.Default
+  private int minRequests = 5;
+  /** How long an endpoint stays out of rotation before it is probed, in milliseconds */
+  @Builder.Default
+  private long ejectionTime = 30_000;
+  /** Hedged requests to a second endpoint, disabled when null */
+  private HedgingConfig hedging;
+
+  public static LoadBalancingConfig defaultConfig() {
+    return LoadBalancingConfig.builder().build();
+  }
+}
@@ -0,0 +1,433 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonArray;
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+import com.unstoppabledomains.util.DefaultExecutor;
+
+/**
+ * Spreads requests over several equivalent RPC endpoints.
+ * Requests made to a url registered with {@link #addEndpoints(String, List)} go to one of its endpoints,
+ * picked by the exponentially weighted moving average of latency, error rate and amount of requests in flight
+ * ("power of two choices"). Endpoints that fail too often or are much slower than the others are taken
+ * out of rotation and re-admitted once a {@code net_version} probe succeeds.
+ * With {@link LoadBalancingConfig#getHedging()} set, slow read-only requests are duplicated to a second endpoint.
+ * Requests to other urls are passed through unchanged.
+ */
+public class LoadBalancingProvider extends DelegatingProvider {
+  private static final AtomicInteger HEDGE_THREADS = new AtomicInteger();
+
+  private final LoadBalancingConfig config;
+  private final Map<String, Group> groups = new ConcurrentHashMap<>();
+  private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+  private final TokenBudget hedgeBudget;
+  private final ThreadPoolExecutor hedges;
+
+  public LoadBalancingProvider(IProvider delegate) {
+    this(delegate, LoadBalancingConfig.defaultConfig());
+  }
+
+  public LoadBalancingProvider(IProvider delegate, LoadBalancingConfig config) {
+    super(delegate);
+    this.config = config;
+    HedgingConfig hedging = config.getHedging();
+    this.hedgeBudget = hedging == null ? null : new TokenBudget(hedging.getBudget(), hedging.getMaxBurst());
+    this.hedges = hedging == null ? null : hedgeExecutor(hedging.getMaxConcurrent());
+  }
+
+  /**
+   * Pool of the attempts of hedged requests. It has no queue: when every thread is busy the attempt is rejected
+   * and the request is sent without hedging instead of waiting for a thread
+   */
+  private static ThreadPoolExecutor hedgeExecutor(int maxThreads) {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+        new SynchronousQueue<>(), runnable -> {
+          Thread thread = new Thread(runnable, "resolution-hedge-" + HEDGE_THREADS.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  public LoadBalancingConfig getConfig() {
+    return config;
+  }
+
+  /**
+   * Routes requests made to url over the given endpoints
+   * @param url url used by the naming service, usually the first of the endpoints
+   * @param urls equivalent endpoints
+   * @return LoadBalancingProvider for chaining
+   */
+  public LoadBalancingProvider addEndpoints(String url, List<String> urls) {
+    if (urls.isEmpty()) {
+      throw new IllegalArgumentException("At least one endpoint is required for " + url);
+    }
+    List<Endpoint> group = new ArrayList<>(urls.size());
+    for (String endpointUrl : urls) {
+      group.add(endpoints.computeIfAbsent(endpointUrl, Endpoint::new));
+    }
+    HedgingConfig hedging = config.getHedging();
+    LatencyTracker latency = hedging == null ? null : new LatencyTracker(512, hedging.getPercentile());
+    groups.put(url, new Group(Collections.unmodifiableList(group), latency));
+    return this;
+  }
+
+  /**
+   * @return statistics for every registered endpoint, keyed by url
+   */
+  public Map<String, EndpointStats> getEndpointStats() {
+    Map<String, EndpointStats> stats = new HashMap<>();
+    for (Endpoint endpoint : endpoints.values()) {
+      stats.put(endpoint.url, endpoint.snapshot());
+    }
+    return stats;
+  }
+
+  @Override
+  public LoadBalancingProvider setHeader(String key, String value) {
+    super.setHeader(key, value);
+    return this;
+  }
+
+  @Override
+  protected <T> T execute(String url, String method, Call<T> call) throws IOException {
+    Group group = groups.get(url);
+    if (group == null) {
+      return call.apply(url);
+    }
+    if (hedgeBudget != null) {
+      hedgeBudget.deposit();
+    }
+    Endpoint primary = select(group.endpoints, null);
+    if (group.latency == null || group.endpoints.size() < 2 || !isReadOnly(method)) {
+      return invoke(group, primary, call);
+    }
+    return hedged(group, primary, call);
+  }
+
+  private <T> T invoke(Group group, Endpoint endpoint, Call<T> call) throws IOException {
+    return invoke(group, endpoint, call, null);
+  }
+
+  /**
+   * @param abort abort of the attempt when it is a leg of a hedged request, an aborted attempt is left out of the statistics
+   */
+  private <T> T invoke(Group group, Endpoint endpoint, Call<T> call, RequestAbort abort) throws IOException {
+    endpoint.inflight.incrementAndGet();
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      T result = call.apply(endpoint.url);
+      failed = false;
+      return result;
+    } finally {
+      long elapsed = System.nanoTime() - start;
+      endpoint.inflight.decrementAndGet();
+      if (abort == null || !abort.isAborted()) {
+        endpoint.record(elapsed, failed, config.getDecay());
+        if (!failed && group.latency != null) {
+          group.latency.record(elapsed);
+        }
+        evaluate(group.endpoints, endpoint);
+      }
+    }
+  }
+
+  /**
+   * Sends the request to the primary endpoint and, if it is slower than usual, once more to another endpoint.
+   * The first successful answer is returned and the other attempt is aborted by disconnecting its connection.
+   * Both attempts run on the hedging pool; when it is full the request is sent once, on the calling thread.
+   */
+  private <T> T hedged(Group group, Endpoint primary, Call<T> call) throws IOException {
+    HedgingConfig hedging = config.getHedging();
+    long delay = group.latency.percentile();
+    if (group.latency.size() < hedging.getMinSamples() || delay < 0) {
+      return invoke(group, primary, call);
+    }
+    RequestAbort firstAbort = new RequestAbort();
+    CompletableFuture<T> first = attempt(group, primary, call, firstAbort);
+    if (first == null) {
+      return invoke(group, primary, call);
+    }
+    delay = Math.max(delay, TimeUnit.MILLISECONDS.toNanos(hedging.getMinDelay()));
+    try {
+      return first.get(delay, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      // primary is slow, hedge below
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      firstAbort.abort();
+      throw new InterruptedIOException("Interrupted while waiting for " + primary.url);
+    } catch (ExecutionException e) {
+      throw unwrap(e.getCause());
+    }
+    Endpoint secondary = select(group.endpoints, primary);
+    if (secondary == primary || !hedgeBudget.withdraw()) {
+      return await(first, firstAbort);
+    }
+    RequestAbort secondAbort = new RequestAbort();
+    CompletableFuture<T> second = attempt(group, secondary, call, secondAbort);
+    if (second == null) {
+      return await(first, firstAbort);
+    }
+    CompletableFuture<T> winner = new CompletableFuture<>();
+    AtomicInteger failures = new AtomicInteger();
+    first.whenComplete((result, error) -> complete(winner, failures, result, error, secondAbort));
+    second.whenComplete((result, error) -> complete(winner, failures, result, error, firstAbort));
+    try {
+      return await(winner);
+    } catch (InterruptedIOException e) {
+      firstAbort.abort();
+      secondAbort.abort();
+      throw e;
+    }
+  }
+
+  /**
+   * Completes the winner with the first successful answer and aborts the other attempt
+   */
+  private static <T> void complete(CompletableFuture<T> winner, AtomicInteger failures, T result, Throwable error,
+      RequestAbort other) {
+    if (error == null) {
+      if (winner.complete(result)) {
+        other.abort();
+      }
+    } else if (failures.incrementAndGet() == 2) {
+      winner.completeExceptionally(error);
+    }
+  }
+
+  /**
+   * @return future of the attempt, null if the hedging pool is full
+   */
+  private <T> CompletableFuture<T> attempt(Group group, Endpoint endpoint, Call<T> call, RequestAbort abort) {
+    try {
+      return CompletableFuture.supplyAsync(() -> {
+        try {
+          return abort.run(() -> invoke(group, endpoint, call, abort));
+        } catch (IOException e) {
+          throw new CompletionException(e);
+        }
+      }, hedges);
+    } catch (RejectedExecutionException e) {
+      return null;
+    }
+  }
+
+  private static <T> T await(CompletableFuture<T> future, RequestAbort abort) throws IOException {
+    try {
+      return await(future);
+    } catch (InterruptedIOException e) {
+      abort.abort();
+      throw e;
+    }
+  }
+
+  private static <T> T await(CompletableFuture<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a response");
+    } catch (ExecutionException e) {
+      throw unwrap(e.getCause());
+    }
+  }
+
+  private static IOException unwrap(Throwable error) {
+    Throwable cause = error;
+    while (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof IOException) {
+      return (IOException) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new IOException(cause);
+  }
+
+  /**
+   * @param group endpoints to choose from
+   * @param exclude endpoint that should not be picked if there is any other available one, may be null
+   */
+  private Endpoint select(List<Endpoint> group, Endpoint exclude) {
+    List<Endpoint> available = new ArrayList<>(group.size());
+    Endpoint earliest = null;
+    long now = System.nanoTime();
+    for (Endpoint endpoint : group) {
+      if (endpoint.available) {
+        if (endpoint != exclude) {
+          available.add(endpoint);
+        }
+        continue;
+      }
+      if (now - endpoint.ejectedUntil >= 0) {
+        probe(endpoint);
+      }
+      if (earliest == null || endpoint.ejectedUntil - earliest.ejectedUntil < 0) {
+        earliest = endpoint;
+      }
+    }
+    if (available.isEmpty()) {
+      if (exclude != null && exclude.available) {
+        return exclude;
+      }
+      return earliest; // everything is out of rotation, keep trying the one that is due first
+    }
+    if (available.size() == 1) {
+      return available.get(0);
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(available.size());
+    int second = random.nextInt(available.size() - 1);
+    if (second >= first) {
+      second++;
+    }
+    Endpoint a = available.get(first);
+    Endpoint b = available.get(second);
+    return a.score() <= b.score() ? a : b;
+  }
+
+  private void evaluate(List<Endpoint> group, Endpoint endpoint) {
+    if (!endpoint.available || endpoint.requests() < config.getMinRequests()) {
+      return;
+    }
+    double fastest = Double.MAX_VALUE;
+    int available = 0;
+    for (Endpoint other : group) {
+      if (other.available) {
+        available++;
+        if (other != endpoint) {
+          fastest = Math.min(fastest, other.latency());
+        }
+      }
+    }
+    if (available <= 1) {
+      return; // never take the last endpoint out of rotation
+    }
+    boolean failing = endpoint.errorRate() > config.getMaxErrorRate();
+    boolean slow = fastest > 0 && endpoint.latency() > fastest * config.getMaxLatencyRatio();
+    if (failing || slow) {
+      endpoint.eject(config.getEjectionTime());
+    }
+  }
+
+  private void probe(Endpoint endpoint) {
+    if (!endpoint.probing.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      DefaultExecutor.getInstance().execute(() -> {
+        long start = System.nanoTime();
+        try {
+          delegate.request(endpoint.url, HTTPUtil.prepareBody("net_version", new JsonArray()));
+          endpoint.readmit(System.nanoTime() - start);
+        } catch (Exception e) {
+          endpoint.eject(config.getEjectionTime());
+        } finally {
+          endpoint.probing.set(false);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      endpoint.probing.set(false); // probed again by a later request
+    }
+  }
+
+  private static class Group {
+    final List<Endpoint> endpoints;
+    final LatencyTracker latency;
+
+    Group(List<Endpoint> endpoints, LatencyTracker latency) {
+      this.endpoints = endpoints;
+      this.latency = latency;
+    }
+  }
+
+  private static class Endpoint {
+    final String url;
+    final AtomicInteger inflight = new AtomicInteger();
+    final AtomicBoolean probing = new AtomicBoolean();
+    volatile boolean available = true;
+    volatile long ejectedUntil;
+    private long requests;
+    private long total;
+    private double latency;
+    private double errorRate;
+
+    Endpoint(String url) {
+      this.url = url;
+    }
+
+    synchronized void record(long nanos, boolean failed, double decay) {
+      double millis = nanos / 1_000_000.0;
+      double error = failed ? 1 : 0;
+      if (requests == 0) {
+        latency = millis;
+        errorRate = error;
+      } else {
+        latency += decay * (millis - latency);
+        errorRate += decay * (error - errorRate);
+      }
+      requests++;
+      total++;
+    }
+
+    synchronized void eject(long millis) {
+      ejectedUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+      available = false;
+    }
+
+    synchronized void readmit(long probeNanos) {
+      latency = probeNanos / 1_000_000.0;
+      errorRate = 0;
+      requests = 0;
+      available = true;
+    }
+
+    synchronized long requests() {
+      return requests;
+    }
+
+    synchronized double latency() {
+      return latency;
+    }
+
+    synchronized double errorRate() {
+      return errorRate;
+    }
+
+    synchronized double score() {
+      return latency * (inflight.get() + 1) / Math.max(1 - errorRate, 0.01);
+    }
+
+    synchronized EndpointStats snapshot() {
+      return new EndpointStats(url, latency, errorRate, inflight.get(), total, available);
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.zip.GZIPInputStream;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.unstoppabledomains.resolution.TokenUriMetadata;
+import com.unstoppabledomains.resolution.cache.CacheStats;
+import com.unstoppabledomains.resolution.cache.TtlCache;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+/**
+ * GET client for token metadata documents that follows HTTP caching rules. A document is answered from memory
+ * while {@code Cache-Control: max-age} (or {@code Expires}) says it is fresh, a stale document is revalidated with
+ * {@code If-None-Match} / {@code If-Modified-Since} and reused on {@code 304 Not Modified}, and {@code no-store}
+ * documents are never kept. Token URIs are remembered per token, so repeated metadata lookups of a token skip the
+ * {@code tokenURI} contract call as well.
+ * Share one instance, such as {@link #getDefault()}, so connections to the metadata server stay in the keep-alive cache
+ */
+public class MetadataClient extends JsonProvider {
+  private static final MetadataClient DEFAULT = new MetadataClient();
+
+  private final MetadataClientConfig config;
+  private final TtlCache<String, Document> documents;
+  private final TtlCache<TokenKey, String> tokenUris;
+
+  /**
+   * Looks up the token URI of a token that isn't known yet
+   */
+  public interface TokenUriSource {
+    String getTokenUri(BigInteger tokenId) throws Exception;
+  }
+
+  public MetadataClient() {
+    this(MetadataClientConfig.defaultConfig());
+  }
+
+  public MetadataClient(MetadataClientConfig config) {
+    super();
+    setMethod("GET");
+    this.config = config;
+    documents = new TtlCache<>(config.getMaxSize(), config.getRetention());
+    tokenUris = new TtlCache<>(config.getMaxSize(), config.getRetention());
+  }
+
+  /**
+   * @return client shared by all resolutions that don't configure their own
+   */
+  public static MetadataClient getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * @param url document URL
+   * @param classOfT type to map the JSON document to
+   * @return a new object on every call, cached documents are never handed out for modification
+   * @throws IOException when the document is neither cached nor fetchable
+   */
+  public <T> T get(String url, Class<T> classOfT) throws IOException {
+    return gson.fromJson(fetch(url), classOfT);
+  }
+
+  /**
+   * @param layer layer or naming service the token belongs to
+   * @param tokenId token ID
+   * @param source called for the token URI when it isn't remembered yet
+   * @return metadata of the token
+   * @throws Exception any error of the source or of the metadata request
+   */
+  public TokenUriMetadata getTokenMetadata(String layer, BigInteger tokenId, TokenUriSource source) throws Exception {
+    TokenKey key = new TokenKey(layer, tokenId);
+    String url = tokenUris.get(key);
+    if (url == null) {
+      url = source.getTokenUri(tokenId);
+      tokenUris.put(key, url);
+    }
+    return get(url, TokenUriMetadata.class);
+  }
+
+  /**
+   * Drops all cached documents and token URIs
+   */
+  public void clear() {
+    documents.clear();
+    tokenUris.clear();
+  }
+
+  /**
+   * @return statistics of the document cache, hits include stale documents that were revalidated
+   */
+  public CacheStats getStats() {
+    return documents.getStats();
+  }
+
+  private JsonElement fetch(String url) throws IOException {
+    Document cached = documents.get(url);
+    if (cached != null && cached.freshUntil > System.currentTimeMillis()) {
+      return cached.body;
+    }
+    HttpURLConnection con = createAndConfigureCon(url);
+    if (cached != null && cached.etag != null) {
+      con.setRequestProperty("If-None-Match", cached.etag);
+    }
+    if (cached != null && cached.lastModified != null) {
+      con.setRequestProperty("If-Modified-Since", cached.lastModified);
+    }
+    InputStream stream = openResponseStream(con);
+    if ("gzip".equalsIgnoreCase(con.getContentEncoding())) {
+      stream = new GZIPInputStream(stream);
+    }
+    try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+      if (cached != null && con.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+        store(url, con, cached.body, cached);
+        return cached.body;
+      }
+      JsonElement body = JsonParser.parseReader(reader);
+      store(url, con, body, null);
+      return body;
+    }
+  }
+
+  private void store(String url, HttpURLConnection con, JsonElement body, Document previous) {
+    long maxAge = maxAge(con.getHeaderField("Cache-Control"), con.getHeaderField("Expires"), config.getDefaultMaxAge());
+    if (maxAge < 0) {
+      documents.remove(url);
+      return;
+    }
+    String etag = header(con, "ETag", previous == null ? null : previous.etag);
+    String lastModified = header(con, "Last-Modified", previous == null ? null : previous.lastModified);
+    boolean revalidatable = etag != null || lastModified != null;
+    if (maxAge == 0 && !revalidatable) {
+      documents.remove(url);
+      return;
+    }
+    long lifetime = revalidatable ? Math.max(maxAge, config.getRetention()) : maxAge;
+    documents.put(url, new Document(body, etag, lastModified, System.currentTimeMillis() + maxAge), lifetime);
+  }
+
+  private static String header(HttpURLConnection con, String name, String fallback) {
+    String value = con.getHeaderField(name);
+    return value == null || value.isEmpty() ? fallback : value;
+  }
+
+  /**
+   * @param cacheControl value of the Cache-Control header
+   * @param expires value of the Expires header
+   * @param defaultMaxAge freshness used when neither header limits it, in milliseconds
+   * @return how long the response is fresh in milliseconds, 0 if it must be revalidated before every use,
+   *     -1 if it must not be stored
+   */
+  static long maxAge(String cacheControl, String expires, long defaultMaxAge) {
+    if (cacheControl != null) {
+      long maxAge = -1;
+      for (String directive : cacheControl.toLowerCase().split(",")) {
+        String value = directive.trim();
+        if (value.equals("no-store")) {
+          return -1;
+        }
+        if (value.equals("no-cache")) {
+          maxAge = 0;
+        } else if (value.startsWith("max-age=") && maxAge != 0) {
+          try {
+            maxAge = Math.max(0, Long.parseLong(value.substring("max-age=".length()).replace("\"", "")) * 1000);
+          } catch (NumberFormatException e) {
+            maxAge = 0; // malformed freshness is treated as stale
+          }
+        }
+      }
+      if (maxAge >= 0) {
+        return maxAge;
+      }
+    }
+    if (expires != null) {
+      try {
+        ZonedDateTime date = ZonedDateTime.parse(expires.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+        return Math.max(0, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+      } catch (DateTimeParseException e) {
+        return 0; // invalid dates mean already expired
+      }
+    }
+    return defaultMaxAge;
+  }
+
+  @AllArgsConstructor
+  private static class Document {
+    private final JsonElement body;
+    private final String etag;
+    private final String lastModified;
+    private final long freshUntil;
+  }
+
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  private static class TokenKey {
+    private final String layer;
+    private final BigInteger tokenId;
+  }
+}
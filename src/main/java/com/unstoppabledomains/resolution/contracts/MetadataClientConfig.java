@@ -0,0 +1,28 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings for {@link MetadataClient}
+ */
+@Getter
+@Builder
+public class MetadataClientConfig {
+  /** Maximum amount of cached metadata documents, least recently used documents are evicted first */
+  @Builder.Default
+  private int maxSize = 1_000;
+  /**
+   * How long a document with an {@code ETag} or {@code Last-Modified} validator is kept after it went stale,
+   * so it can be revalidated with a conditional request instead of downloaded again, in milliseconds
+   */
+  @Builder.Default
+  private long retention = 3_600_000;
+  /** How long a document is fresh when the server sends neither {@code Cache-Control: max-age} nor {@code Expires}, in milliseconds */
+  @Builder.Default
+  private long defaultMaxAge = 60_000;
+
+  public static MetadataClientConfig defaultConfig() {
+    return MetadataClientConfig.builder().build();
+  }
+}
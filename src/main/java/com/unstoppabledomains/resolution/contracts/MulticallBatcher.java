@@ -0,0 +1,145 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.unstoppabledomains.exceptions.ns.NSExceptionCode;
+import com.unstoppabledomains.exceptions.ns.NSExceptionParams;
+import com.unstoppabledomains.exceptions.ns.NamingServiceException;
+
+/**
+ * Collects contract calls from concurrent threads and sends them as one {@code multicall}.
+ * A batch is sent when the configured window passes after its first call or when it reaches the maximum size.
+ * If the multicall reverts as a whole, every call of the batch is retried on its own
+ * so a single failing call doesn't affect the others.
+ */
+class MulticallBatcher {
+  interface Transport {
+    /**
+     * @return raw results in the same order or null if the multicall reverted
+     */
+    List<byte[]> multicall(List<byte[]> calls) throws NamingServiceException;
+
+    /**
+     * @return raw result or null if the call reverted
+     */
+    byte[] call(byte[] calldata) throws NamingServiceException;
+  }
+
+  private static final ThreadFactory DAEMON_THREADS = runnable -> {
+    Thread thread = new Thread(runnable, "resolution-multicall-batcher");
+    thread.setDaemon(true);
+    return thread;
+  };
+  private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(DAEMON_THREADS);
+  private static final ExecutorService SENDERS = Executors.newCachedThreadPool(DAEMON_THREADS);
+
+  private final MulticallBatchingConfig config;
+  private final Transport transport;
+  private List<PendingCall> pending = new ArrayList<>();
+
+  MulticallBatcher(MulticallBatchingConfig config, Transport transport) {
+    this.config = config;
+    this.transport = transport;
+  }
+
+  /**
+   * Adds the call to the current batch and waits for its result
+   * @param calldata ABI encoded call
+   * @return raw result or null if the call reverted
+   * @throws NamingServiceException when the batch could not be sent
+   */
+  byte[] call(byte[] calldata) throws NamingServiceException {
+    PendingCall call = new PendingCall(calldata);
+    List<PendingCall> full = null;
+    synchronized (this) {
+      pending.add(call);
+      if (pending.size() >= config.getMaxBatchSize()) {
+        full = pending;
+        pending = new ArrayList<>();
+      } else if (pending.size() == 1) {
+        List<PendingCall> batch = pending;
+        TIMER.schedule(() -> sendIfPending(batch), config.getWindow(), TimeUnit.MILLISECONDS);
+      }
+    }
+    if (full != null) {
+      send(full);
+    }
+    return call.await();
+  }
+
+  private void sendIfPending(List<PendingCall> batch) {
+    synchronized (this) {
+      if (pending != batch) {
+        return;
+      }
+      pending = new ArrayList<>();
+    }
+    SENDERS.execute(() -> send(batch));
+  }
+
+  private void send(List<PendingCall> batch) {
+    try {
+      if (batch.size() == 1) {
+        batch.get(0).result.complete(transport.call(batch.get(0).calldata));
+        return;
+      }
+      List<byte[]> calls = new ArrayList<>(batch.size());
+      for (PendingCall call : batch) {
+        calls.add(call.calldata);
+      }
+      List<byte[]> results = transport.multicall(calls);
+      if (results == null) {
+        sendOneByOne(batch);
+        return;
+      }
+      for (int i = 0; i < batch.size(); i++) {
+        batch.get(i).result.complete(results.get(i));
+      }
+    } catch (Exception e) {
+      for (PendingCall call : batch) {
+        call.result.completeExceptionally(e);
+      }
+    }
+  }
+
+  private void sendOneByOne(List<PendingCall> batch) {
+    for (PendingCall call : batch) {
+      try {
+        call.result.complete(transport.call(call.calldata));
+      } catch (Exception e) {
+        call.result.completeExceptionally(e);
+      }
+    }
+  }
+
+  private static class PendingCall {
+    private final byte[] calldata;
+    private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+    PendingCall(byte[] calldata) {
+      this.calldata = calldata;
+    }
+
+    byte[] await() throws NamingServiceException {
+      try {
+        return result.get();
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof NamingServiceException) {
+          throw (NamingServiceException) e.getCause();
+        }
+        throw new NamingServiceException(NSExceptionCode.UnknownError, NSExceptionParams.EMPTY_PARAMS, e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new NamingServiceException(NSExceptionCode.UnknownError, NSExceptionParams.EMPTY_PARAMS, e);
+      }
+    }
+  }
+}
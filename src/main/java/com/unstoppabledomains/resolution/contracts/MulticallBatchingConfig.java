@@ -0,0 +1,22 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings of automatic batching of concurrent contract calls into a single {@code multicall}
+ */
+@Getter
+@Builder
+public class MulticallBatchingConfig {
+  /** How long the first call of a batch waits for other calls to join, in milliseconds */
+  @Builder.Default
+  private long window = 5;
+  /** Batch is sent immediately once it has this many calls */
+  @Builder.Default
+  private int maxBatchSize = 50;
+
+  public static MulticallBatchingConfig defaultConfig() {
+    return MulticallBatchingConfig.builder().build();
+  }
+}
@@ -0,0 +1,33 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Point in time statistics of {@link PooledProvider} for a single host
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PoolStats {
+  private final String host;
+  private final int maxConnections;
+  private final int activeConnections;
+  private final int peakConnections;
+  private final int waitingRequests;
+  private final long totalRequests;
+  private final long failedRequests;
+  private final long rejectedRequests;
+  private final long totalWaitMillis;
+  private final long totalRequestMillis;
+
+  public double getAverageWaitMillis() {
+    long started = totalRequests + rejectedRequests;
+    return started == 0 ? 0 : (double) totalWaitMillis / started;
+  }
+
+  public double getAverageRequestMillis() {
+    return totalRequests == 0 ? 0 : (double) totalRequestMillis / totalRequests;
+  }
+}
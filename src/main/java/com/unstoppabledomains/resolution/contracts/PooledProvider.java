@@ -0,0 +1,148 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provider with an explicit limit of connections per host, keep-alive and timeouts.
+ * Connections are reused through the JVM keep-alive cache, this class makes sure that every response
+ * (including error ones) is fully consumed so the socket can be reused, and that no host gets more
+ * connections than configured. Use {@link #getPoolStats()} to size the pool against your RPC endpoints.
+ */
+public class PooledProvider extends DefaultProvider {
+  private final ConnectionPoolConfig config;
+  private final Map<String, HostPool> pools = new ConcurrentHashMap<>();
+
+  public PooledProvider() {
+    this(ConnectionPoolConfig.defaultConfig());
+  }
+
+  public PooledProvider(ConnectionPoolConfig config) {
+    super();
+    this.config = config;
+    setConnectTimeout(config.getConnectTimeout());
+    setReadTimeout(config.getReadTimeout());
+    if (!config.isKeepAlive()) {
+      // HttpURLConnection keeps connections alive by default and only honors "close" for this restricted header
+      setHeader("Connection", "close");
+    }
+  }
+
+  public ConnectionPoolConfig getConfig() {
+    return config;
+  }
+
+  /**
+   * @return statistics for every host this provider has talked to, keyed by host:port
+   */
+  public Map<String, PoolStats> getPoolStats() {
+    Map<String, PoolStats> stats = new HashMap<>();
+    for (Map.Entry<String, HostPool> entry : pools.entrySet()) {
+      stats.put(entry.getKey(), entry.getValue().snapshot());
+    }
+    return stats;
+  }
+
+  @Override
+  public PooledProvider setHeader(String key, String value) {
+    super.setHeader(key, value);
+    return this;
+  }
+
+  @Override
+  protected <T> T exchange(String url, RequestWriter body, ResponseReader<T> responseReader) throws IOException {
+    HostPool pool = poolFor(url);
+    pool.acquire();
+    long start = System.nanoTime();
+    boolean success = false;
+    try {
+      T response = super.exchange(url, body, responseReader);
+      success = true;
+      return response;
+    } finally {
+      pool.release(System.nanoTime() - start, success);
+    }
+  }
+
+  @Override
+  protected HttpURLConnection createAndConfigureCon(String url) throws IOException {
+    HttpURLConnection con = super.createAndConfigureCon(url);
+    con.setUseCaches(false);
+    return con;
+  }
+
+  private HostPool poolFor(String url) throws MalformedURLException {
+    URL parsed = new URL(url);
+    int port = parsed.getPort() == -1 ? parsed.getDefaultPort() : parsed.getPort();
+    String host = parsed.getHost() + ":" + port;
+    return pools.computeIfAbsent(host, h -> new HostPool(h, config.getMaxConnectionsPerHost(), config.getAcquireTimeout()));
+  }
+
+  private static class HostPool {
+    private final String host;
+    private final int maxConnections;
+    private final long acquireTimeout;
+    private final Semaphore permits;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong requestNanos = new AtomicLong();
+
+    HostPool(String host, int maxConnections, long acquireTimeout) {
+      this.host = host;
+      this.maxConnections = maxConnections;
+      this.acquireTimeout = acquireTimeout;
+      this.permits = new Semaphore(maxConnections, true);
+    }
+
+    void acquire() throws IOException {
+      long start = System.nanoTime();
+      waiting.incrementAndGet();
+      boolean acquired;
+      try {
+        acquired = permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for a connection to " + host);
+      } finally {
+        waiting.decrementAndGet();
+        waitNanos.addAndGet(System.nanoTime() - start);
+      }
+      if (!acquired) {
+        rejected.incrementAndGet();
+        throw new IOException("Timed out waiting for a connection to " + host);
+      }
+      int current = active.incrementAndGet();
+      peak.accumulateAndGet(current, Math::max);
+    }
+
+    void release(long elapsedNanos, boolean success) {
+      active.decrementAndGet();
+      total.incrementAndGet();
+      requestNanos.addAndGet(elapsedNanos);
+      if (!success) {
+        failed.incrementAndGet();
+      }
+      permits.release();
+    }
+
+    PoolStats snapshot() {
+      return new PoolStats(host, maxConnections, active.get(), peak.get(), waiting.get(), total.get(), failed.get(),
+          rejected.get(), TimeUnit.NANOSECONDS.toMillis(waitNanos.get()), TimeUnit.NANOSECONDS.toMillis(requestNanos.get()));
+    }
+  }
+}
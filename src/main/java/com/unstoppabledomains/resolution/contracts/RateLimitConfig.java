@@ -0,0 +1,36 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings for {@link RateLimitingProvider}.
+ * The rate starts at {@link #maxRate}, is multiplied by {@link #backoff} on every 429 response
+ * and grows back by {@link #recovery} with every successful request.
+ */
+@Getter
+@Builder
+public class RateLimitConfig {
+  /** Highest allowed rate per endpoint, requests per second. Set it to the quota of your API key */
+  @Builder.Default
+  private double maxRate = 20;
+  /** Rate never goes below this value, requests per second */
+  @Builder.Default
+  private double minRate = 1;
+  /** Amount of requests that may be sent at once after a quiet period */
+  @Builder.Default
+  private int burst = 20;
+  /** Factor applied to the rate on a 429 response, between 0 and 1 */
+  @Builder.Default
+  private double backoff = 0.5;
+  /** Rate regained with every successful request, requests per second */
+  @Builder.Default
+  private double recovery = 0.1;
+  /** Requests that would have to wait longer than this fail right away, in milliseconds */
+  @Builder.Default
+  private long maxWait = 10_000;
+
+  public static RateLimitConfig defaultConfig() {
+    return RateLimitConfig.builder().build();
+  }
+}
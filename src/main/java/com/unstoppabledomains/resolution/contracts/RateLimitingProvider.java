@@ -0,0 +1,120 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+
+/**
+ * Limits the rate of requests to every endpoint with a token bucket.
+ * The rate adapts to the server: it is cut on every 429 response, sending is paused for the
+ * Retry-After period if the server gave one, and the rate slowly grows back with successful requests.
+ * Callers wait for their turn, up to {@link RateLimitConfig#getMaxWait()}.
+ */
+public class RateLimitingProvider extends DelegatingProvider {
+  private final RateLimitConfig config;
+  private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+  public RateLimitingProvider(IProvider delegate) {
+    this(delegate, RateLimitConfig.defaultConfig());
+  }
+
+  public RateLimitingProvider(IProvider delegate, RateLimitConfig config) {
+    super(delegate);
+    this.config = config;
+  }
+
+  public RateLimitConfig getConfig() {
+    return config;
+  }
+
+  /**
+   * @return current allowed rate of every endpoint this provider has talked to in requests per second, keyed by url
+   */
+  public Map<String, Double> getRates() {
+    Map<String, Double> rates = new HashMap<>();
+    for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+      rates.put(entry.getKey(), entry.getValue().rate());
+    }
+    return rates;
+  }
+
+  @Override
+  public RateLimitingProvider setHeader(String key, String value) {
+    super.setHeader(key, value);
+    return this;
+  }
+
+  @Override
+  protected <T> T execute(String url, String method, Call<T> call) throws IOException {
+    Bucket bucket = buckets.computeIfAbsent(url, u -> new Bucket());
+    long wait = bucket.reserve();
+    if (wait < 0) {
+      throw new IOException("Rate limit of " + url + " exceeded");
+    }
+    if (wait > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for rate limit of " + url);
+      }
+    }
+    try {
+      T result = call.apply(url);
+      bucket.success();
+      return result;
+    } catch (HttpStatusException e) {
+      if (e.getStatusCode() == 429) {
+        bucket.throttled(e.getRetryAfter());
+      }
+      throw e;
+    }
+  }
+
+  private class Bucket {
+    private double rate = config.getMaxRate();
+    private double tokens = config.getBurst();
+    private long refilledAt = System.nanoTime();
+    private long pausedUntil = refilledAt;
+
+    /**
+     * Takes a token, possibly in advance
+     * @return how long to wait before sending in nanoseconds, -1 if the wait would be too long
+     */
+    synchronized long reserve() {
+      long now = System.nanoTime();
+      tokens = Math.min(config.getBurst(), tokens + (now - refilledAt) / 1e9 * rate);
+      refilledAt = now;
+      long wait = Math.max(0, pausedUntil - now);
+      if (tokens < 1) {
+        wait = Math.max(wait, (long) ((1 - tokens) / rate * 1e9));
+      }
+      if (wait > TimeUnit.MILLISECONDS.toNanos(config.getMaxWait())) {
+        return -1;
+      }
+      tokens -= 1;
+      return wait;
+    }
+
+    synchronized void success() {
+      rate = Math.min(config.getMaxRate(), rate + config.getRecovery());
+    }
+
+    synchronized void throttled(long retryAfter) {
+      rate = Math.max(config.getMinRate(), rate * config.getBackoff());
+      tokens = Math.min(tokens, 0);
+      if (retryAfter > 0) {
+        pausedUntil = Math.max(pausedUntil, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryAfter));
+      }
+    }
+
+    synchronized double rate() {
+      return rate;
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+
+/**
+ * Lets another thread abort the request a thread is making, e.g. the losing leg of a hedged request.
+ * {@link DefaultProvider} registers its connection with the abort bound to the current thread and
+ * disconnecting it makes the blocking read fail right away. Providers that don't go through
+ * {@link DefaultProvider} can't be aborted, their request finishes in the background.
+ */
+final class RequestAbort {
+  private static final ThreadLocal<RequestAbort> CURRENT = new ThreadLocal<>();
+
+  /**
+   * Work done with an abort bound to the thread
+   */
+  interface Action<T> {
+    T run() throws IOException;
+  }
+
+  private HttpURLConnection connection;
+  private boolean aborted;
+
+  /**
+   * @return abort bound to the current thread, null if there is none
+   */
+  static RequestAbort current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * @return whether the request of the current thread has been aborted
+   */
+  static boolean isCurrentAborted() {
+    RequestAbort abort = CURRENT.get();
+    return abort != null && abort.isAborted();
+  }
+
+  /**
+   * Runs the action with this abort bound to the current thread
+   */
+  <T> T run(Action<T> action) throws IOException {
+    RequestAbort previous = CURRENT.get();
+    CURRENT.set(this);
+    try {
+      return action.run();
+    } finally {
+      CURRENT.set(previous);
+    }
+  }
+
+  /**
+   * @param con connection the current request is made on
+   * @throws InterruptedIOException if the request has already been aborted
+   */
+  synchronized void attach(HttpURLConnection con) throws InterruptedIOException {
+    if (aborted) {
+      throw new InterruptedIOException("Request aborted");
+    }
+    connection = con;
+  }
+
+  synchronized void detach(HttpURLConnection con) {
+    if (connection == con) {
+      connection = null;
+    }
+  }
+
+  synchronized void abort() {
+    aborted = true;
+    if (connection != null) {
+      connection.disconnect();
+      connection = null;
+    }
+  }
+
+  synchronized boolean isAborted() {
+    return aborted;
+  }
+}
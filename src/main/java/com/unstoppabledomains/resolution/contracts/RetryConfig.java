@@ -0,0 +1,37 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings for {@link RetryingProvider}
+ */
+@Getter
+@Builder
+public class RetryConfig {
+  /** Maximum amount of attempts per request, including the first one */
+  @Builder.Default
+  private int maxAttempts = 3;
+  /** Backoff before the first retry, in milliseconds */
+  @Builder.Default
+  private long initialBackoff = 100;
+  /** Upper bound of the backoff, in milliseconds */
+  @Builder.Default
+  private long maxBackoff = 2_000;
+  /** Factor the backoff grows by with every retry */
+  @Builder.Default
+  private double multiplier = 2;
+  /** Time after which a request is not retried anymore, counted from the first attempt, in milliseconds */
+  @Builder.Default
+  private long deadline = 10_000;
+  /** Maximum share of requests that may be retried, so retries can't multiply the load during an outage */
+  @Builder.Default
+  private double budget = 0.1;
+  /** Amount of retries that may be sent in a row when the budget has been saved up */
+  @Builder.Default
+  private int maxBurst = 10;
+
+  public static RetryConfig defaultConfig() {
+    return RetryConfig.builder().build();
+  }
+}
@@ -0,0 +1,87 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+
+/**
+ * Retries read-only JSON-RPC requests that failed with a transient error: network errors, timeouts,
+ * 429 and 5xx responses. Retries wait for an exponential backoff with full jitter (or the Retry-After
+ * delay if it is longer), stop at the per-request deadline and are limited by a budget shared by all requests.
+ * Only the failed request is retried, so a failing layer call doesn't repeat the whole resolution.
+ */
+public class RetryingProvider extends DelegatingProvider {
+  private final RetryConfig config;
+  private final TokenBudget budget;
+
+  public RetryingProvider(IProvider delegate) {
+    this(delegate, RetryConfig.defaultConfig());
+  }
+
+  public RetryingProvider(IProvider delegate, RetryConfig config) {
+    super(delegate);
+    this.config = config;
+    this.budget = new TokenBudget(config.getBudget(), config.getMaxBurst());
+  }
+
+  public RetryConfig getConfig() {
+    return config;
+  }
+
+  @Override
+  public RetryingProvider setHeader(String key, String value) {
+    super.setHeader(key, value);
+    return this;
+  }
+
+  @Override
+  protected <T> T execute(String url, String method, Call<T> call) throws IOException {
+    budget.deposit();
+    if (!isReadOnly(method)) {
+      return call.apply(url);
+    }
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getDeadline());
+    long backoff = config.getInitialBackoff();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return call.apply(url);
+      } catch (IOException e) {
+        if (attempt >= config.getMaxAttempts() || !isRetryable(e)) {
+          throw e;
+        }
+        long delay = ThreadLocalRandom.current().nextLong(backoff + 1);
+        if (e instanceof HttpStatusException) {
+          delay = Math.max(delay, ((HttpStatusException) e).getRetryAfter());
+        }
+        if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) - deadline > 0 || !budget.withdraw()) {
+          throw e;
+        }
+        sleep(delay, url);
+        backoff = Math.min(config.getMaxBackoff(), (long) (backoff * config.getMultiplier()));
+      }
+    }
+  }
+
+  private static boolean isRetryable(IOException e) {
+    if (e instanceof CircuitOpenException || Thread.currentThread().isInterrupted()) {
+      return false;
+    }
+    if (e instanceof HttpStatusException) {
+      int status = ((HttpStatusException) e).getStatusCode();
+      return status == 408 || status == 429 || status >= 500;
+    }
+    return true;
+  }
+
+  private static void sleep(long millis, String url) throws IOException {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to retry " + url);
+    }
+  }
+}
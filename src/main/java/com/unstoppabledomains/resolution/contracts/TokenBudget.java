@@ -0,0 +1,30 @@
+package com.unstoppabledomains.resolution.contracts;
+
+/**
+ * Caps extra requests (hedges, retries) to a share of the regular ones.
+ * Every regular request deposits that share, an extra request can only be sent once a whole token has been saved.
+ * The budget starts full, so occasional extra requests are allowed even with little traffic
+ */
+class TokenBudget {
+  private final double share;
+  private final double max;
+  private double balance;
+
+  TokenBudget(double share, int maxBurst) {
+    this.share = share;
+    this.max = maxBurst;
+    this.balance = maxBurst;
+  }
+
+  synchronized void deposit() {
+    balance = Math.min(max, balance + share);
+  }
+
+  synchronized boolean withdraw() {
+    if (balance < 1) {
+      return false;
+    }
+    balance--;
+    return true;
+  }
+}
@@ -0,0 +1,22 @@
+package com.unstoppabledomains.resolution.contracts.interfaces;
+
+import java.io.IOException;
+
+import com.google.gson.JsonObject;
+import com.unstoppabledomains.resolution.contracts.EthCallTemplate;
+
+/**
+ * Provider that can send {@code eth_call} requests from a pre-encoded template
+ * without building the request as a {@link JsonObject} first
+ */
+public interface IEthCallProvider extends IProvider {
+  /**
+   * Makes an eth_call request
+   * @param url - string representation of an endpoint
+   * @param template - pre-encoded request for the target contract
+   * @param calldata - ABI encoded call
+   * @return - returns JsonObject as a result from the url
+   * @throws IOException
+   */
+  JsonObject ethCall(String url, EthCallTemplate template, byte[] calldata) throws IOException;
+}
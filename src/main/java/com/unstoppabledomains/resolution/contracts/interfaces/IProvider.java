@@ -1,8 +1,14 @@
 package com.unstoppabledomains.resolution.contracts.interfaces;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.google.gson.JsonObject;
+import com.unstoppabledomains.util.DefaultExecutor;
 
 public interface IProvider {
   /**
@@ -14,6 +20,49 @@ public interface IProvider {
    */
   abstract JsonObject request(String url, JsonObject body) throws IOException;
 
+  /**
+   * Sends several JSON-RPC requests at once as a JSON-RPC 2.0 batch.
+   * Every body must have its own "id", responses are correlated by it.
+   * Default implementation sends the requests one by one
+   * @param url - string representation of an endpoint
+   * @param bodies - JSON-RPC requests with distinct ids
+   * @return - responses in the same order as the requests
+   * @throws IOException
+   */
+  default List<JsonObject> requestBatch(String url, List<JsonObject> bodies) throws IOException {
+    List<JsonObject> responses = new ArrayList<>(bodies.size());
+    for (JsonObject body : bodies) {
+      responses.add(request(url, body));
+    }
+    return responses;
+  }
+
+  /**
+   * Asynchronous version of {@link #request(String, JsonObject)}.
+   * The built-in providers use the blocking {@code HttpURLConnection}, so the default implementation runs the request
+   * on the bounded {@link DefaultExecutor} and occupies one of its threads until the response has been read.
+   * Providers with a non-blocking transport should override it
+   * @param url - string representation of an endpoint
+   * @param body - JsonObject containing everything that is needed
+   * @return - future of the response, fails with IOException wrapped into CompletionException,
+   * or with RejectedExecutionException when the executor is saturated
+   */
+  default CompletableFuture<JsonObject> requestAsync(String url, JsonObject body) {
+    try {
+      return CompletableFuture.supplyAsync(() -> {
+        try {
+          return request(url, body);
+        } catch (IOException e) {
+          throw new CompletionException(e);
+        }
+      }, DefaultExecutor.getInstance());
+    } catch (RejectedExecutionException e) {
+      CompletableFuture<JsonObject> future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+      return future;
+    }
+  }
+
   /**
    * This method allows to set extra headers to requests
    * @param key header key
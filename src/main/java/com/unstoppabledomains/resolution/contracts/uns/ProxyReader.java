@@ -1,13 +1,24 @@
 package com.unstoppabledomains.resolution.contracts.uns;
 
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.esaulpaugh.headlong.abi.Tuple;
+import com.unstoppabledomains.config.KnownRecords;
 import com.unstoppabledomains.config.network.model.Location;
 import com.unstoppabledomains.exceptions.ns.NamingServiceException;
 import com.unstoppabledomains.resolution.contracts.BaseContract;
+import com.unstoppabledomains.resolution.contracts.CalldataTemplate;
+import com.unstoppabledomains.resolution.artifacts.Hash;
+import com.unstoppabledomains.resolution.artifacts.HexCodec;
+import com.unstoppabledomains.resolution.contracts.MulticallBatchingConfig;
 import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
 import com.unstoppabledomains.util.Utilities;
 
@@ -15,11 +26,32 @@ public class ProxyReader extends BaseContract {
 
     private static final String ABI_FILE = "uns/proxy_reader_abi.json";
     private static final String namingServiceName = "UNS";
+    private static final int MAX_DATA_TEMPLATES = 64;
+    private static final Map<KeySet, CalldataTemplate> DATA_TEMPLATES = templateCache();
+    private static final Map<KeySet, CalldataTemplate> HASH_TEMPLATES = templateCache();
+    private static final Map<String, BigInteger> KNOWN_KEY_HASHES = knownKeyHashes();
+
+    private volatile boolean keyHashReads;
 
     public ProxyReader(String url, String address, IProvider provider) {
         super(namingServiceName, url, address, provider);
     }
 
+    public ProxyReader(String url, String address, IProvider provider, MulticallBatchingConfig batching) {
+        this(url, address, provider);
+        if (batching != null) {
+            enableMulticallBatching(batching);
+        }
+    }
+
+    /**
+     * Makes {@link #getProxyData} send keccak hashes of the keys to {@code getDataByHash} instead of the key strings,
+     * which takes 32 bytes of calldata per key. Hashes of {@link KnownRecords} keys are precomputed
+     */
+    public void enableKeyHashReads() {
+        this.keyHashReads = true;
+    }
+
     public String getOwner(BigInteger tokenID) {
         try {
             Object[] args = { tokenID };
@@ -30,6 +62,16 @@ public class ProxyReader extends BaseContract {
     }
 
 
+    /**
+     * Same as {@link #getOwner(BigInteger)} but transport failures are thrown instead of turned into null
+     * @return owner of the token, zero address when the token is not minted, null when the call reverted
+     * @throws NamingServiceException when the provider could not be reached
+     */
+    public String fetchOwner(BigInteger tokenID) throws NamingServiceException {
+        Object[] args = { tokenID };
+        return fetchAddress("ownerOf", args);
+    }
+
     public String getAddress(BigInteger tokenID, String network, String token) {
         try {
             Object[] args = { network, token, tokenID };
@@ -39,6 +81,30 @@ public class ProxyReader extends BaseContract {
         }
     }
 
+    /**
+     * Fetches owner and address of the token in one round trip
+     * @return two element array of owner and address, elements are null when not available
+     */
+    public String[] getOwnerAndAddress(BigInteger tokenID, String network, String token) {
+        List<MulticallArgs> args = new ArrayList<>();
+        args.add(new MulticallArgs("ownerOf", new Object[]{ tokenID }));
+        args.add(new MulticallArgs("getAddress", new Object[]{ network, token, tokenID }));
+        String[] result = new String[2];
+        try {
+            List<Tuple> answers = fetchBatch(args);
+            if (answers.get(0).size() > 0) {
+                result[0] = "0x" + ((BigInteger) answers.get(0).get(0)).toString(16);
+            }
+            if (answers.get(1).size() > 0) {
+                String address = (String) answers.get(1).get(0);
+                result[1] = address.isEmpty() ? null : address;
+            }
+        } catch (Exception e) {
+            return new String[2];
+        }
+        return result;
+    }
+
     public List<String> batchOwners(BigInteger[] tokenIDs) throws Exception {
         Object[] args = { tokenIDs };
         BigInteger[] owners = fetchOne("ownerOfForMany", args);
@@ -55,9 +121,32 @@ public class ProxyReader extends BaseContract {
         return fetchOne("get", args);
     }
 
+    /**
+     * Calls {@code getData} from a calldata template compiled once per key set, only the token ID is encoded per call.
+     * With key hash reads enabled calls {@code getDataByHash}, falling back to {@code getData} when the reader
+     * doesn't answer it
+     */
     public ProxyData getProxyData(String[] records, BigInteger tokenID) throws NamingServiceException {
-        Object[] args = { records, tokenID };
-        return fetchData(args);
+        KeySet keySet = new KeySet(records);
+        if (keyHashReads) {
+            CalldataTemplate template = HASH_TEMPLATES.get(keySet);
+            if (template == null) {
+                Object[] args = { keyHashes(keySet.keys), BigInteger.ZERO };
+                template = CalldataTemplate.compile(getFunction("getDataByHash", args.length), args, 1);
+                HASH_TEMPLATES.put(keySet, template);
+            }
+            Tuple answer = fetchEncoded(template.getFunction(), template.fill(tokenID));
+            if (answer.size() > 0) {
+                return toProxyData(answer, 3);
+            }
+        }
+        CalldataTemplate template = DATA_TEMPLATES.get(keySet);
+        if (template == null) {
+            Object[] args = { keySet.keys, BigInteger.ZERO };
+            template = CalldataTemplate.compile(getFunction("getData", args.length), args, 1);
+            DATA_TEMPLATES.put(keySet, template);
+        }
+        return toProxyData(fetchEncoded(template.getFunction(), template.fill(tokenID)));
     }
 
     public String getTokenUri(BigInteger tokenID) throws Exception {
@@ -106,7 +195,7 @@ public class ProxyReader extends BaseContract {
     }
 
     public BigInteger getReverseResolution(String address) throws NamingServiceException {
-        BigInteger addressInt = new BigInteger(address.replace("0x", ""), 16);
+        BigInteger addressInt = new BigInteger(1, HexCodec.decode(address));
         Object[] args = { addressInt };
         return fetchOne("reverseOf", args);
     }
@@ -115,4 +204,64 @@ public class ProxyReader extends BaseContract {
     protected String getAbiPath() {
       return ABI_FILE;
     }
+
+    /**
+     * @param key record key
+     * @return keccak hash of the key as registries index it
+     */
+    public static BigInteger keyHash(String key) {
+        BigInteger hash = KNOWN_KEY_HASHES.get(key);
+        if (hash == null) {
+            hash = new BigInteger(1, Hash.sha3(key.getBytes(StandardCharsets.UTF_8)));
+        }
+        return hash;
+    }
+
+    private static BigInteger[] keyHashes(String[] keys) {
+        BigInteger[] hashes = new BigInteger[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            hashes[i] = keyHash(keys[i]);
+        }
+        return hashes;
+    }
+
+    private static Map<String, BigInteger> knownKeyHashes() {
+        Map<String, BigInteger> hashes = new HashMap<>();
+        for (String key : KnownRecords.getAllRecordKeys()) {
+            hashes.put(key, new BigInteger(1, Hash.sha3(key.getBytes(StandardCharsets.UTF_8))));
+        }
+        return Collections.unmodifiableMap(hashes);
+    }
+
+    private static Map<KeySet, CalldataTemplate> templateCache() {
+        return Collections.synchronizedMap(new LinkedHashMap<KeySet, CalldataTemplate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<KeySet, CalldataTemplate> eldest) {
+                return size() > MAX_DATA_TEMPLATES;
+            }
+        });
+    }
+
+    /**
+     * Record keys compared by content, with the hash computed once
+     */
+    private static final class KeySet {
+        private final String[] keys;
+        private final int hash;
+
+        KeySet(String[] keys) {
+            this.keys = keys.clone();
+            this.hash = Arrays.hashCode(this.keys);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof KeySet && hash == ((KeySet) o).hash && Arrays.equals(keys, ((KeySet) o).keys);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
@@ -1,11 +1,19 @@
 package com.unstoppabledomains.resolution.contracts.uns;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.unstoppabledomains.exceptions.ns.NamingServiceException;
 import com.unstoppabledomains.resolution.contracts.BaseContract;
+import com.unstoppabledomains.resolution.contracts.ContractLogs;
 import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
 
 public class Registry extends BaseContract {
     private static final String ABI_FILE = "uns/registry_abi.json";
     private static final String NAMING_SERVICE_NAME = "UNS";
+    /** Events that change records or owner of a domain, all of them have an indexed tokenId */
+    private static final String[] DOMAIN_EVENTS = { "Set", "ResetRecords", "Transfer", "NewURI" };
 
     public Registry(String url, String address, IProvider provider) {
         super(NAMING_SERVICE_NAME, url, address, provider);
@@ -15,4 +23,34 @@ public class Registry extends BaseContract {
     protected String getAbiPath() {
       return ABI_FILE;
     }
+
+    /**
+     * Finds domains whose records or owner were changed in a block range.
+     * Works for CNS resolvers too since they emit the same record events
+     * @param fromBlock first block
+     * @param toBlock last block, inclusive
+     * @return namehashes of the changed domains
+     * @throws NamingServiceException when the logs can't be fetched
+     */
+    public Set<String> fetchChangedDomains(long fromBlock, long toBlock) throws NamingServiceException {
+        String[] topics = new String[DOMAIN_EVENTS.length];
+        int[] tokenIdIndexes = new int[DOMAIN_EVENTS.length];
+        for (int i = 0; i < DOMAIN_EVENTS.length; i++) {
+            topics[i] = getEventTopic(DOMAIN_EVENTS[i]);
+            tokenIdIndexes[i] = getTopicIndex(DOMAIN_EVENTS[i], "tokenId");
+        }
+        Set<String> namehashes = new LinkedHashSet<>();
+        for (ContractLogs log : fetchLogs(fromBlock, toBlock, DOMAIN_EVENTS)) {
+            List<String> logTopics = log.getTopics();
+            if (logTopics == null || logTopics.isEmpty()) {
+                continue;
+            }
+            for (int i = 0; i < topics.length; i++) {
+                if (topics[i].equalsIgnoreCase(logTopics.get(0)) && tokenIdIndexes[i] < logTopics.size()) {
+                    namehashes.add(logTopics.get(tokenIdIndexes[i]).toLowerCase());
+                }
+            }
+        }
+        return namehashes;
+    }
 }
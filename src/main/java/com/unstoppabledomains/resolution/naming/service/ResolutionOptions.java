@@ -0,0 +1,45 @@
+package com.unstoppabledomains.resolution.naming.service;
+
+import java.util.concurrent.Executor;
+
+import com.unstoppabledomains.resolution.cache.DnsCache;
+import com.unstoppabledomains.resolution.cache.NegativeCache;
+import com.unstoppabledomains.resolution.cache.RecordCache;
+import com.unstoppabledomains.resolution.cache.ReverseCache;
+import com.unstoppabledomains.resolution.cache.ZnsCache;
+import com.unstoppabledomains.resolution.contracts.BlockPinningConfig;
+import com.unstoppabledomains.resolution.contracts.MetadataClient;
+import com.unstoppabledomains.resolution.contracts.MulticallBatchingConfig;
+import com.unstoppabledomains.resolution.naming.service.uns.LayerAffinityCache;
+import com.unstoppabledomains.util.DefaultExecutor;
+
+import lombok.Data;
+
+/**
+ * Optional behaviour shared by the naming services, configured through {@link com.unstoppabledomains.resolution.ResolutionBuilder}
+ */
+@Data
+public class ResolutionOptions {
+    /** Batching of concurrent contract calls into multicall, disabled when null */
+    private MulticallBatchingConfig multicallBatching;
+    /** Cache of resolved records, disabled when null */
+    private RecordCache recordCache;
+    /** Cache of unregistered domains and missing records, disabled when null */
+    private NegativeCache negativeCache;
+    /** Pinning of UNS calls to the current block with event based cache invalidation, disabled when null */
+    private BlockPinningConfig blockPinning;
+    /** Cache of the UNS layer each domain lives on, both layers are queried when null */
+    private LayerAffinityCache layerAffinity;
+    /** Client for token metadata documents, {@link MetadataClient#getDefault()} is shared when null */
+    private MetadataClient metadataClient;
+    /** Cache of reverse resolutions of addresses, disabled when null */
+    private ReverseCache reverseCache;
+    /** Cache of ZNS registry entries and resolver record maps, disabled when null */
+    private ZnsCache znsCache;
+    /** Cache of UNS DNS records honoring their TTLs, disabled when null */
+    private DnsCache dnsCache;
+    /** Reading UNS records by keccak hashes of their keys through {@code getDataByHash} */
+    private boolean keyHashReads;
+    /** Executor of {@code Resolution.async()} lookups, the bounded {@link DefaultExecutor} is shared when null */
+    private Executor asyncExecutor;
+}
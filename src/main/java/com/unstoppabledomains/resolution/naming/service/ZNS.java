@@ -7,6 +7,9 @@ import com.google.gson.JsonObject;
 import com.unstoppabledomains.exceptions.ns.NSExceptionCode;
 import com.unstoppabledomains.exceptions.ns.NSExceptionParams;
 import com.unstoppabledomains.exceptions.ns.NamingServiceException;
+import com.unstoppabledomains.resolution.cache.NegativeCache;
+import com.unstoppabledomains.resolution.cache.RecordCache;
+import com.unstoppabledomains.resolution.cache.ZnsCache;
 import com.unstoppabledomains.resolution.contracts.HTTPUtil;
 import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
 import com.unstoppabledomains.resolution.dns.DnsRecord;
@@ -30,10 +33,20 @@ import java.math.BigInteger;
 public class ZNS extends BaseNamingService {
     static final String RECORDS_KEY = "records";
     private String contractAddress;
+    private final RecordCache recordCache;
+    private final NegativeCache negativeCache;
+    private final ZnsCache znsCache;
 
     public ZNS(NSConfig nsConfig, IProvider provider) {
+        this(nsConfig, provider, new ResolutionOptions());
+    }
+
+    public ZNS(NSConfig nsConfig, IProvider provider, ResolutionOptions options) {
         super(nsConfig, provider);
         contractAddress = nsConfig.getContractAddress();
+        recordCache = options.getRecordCache();
+        negativeCache = options.getNegativeCache();
+        znsCache = options.getZnsCache();
     }
 
     @Override
@@ -66,9 +79,15 @@ public class ZNS extends BaseNamingService {
 
     @Override
     public String getOwner(String domain) throws NamingServiceException {
+        if (negativeCache != null) {
+            NamingServiceException known = negativeCache.get(getNamehash(domain), null, getType().name());
+            if (known != null && known.getCode() == NSExceptionCode.UnregisteredDomain) {
+                throw known;
+            }
+        }
         String[] addresses = getRecordAddresses(domain);
         if (addresses == null || Utilities.isEmptyResponse(addresses[0])) {
-            throw new NamingServiceException(NSExceptionCode.UnregisteredDomain, new NSExceptionParams("d", domain));
+            throw miss(domain, null, NSExceptionCode.UnregisteredDomain, new NSExceptionParams("d", domain));
         }
         return addresses[0];
     }
@@ -76,16 +95,33 @@ public class ZNS extends BaseNamingService {
     @Override
     public Map<String, String> batchOwners(List<String> domains) throws NamingServiceException {
         Map<String, String> owners = new HashMap<>();
+        if (domains.isEmpty()) {
+            return owners;
+        }
+        List<String> namehashes = new ArrayList<>(domains.size());
+        List<JsonObject> bodies = new ArrayList<>(domains.size());
         for (String domain : domains) {
-            String owner = null;
-            try {
-                owner = getOwner(domain);
-            } catch (NamingServiceException e) {
-                if (e.getCode() != NSExceptionCode.UnregisteredDomain) {
-                    throw e;
-                }
+            String namehash = getNamehash(domain);
+            namehashes.add(namehash);
+            bodies.add(prepareSubStateBody(contractAddress, RECORDS_KEY, new String[]{ namehash }, bodies.size() + 1));
+        }
+        List<JsonObject> responses;
+        try {
+            responses = provider.requestBatch(blockchainProviderUrl, bodies);
+        } catch (IOException error) {
+            throw new NamingServiceException(NSExceptionCode.BlockchainIsDown, new NSExceptionParams("n", getType().toString()), error);
+        }
+        for (int i = 0; i < domains.size(); i++) {
+            JsonObject response = responses.get(i);
+            if (response.get("result") == null) {
+                throw new NamingServiceException(NSExceptionCode.BlockchainIsDown, new NSExceptionParams("n", getType().toString()));
             }
-            owners.put(domain, owner);
+            String[] addresses = parseRecordAddresses(response.get("result"), namehashes.get(i));
+            boolean registered = addresses != null && !Utilities.isEmptyResponse(addresses[0]);
+            if (znsCache != null && registered) {
+                znsCache.putAddresses(namehashes.get(i), addresses);
+            }
+            owners.put(domains.get(i), registered ? addresses[0] : null);
         }
         return owners;
     }
@@ -99,6 +135,7 @@ public class ZNS extends BaseNamingService {
 
     @Override
     public String getRecord(String domain, String key) throws NamingServiceException {
+        throwIfKnownMiss(domain, key);
         try {
             JsonObject records = getAllRecordsAsJson(domain);
             if (key.equals("dweb.ipfs.hash") || key.equals("ipfs.html.value")) {
@@ -106,7 +143,7 @@ public class ZNS extends BaseNamingService {
             }
             return records.get(key).getAsString();
         } catch(NullPointerException exception) {
-            throw new NamingServiceException(NSExceptionCode.RecordNotFound, new NSExceptionParams("d|r", domain, key));
+            throw miss(domain, key, NSExceptionCode.RecordNotFound, new NSExceptionParams("d|r", domain, key));
         }
     }
 
@@ -167,33 +204,93 @@ public class ZNS extends BaseNamingService {
     }
 
     private JsonObject getAllRecordsAsJson(String domain) throws NamingServiceException {
+        if (recordCache != null) {
+            Map<String, String> cached = recordCache.getAll(getNamehash(domain), getType().name());
+            if (cached != null) {
+                JsonObject records = new JsonObject();
+                cached.forEach(records::addProperty);
+                return records;
+            }
+        }
         try {
             String resolverAddress = getResolverAddress(domain);
-            String[] keys = {};
-            JsonObject response = fetchSubState(resolverAddress, RECORDS_KEY, keys);
-            return response.getAsJsonObject(RECORDS_KEY);
+            JsonObject records = znsCache != null ? znsCache.getRecords(resolverAddress) : null;
+            if (records == null) {
+                String[] keys = {};
+                JsonObject response = fetchSubState(resolverAddress, RECORDS_KEY, keys);
+                records = response.getAsJsonObject(RECORDS_KEY);
+                if (znsCache != null && records != null) {
+                    znsCache.putRecords(resolverAddress, records);
+                }
+            }
+            if (recordCache != null && records != null) {
+                Map<String, String> all = new HashMap<>();
+                for (Entry<String, JsonElement> record : records.entrySet()) {
+                    if (record.getValue().isJsonPrimitive()) {
+                        all.put(record.getKey(), record.getValue().getAsString());
+                    }
+                }
+                recordCache.putAll(getNamehash(domain), getType().name(), all);
+            }
+            return records;
         } catch (IOException error) {
             throw new NamingServiceException(NSExceptionCode.RecordNotFound);
         }
     }
 
     private String getResolverAddress(String domain) throws NamingServiceException {
+        throwIfKnownMiss(domain, null);
         String[] addresses = getRecordAddresses(domain);
         if (addresses == null || Utilities.isEmptyResponse(addresses[0])) {
-            throw new NamingServiceException(NSExceptionCode.UnregisteredDomain, new NSExceptionParams("d", domain));
+            throw miss(domain, null, NSExceptionCode.UnregisteredDomain, new NSExceptionParams("d", domain));
         }
         if (Utilities.isEmptyResponse(addresses[1])) {
-            throw new NamingServiceException(NSExceptionCode.UnspecifiedResolver, new NSExceptionParams("d", domain));
+            throw miss(domain, null, NSExceptionCode.UnspecifiedResolver, new NSExceptionParams("d", domain));
         }
         return addresses[1];
     }
 
+    private void throwIfKnownMiss(String domain, String key) throws NamingServiceException {
+        if (negativeCache != null) {
+            NamingServiceException known = negativeCache.get(getNamehash(domain), key, getType().name());
+            if (known != null) {
+                throw known;
+            }
+        }
+    }
+
+    private NamingServiceException miss(String domain, String key, NSExceptionCode code, NSExceptionParams params) {
+        if (negativeCache != null) {
+            return negativeCache.remember(getNamehash(domain), key, getType().name(), code, params);
+        }
+        return new NamingServiceException(code, params);
+    }
+
     private String[] getRecordAddresses(String domain) throws NamingServiceException {
         String namehash = getNamehash(domain);
+        if (znsCache != null) {
+            String[] cached = znsCache.getAddresses(namehash);
+            if (cached != null) {
+                return cached;
+            }
+        }
         String[] keys = { namehash };
         try {
-          JsonObject substate = fetchSubState(contractAddress, RECORDS_KEY, keys);
-          JsonObject records = substate.getAsJsonObject(RECORDS_KEY);
+          JsonObject body = prepareSubStateBody(contractAddress, RECORDS_KEY, keys, 1);
+          JsonObject response = provider.request(blockchainProviderUrl, body);
+          String[] addresses = parseRecordAddresses(response.get("result"), namehash);
+          if (znsCache != null && addresses != null && !Utilities.isEmptyResponse(addresses[0])) {
+              znsCache.putAddresses(namehash, addresses);
+          }
+          return addresses;
+        } catch (IOException error) {
+            throw new NamingServiceException(NSExceptionCode.BlockchainIsDown, new NSExceptionParams("n", getType().toString()), error);
+        }
+    }
+
+    private String[] parseRecordAddresses(JsonElement result, String namehash) {
+        try {
+          JsonObject records = result.getAsJsonObject().getAsJsonObject(RECORDS_KEY);
           JsonObject domainSpecific = records.getAsJsonObject(namehash);
           JsonArray arguments = domainSpecific.getAsJsonArray("arguments");
           List<String> list = new ArrayList<>();
@@ -201,14 +298,19 @@ public class ZNS extends BaseNamingService {
             list.add(argument.getAsString());
           }
           return list.toArray(new String[list.size()]);
-        } catch (IOException error) {
-            throw new NamingServiceException(NSExceptionCode.BlockchainIsDown, new NSExceptionParams("n", getType().toString()), error);
         } catch (IllegalStateException exception) {
             return null;
         }
     }
 
     private JsonObject fetchSubState(String address, String field, String[] keys) throws IOException {
+        JsonObject body = prepareSubStateBody(address, field, keys, 1);
+        JsonObject response = provider.request(blockchainProviderUrl, body);
+        JsonElement result = response.get("result");
+        return result.getAsJsonObject();
+    }
+
+    private JsonObject prepareSubStateBody(String address, String field, String[] keys, int id) {
         JsonArray params = new JsonArray();
         params.add(address.replace("0x", ""));
         params.add(field);
@@ -218,10 +320,7 @@ public class ZNS extends BaseNamingService {
         params.add(keysJson);
 
         String method = "GetSmartContractSubState";
-        JsonObject body = HTTPUtil.prepareBody(method, params);
-        JsonObject response = provider.request(blockchainProviderUrl, body);
-        JsonElement result = response.get("result");
-        return result.getAsJsonObject();
+        return HTTPUtil.prepareBody(method, params, id);
     }
 
     @Override
@@ -2,10 +2,15 @@ package com.unstoppabledomains.resolution.naming.service.uns;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.unstoppabledomains.exceptions.ns.NSExceptionCode;
 import com.unstoppabledomains.exceptions.ns.NSExceptionParams;
@@ -33,19 +38,101 @@ public class L2Resolver {
     try {
       return processFutureResult(l2result);
     } catch (NamingServiceException e) {
-      switch (e.getCode()) {
-        case UnregisteredDomain:
-        case ReverseResolutionNotSpecified:
-        case UnsupportedDomain:
-        case NotImplemented:
-          break;
-        default:
-          throw e;
+      if (!isFallbackToL1(e)) {
+        throw e;
       }
     }
     return processFutureResult(l1result);
   }
 
+  /**
+   * Non-blocking version of {@link #resolve(ResolutionMethods)}, both layer functions run on the executor
+   */
+  public <T> CompletableFuture<T> resolveAsync(ResolutionMethods<T> methods, Executor executor) {
+    return resolveAsync(callAsync(methods.getL1Func(), executor), callAsync(methods.getL2Func(), executor));
+  }
+
+  /**
+   * Composes already started layer calls: L2 result is used unless L2 doesn't know the domain, then L1 result is used.
+   * Futures fail with {@link NamingServiceException}, possibly wrapped into {@link CompletionException}
+   */
+  public <T> CompletableFuture<T> resolveAsync(CompletableFuture<T> l1result, CompletableFuture<T> l2result) {
+    return l2result.handle((result, error) -> {
+      if (error == null) {
+        return CompletableFuture.completedFuture(result);
+      }
+      NamingServiceException exception = toNamingServiceException(error);
+      if (isFallbackToL1(exception)) {
+        return l1result;
+      }
+      return L2Resolver.<T>failedFuture(exception);
+    }).thenCompose(future -> future);
+  }
+
+  /**
+   * Non-blocking version of {@link #resolveOnBothLayers(ResolutionMethods)}
+   */
+  public <T> CompletableFuture<List<T>> resolveOnBothLayersAsync(ResolutionMethods<T> methods, Executor executor) {
+    CompletableFuture<T> l1result = callAsync(methods.getL1Func(), executor);
+    CompletableFuture<T> l2result = callAsync(methods.getL2Func(), executor);
+    return l1result.thenCombine(l2result, (l1, l2) -> {
+      List<T> results = new ArrayList<>();
+      results.add(l1);
+      results.add(l2);
+      return results;
+    });
+  }
+
+  /**
+   * Runs a blocking call on the executor, it occupies one of its threads until the call returns
+   * @return future of the result, failed when the executor rejected the call
+   */
+  public static <T> CompletableFuture<T> callAsync(Callable<T> func, Executor executor) {
+    try {
+      return CompletableFuture.supplyAsync(() -> {
+        try {
+          return func.call();
+        } catch (Exception e) {
+          throw new CompletionException(toNamingServiceException(e));
+        }
+      }, executor);
+    } catch (RejectedExecutionException e) {
+      return failedFuture(new NamingServiceException(NSExceptionCode.UnknownError, NSExceptionParams.EMPTY_PARAMS, e));
+    }
+  }
+
+  public static <T> CompletableFuture<T> failedFuture(Throwable error) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(error);
+    return future;
+  }
+
+  /**
+   * Unwraps the failure of a future into {@link NamingServiceException}
+   */
+  public static NamingServiceException toNamingServiceException(Throwable error) {
+    Throwable cause = error;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof NamingServiceException) {
+      return (NamingServiceException) cause;
+    }
+    return new NamingServiceException(NSExceptionCode.UnknownError, NSExceptionParams.EMPTY_PARAMS, cause);
+  }
+
+  static boolean isFallbackToL1(NamingServiceException e) {
+    switch (e.getCode()) {
+      case UnregisteredDomain:
+      case ReverseResolutionNotSpecified:
+      case UnsupportedDomain:
+      case NotImplemented:
+        return true;
+      default:
+        return false;
+    }
+  }
+
   private <T> T processFutureResult(Future<T> result) throws NamingServiceException {
     try {
       return result.get();
@@ -0,0 +1,99 @@
+package com.unstoppabledomains.resolution.naming.service.uns;
+
+import com.unstoppabledomains.exceptions.ns.NSExceptionCode;
+import com.unstoppabledomains.exceptions.ns.NamingServiceException;
+import com.unstoppabledomains.resolution.cache.CacheConfig;
+import com.unstoppabledomains.resolution.cache.CacheStats;
+import com.unstoppabledomains.resolution.cache.PersistentCache;
+import com.unstoppabledomains.resolution.cache.TtlCache;
+
+/**
+ * Remembers which UNS layer a domain lives on, keyed by namehash, so later lookups query that layer only.
+ * Layers are learned from the outcome of lookups on both layers and from {@code getLocations}.
+ * A lookup on the remembered layer that finds the domain unregistered forgets the entry and queries both layers again.
+ * Entries expire, by default after 10 seconds like those of the negative cache, which bounds how long
+ * a domain moved from L1 to L2 keeps being read from L1. With block pinning, domains touched by registry events
+ * are forgotten as soon as the events are seen, so a longer lifetime can be configured
+ */
+public class LayerAffinityCache {
+  private final TtlCache<String, UNSLocation> locations;
+  private final PersistentCache persistent;
+
+  public LayerAffinityCache() {
+    this(CacheConfig.builder().ttl(10_000).build());
+  }
+
+  public LayerAffinityCache(CacheConfig config) {
+    this(config, null);
+  }
+
+  /**
+   * @param config size and lifetime of the in-memory tier
+   * @param persistent on-disk tier consulted on memory misses and written through, may be {@code null}
+   */
+  public LayerAffinityCache(CacheConfig config, PersistentCache persistent) {
+    this.locations = new TtlCache<>(config);
+    this.persistent = persistent;
+  }
+
+  /**
+   * @param namehash domain namehash
+   * @return layer of the domain, {@code null} if it is not known
+   */
+  public UNSLocation get(String namehash) {
+    UNSLocation location = locations.get(namehash);
+    if (location == null && persistent != null) {
+      String stored = persistent.getLocation(namehash);
+      try {
+        location = stored == null ? null : UNSLocation.valueOf(stored);
+      } catch (IllegalArgumentException e) {
+        location = null;
+      }
+      if (location != null) {
+        locations.put(namehash, location);
+      }
+    }
+    return location;
+  }
+
+  /**
+   * Layer 2 takes priority like in {@link L2Resolver}: a domain found on both layers is remembered on layer 2
+   * @param namehash domain namehash
+   * @param location layer the domain was found on
+   */
+  public synchronized void learn(String namehash, UNSLocation location) {
+    UNSLocation known = get(namehash);
+    if (known != location && (location == UNSLocation.Layer2 || known != UNSLocation.Layer2)) {
+      locations.put(namehash, location);
+      if (persistent != null) {
+        persistent.putLocation(namehash, location.name());
+      }
+    }
+  }
+
+  public void forget(String namehash) {
+    locations.remove(namehash);
+    if (persistent != null && persistent.getLocation(namehash) != null) {
+      persistent.putLocation(namehash, null);
+    }
+  }
+
+  /**
+   * Drops the in-memory entries
+   */
+  public void clear() {
+    locations.clear();
+  }
+
+  public CacheStats getStats() {
+    return locations.getStats();
+  }
+
+  /**
+   * @param e outcome of a lookup on a single layer
+   * @return whether the outcome shows that the domain exists on that layer
+   */
+  static boolean isFoundOnLayer(NamingServiceException e) {
+    return e.getCode() == NSExceptionCode.RecordNotFound || e.getCode() == NSExceptionCode.UnspecifiedResolver;
+  }
+}
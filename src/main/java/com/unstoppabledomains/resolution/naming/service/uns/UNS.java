@@ -3,6 +3,10 @@ package com.unstoppabledomains.resolution.naming.service.uns;
 import java.math.BigInteger;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import com.unstoppabledomains.exceptions.ns.NSExceptionCode;
 import com.unstoppabledomains.exceptions.ns.NSExceptionParams;
@@ -10,25 +14,43 @@ import com.unstoppabledomains.config.network.model.Location;
 import com.unstoppabledomains.config.network.model.Network;
 import com.unstoppabledomains.exceptions.dns.DnsException;
 import com.unstoppabledomains.exceptions.ns.NamingServiceException;
+import com.unstoppabledomains.resolution.cache.DnsCache;
+import com.unstoppabledomains.resolution.cache.ReverseCache;
 import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
 import com.unstoppabledomains.resolution.dns.DnsRecord;
 import com.unstoppabledomains.resolution.dns.DnsRecordsType;
 import com.unstoppabledomains.resolution.naming.service.NamingService;
 import com.unstoppabledomains.resolution.naming.service.NamingServiceType;
+import com.unstoppabledomains.resolution.naming.service.ResolutionOptions;
+import com.unstoppabledomains.util.Utilities;
 
 public class UNS implements NamingService {
     private L2Resolver resolver;
     private UNSInternal unsl1;
     private UNSInternal unsl2;
+    private final LayerAffinityCache layerAffinity;
+    private final ReverseCache reverseCache;
+    private final DnsCache dnsCache;
 
     public UNS(UNSConfig config, IProvider provider) {
-        this(config, provider, new L2Resolver());
+        this(config, provider, new ResolutionOptions());
+    }
+
+    public UNS(UNSConfig config, IProvider provider, ResolutionOptions options) {
+        this(config, provider, new L2Resolver(), options);
     }
 
     protected UNS(UNSConfig config, IProvider provider, L2Resolver resolver) {
+        this(config, provider, resolver, new ResolutionOptions());
+    }
+
+    protected UNS(UNSConfig config, IProvider provider, L2Resolver resolver, ResolutionOptions options) {
         this.resolver = resolver;
-        unsl1 = new UNSInternal(UNSLocation.Layer1, config.getLayer1(), provider);
-        unsl2 = new UNSInternal(UNSLocation.Layer2, config.getLayer2(), provider);
+        this.layerAffinity = options.getLayerAffinity();
+        this.reverseCache = options.getReverseCache();
+        this.dnsCache = options.getDnsCache();
+        unsl1 = new UNSInternal(UNSLocation.Layer1, config.getLayer1(), provider, options);
+        unsl2 = new UNSInternal(UNSLocation.Layer2, config.getLayer2(), provider, options);
     }
 
     @Override
@@ -85,7 +107,7 @@ public class UNS implements NamingService {
 
     @Override
     public Map<String, String> getAllRecords(String domain) throws NamingServiceException {
-        return resolver.resolve(ResolutionMethods.<Map<String, String>>builder()
+        return resolveDomain(domain, ResolutionMethods.<Map<String, String>>builder()
             .l1Func(() -> {
                 return unsl1.getAllRecords(domain);
             })
@@ -97,69 +119,171 @@ public class UNS implements NamingService {
 
     @Override
     public String getRecord(String domain, String recordKey) throws NamingServiceException {
-        return resolver.resolve(ResolutionMethods.<String>builder()
+        return resolveDomain(domain, recordMethods(domain, recordKey));
+    }
+
+    public CompletableFuture<String> getRecordAsync(String domain, String recordKey, Executor executor) {
+        return resolveDomainAsync(domain, recordMethods(domain, recordKey), executor);
+    }
+
+    private ResolutionMethods<String> recordMethods(String domain, String recordKey) {
+        return ResolutionMethods.<String>builder()
             .l1Func(() -> {
                 return unsl1.getRecord(domain, recordKey);
             })
             .l2Func(() -> {
                 return unsl2.getRecord(domain, recordKey);
-            }).build()
-        );
+            }).build();
     }
 
     @Override
     public Map<String, String> getRecords(String domain, List<String> recordsKeys) throws NamingServiceException {
-        return resolver.resolve(ResolutionMethods.<Map<String, String>>builder()
-        .l1Func(() -> {
-            return unsl1.getRecords(domain, recordsKeys);
-        })
-        .l2Func(() -> {
-            return unsl2.getRecords(domain, recordsKeys);
-        }).build()
-    );
+        return resolveDomain(domain, recordsMethods(domain, recordsKeys));
+    }
+
+    public CompletableFuture<Map<String, String>> getRecordsAsync(String domain, List<String> recordsKeys, Executor executor) {
+        return resolveDomainAsync(domain, recordsMethods(domain, recordsKeys), executor);
+    }
+
+    private ResolutionMethods<Map<String, String>> recordsMethods(String domain, List<String> recordsKeys) {
+        return ResolutionMethods.<Map<String, String>>builder()
+            .l1Func(() -> {
+                return unsl1.getRecords(domain, recordsKeys);
+            })
+            .l2Func(() -> {
+                return unsl2.getRecords(domain, recordsKeys);
+            }).build();
     }
 
     @Override
     public String getOwner(String domain) throws NamingServiceException {
-        return resolver.resolve(ResolutionMethods.<String>builder()
+        try {
+            return ownerSeen(domain, resolveDomain(domain, ownerMethods(domain)));
+        } catch (NamingServiceException e) {
+            if (e.getCode() == NSExceptionCode.UnregisteredDomain) {
+                ownerSeen(domain, null);
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<String> getOwnerAsync(String domain, Executor executor) {
+        return resolveDomainAsync(domain, ownerMethods(domain), executor).thenApply(owner -> {
+            try {
+                return ownerSeen(domain, owner);
+            } catch (NamingServiceException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private ResolutionMethods<String> ownerMethods(String domain) {
+        return ResolutionMethods.<String>builder()
             .l1Func(() -> {
                 return unsl1.getOwner(domain);
             })
             .l2Func(() -> {
                 return unsl2.getOwner(domain);
-            }).build()
-        );
+            }).build();
     }
 
     @Override
     public Map<String, String> batchOwners(List<String> domain) throws NamingServiceException {
-        List<Map<String, String>> results = resolver.resolveOnBothLayers(ResolutionMethods.<Map<String, String>>builder()
+        return ownersSeen(mergeLayers(learnLayers(resolver.resolveOnBothLayers(batchOwnersMethods(domain)))));
+    }
+
+    public CompletableFuture<Map<String, String>> batchOwnersAsync(List<String> domain, Executor executor) {
+        return resolver.resolveOnBothLayersAsync(batchOwnersMethods(domain), executor)
+            .thenApply(results -> ownersSeen(mergeLayers(learnLayers(results))));
+    }
+
+    private ResolutionMethods<Map<String, String>> batchOwnersMethods(List<String> domain) {
+        return ResolutionMethods.<Map<String, String>>builder()
             .l1Func(() -> {
                 return unsl1.batchOwners(domain);
             })
             .l2Func(() -> {
                 return unsl2.batchOwners(domain);
-            }).build());
-        Map<String, String> result = results.get(0);
-        results.get(1).forEach((k, v) -> {
-            if (v != null) {
-                result.merge(k, v, (v1, v2) -> v2);
-            }
-        });
-        return result;
+            }).build();
     }
 
     @Override
     public List<DnsRecord> getDns(String domain, List<DnsRecordsType> types)
             throws NamingServiceException, DnsException {
-        return resolver.resolve(ResolutionMethods.<List<DnsRecord>>builder()
+        if (dnsCache == null) {
+            return resolveDomain(domain, dnsMethods(domain, types));
+        }
+        String namehash = getNamehash(domain);
+        List<DnsRecord> cached = dnsCache.get(namehash, types, () -> prefetchDns(domain, types));
+        if (cached != null) {
+            return cached;
+        }
+        long[] blocks = pinnedBlocks();
+        List<DnsRecord> records = resolveDomain(domain, dnsMethods(domain, types));
+        putDns(namehash, types, records, blocks);
+        return records;
+    }
+
+    public CompletableFuture<List<DnsRecord>> getDnsAsync(String domain, List<DnsRecordsType> types, Executor executor) {
+        if (dnsCache == null) {
+            return resolveDomainAsync(domain, dnsMethods(domain, types), executor);
+        }
+        String namehash;
+        try {
+            namehash = getNamehash(domain);
+        } catch (NamingServiceException e) {
+            return L2Resolver.failedFuture(e);
+        }
+        List<DnsRecord> cached = dnsCache.get(namehash, types, () -> prefetchDns(domain, types));
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long[] blocks = pinnedBlocks();
+        return resolveDomainAsync(domain, dnsMethods(domain, types), executor).thenApply(records -> {
+            putDns(namehash, types, records, blocks);
+            return records;
+        });
+    }
+
+    /**
+     * Loads records for the dns cache to refresh its entries with, {@code null} if the chain moved meanwhile
+     */
+    private List<DnsRecord> prefetchDns(String domain, List<DnsRecordsType> types) throws NamingServiceException, DnsException {
+        long[] blocks = pinnedBlocks();
+        List<DnsRecord> records = resolveDomain(domain, dnsMethods(domain, types));
+        return blocksMoved(blocks) ? null : records;
+    }
+
+    /**
+     * Stores the records, or drops them again if they may have been read before a block
+     * whose events invalidated the domain
+     */
+    private void putDns(String namehash, List<DnsRecordsType> types, List<DnsRecord> records, long[] blocks) {
+        dnsCache.put(namehash, types, records);
+        if (blocksMoved(blocks)) {
+            dnsCache.invalidate(namehash);
+        }
+    }
+
+    /**
+     * @return blocks the layers are pinned to, -1 for layers without pinning
+     */
+    private long[] pinnedBlocks() {
+        return new long[] { unsl1.pinnedBlock(), unsl2.pinnedBlock() };
+    }
+
+    private boolean blocksMoved(long[] blocks) {
+        return unsl1.blockMoved(blocks[0]) || unsl2.blockMoved(blocks[1]);
+    }
+
+    private ResolutionMethods<List<DnsRecord>> dnsMethods(String domain, List<DnsRecordsType> types) {
+        return ResolutionMethods.<List<DnsRecord>>builder()
             .l1Func(() -> {
                 return unsl1.getDns(domain, types);
             })
             .l2Func(() -> {
                 return unsl2.getDns(domain, types);
-            }).build()
-        );
+            }).build();
     }
 
     @Override
@@ -176,28 +300,227 @@ public class UNS implements NamingService {
 
     @Override
     public String getDomainName(BigInteger tokenID) throws NamingServiceException {
-        return resolver.resolve(ResolutionMethods.<String>builder()
+        return resolver.resolve(domainNameMethods(tokenID));
+    }
+
+    public CompletableFuture<String> getDomainNameAsync(BigInteger tokenID, Executor executor) {
+        return resolver.resolveAsync(domainNameMethods(tokenID), executor);
+    }
+
+    private ResolutionMethods<String> domainNameMethods(BigInteger tokenID) {
+        return ResolutionMethods.<String>builder()
             .l1Func(() -> {
                 return unsl1.getDomainName(tokenID);
             })
             .l2Func(() -> {
                 return unsl2.getDomainName(tokenID);
-            }).build()
-        );
+            }).build();
     }
     
     @Override
     public Map<String, Location> getLocations(String... domains) throws NamingServiceException {
-        List<Map<String, Location>> results = resolver.resolveOnBothLayers(ResolutionMethods.<Map<String, Location>>builder()
+        return mergeLayers(learnLayers(resolver.resolveOnBothLayers(locationsMethods(domains))));
+    }
+
+    public CompletableFuture<Map<String, Location>> getLocationsAsync(Executor executor, String... domains) {
+        return resolver.resolveOnBothLayersAsync(locationsMethods(domains), executor)
+            .thenApply(results -> mergeLayers(learnLayers(results)));
+    }
+
+    private ResolutionMethods<Map<String, Location>> locationsMethods(String... domains) {
+        return ResolutionMethods.<Map<String, Location>>builder()
             .l1Func(() -> {
                 return unsl1.getLocations(domains);
             })
             .l2Func(() -> {
                 return unsl2.getLocations(domains);
-            }).build()
-        );
+            }).build();
+    }
+
+    /**
+     * Queries only the layer the domain is known to live on, or both layers when it is not known
+     * or the domain isn't registered on the known layer anymore
+     */
+    private <T> T resolveDomain(String domain, ResolutionMethods<T> methods) throws NamingServiceException {
+        if (layerAffinity == null) {
+            return resolver.resolve(methods);
+        }
+        String namehash = getNamehash(domain);
+        UNSLocation known = layerAffinity.get(namehash);
+        if (known != null) {
+            try {
+                return layerFunc(methods, known).call();
+            } catch (NamingServiceException e) {
+                if (!L2Resolver.isFallbackToL1(e)) {
+                    throw e;
+                }
+                layerAffinity.forget(namehash);
+            } catch (Exception e) {
+                throw L2Resolver.toNamingServiceException(e);
+            }
+        }
+        return resolver.resolve(learning(namehash, methods));
+    }
 
-        Map<String, Location> result = results.get(0);
+    /**
+     * Non-blocking version of {@link #resolveDomain(String, ResolutionMethods)}
+     */
+    private <T> CompletableFuture<T> resolveDomainAsync(String domain, ResolutionMethods<T> methods, Executor executor) {
+        if (layerAffinity == null) {
+            return resolver.resolveAsync(methods, executor);
+        }
+        String namehash;
+        try {
+            namehash = getNamehash(domain);
+        } catch (NamingServiceException e) {
+            return L2Resolver.failedFuture(e);
+        }
+        UNSLocation known = layerAffinity.get(namehash);
+        if (known == null) {
+            return resolver.resolveAsync(learning(namehash, methods), executor);
+        }
+        return L2Resolver.callAsync(layerFunc(methods, known), executor).handle((result, error) -> {
+            if (error == null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            NamingServiceException exception = L2Resolver.toNamingServiceException(error);
+            if (!L2Resolver.isFallbackToL1(exception)) {
+                return L2Resolver.<T>failedFuture(exception);
+            }
+            layerAffinity.forget(namehash);
+            return resolver.resolveAsync(learning(namehash, methods), executor);
+        }).thenCompose(future -> future);
+    }
+
+    private static <T> Callable<T> layerFunc(ResolutionMethods<T> methods, UNSLocation location) {
+        return location == UNSLocation.Layer1 ? methods.getL1Func() : methods.getL2Func();
+    }
+
+    /**
+     * Wraps layer functions so that the layers which know the domain are remembered.
+     * Layer 1 is remembered only when layer 2 answered that the domain isn't registered there,
+     * a layer 2 outage must not pin the domain to layer 1
+     */
+    private <T> ResolutionMethods<T> learning(String namehash, ResolutionMethods<T> methods) {
+        LayerOutcome outcome = new LayerOutcome(namehash);
+        return ResolutionMethods.<T>builder()
+            .l1Func(() -> {
+                try {
+                    T result = methods.getL1Func().call();
+                    outcome.foundOnL1();
+                    return result;
+                } catch (NamingServiceException e) {
+                    if (LayerAffinityCache.isFoundOnLayer(e)) {
+                        outcome.foundOnL1();
+                    }
+                    throw e;
+                }
+            })
+            .l2Func(() -> {
+                try {
+                    T result = methods.getL2Func().call();
+                    layerAffinity.learn(namehash, UNSLocation.Layer2);
+                    outcome.l2Answered(false);
+                    return result;
+                } catch (NamingServiceException e) {
+                    if (LayerAffinityCache.isFoundOnLayer(e)) {
+                        layerAffinity.learn(namehash, UNSLocation.Layer2);
+                    }
+                    outcome.l2Answered(e.getCode() == NSExceptionCode.UnregisteredDomain);
+                    throw e;
+                } catch (Exception e) {
+                    outcome.l2Answered(false);
+                    throw e;
+                }
+            }).build();
+    }
+
+    /**
+     * Joins the outcomes of both layer calls of one resolution, whichever finishes last decides about layer 1
+     */
+    private class LayerOutcome {
+        private final String namehash;
+        private boolean foundOnL1;
+        private boolean unregisteredOnL2;
+
+        LayerOutcome(String namehash) {
+            this.namehash = namehash;
+        }
+
+        synchronized void foundOnL1() {
+            foundOnL1 = true;
+            if (unregisteredOnL2) {
+                layerAffinity.learn(namehash, UNSLocation.Layer1);
+            }
+        }
+
+        synchronized void l2Answered(boolean unregistered) {
+            unregisteredOnL2 = unregistered;
+            if (unregistered && foundOnL1) {
+                layerAffinity.learn(namehash, UNSLocation.Layer1);
+            }
+        }
+    }
+
+    /**
+     * Remembers the layer of every domain with a non-null result.
+     * Layer 1 is remembered only when layer 2 read the domain and had nothing for it
+     */
+    private <T> List<Map<String, T>> learnLayers(List<Map<String, T>> results) {
+        if (layerAffinity == null) {
+            return results;
+        }
+        Map<String, T> l2 = results.get(1);
+        for (Map.Entry<String, T> entry : l2.entrySet()) {
+            if (entry.getValue() != null) {
+                learnLayer(entry.getKey(), UNSLocation.Layer2);
+            }
+        }
+        for (Map.Entry<String, T> entry : results.get(0).entrySet()) {
+            if (entry.getValue() != null && l2.containsKey(entry.getKey()) && l2.get(entry.getKey()) == null) {
+                learnLayer(entry.getKey(), UNSLocation.Layer1);
+            }
+        }
+        return results;
+    }
+
+    private void learnLayer(String domain, UNSLocation location) {
+        try {
+            layerAffinity.learn(getNamehash(domain), location);
+        } catch (NamingServiceException e) {
+            // not a UNS domain, nothing to remember
+        }
+    }
+
+    /**
+     * Drops cached reverse resolutions of a domain that is no longer owned by the address they were read for
+     * @return owner
+     */
+    private String ownerSeen(String domain, String owner) throws NamingServiceException {
+        if (reverseCache != null) {
+            reverseCache.ownerSeen(getNamehash(domain), owner);
+        }
+        return owner;
+    }
+
+    private Map<String, String> ownersSeen(Map<String, String> owners) {
+        if (reverseCache != null) {
+            for (Map.Entry<String, String> entry : owners.entrySet()) {
+                try {
+                    reverseCache.ownerSeen(getNamehash(entry.getKey()), entry.getValue());
+                } catch (NamingServiceException e) {
+                    // not a UNS domain, no reverse resolution to drop
+                }
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * Combines per layer results, non-null L2 values take priority
+     */
+    private static <T> Map<String, T> mergeLayers(List<Map<String, T>> results) {
+        Map<String, T> result = results.get(0);
         results.get(1).forEach((k, v) -> {
             if (v != null) {
                 result.merge(k, v, (v1, v2) -> v2);
@@ -208,28 +531,137 @@ public class UNS implements NamingService {
 
     @Override
     public String getReverseTokenId(String address) throws NamingServiceException {
-        return resolver.resolve(ResolutionMethods.<String>builder() // use opposite l1 and l2 since reverse resolution on l1 takes priority.
+        String cached = cachedTokenId(address, getType().name());
+        if (cached != null) {
+            return cached;
+        }
+        long[] blocks = pinnedBlocks();
+        return rememberTokenId(address, getType().name(), resolver.resolve(reverseTokenIdMethods(address)), blocks);
+    }
+
+    public CompletableFuture<String> getReverseTokenIdAsync(String address, Executor executor) {
+        String cached = cachedTokenId(address, getType().name());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long[] blocks = pinnedBlocks();
+        return resolver.resolveAsync(reverseTokenIdMethods(address), executor)
+            .thenApply(tokenId -> rememberTokenId(address, getType().name(), tokenId, blocks));
+    }
+
+    private ResolutionMethods<String> reverseTokenIdMethods(String address) {
+        return ResolutionMethods.<String>builder() // use opposite l1 and l2 since reverse resolution on l1 takes priority.
             .l1Func(() -> {
                 return unsl2.getReverseTokenId(address);
             })
             .l2Func(() -> {
                 return unsl1.getReverseTokenId(address);
-            }).build()
-        );
+            }).build();
     }
 
     public String getReverseTokenId(String address, UNSLocation location) throws NamingServiceException {
+        String cached = cachedTokenId(address, location.name());
+        if (cached != null) {
+            return cached;
+        }
+        long[] blocks = pinnedBlocks();
         switch (location) {
             case Layer1:
-                return unsl1.getReverseTokenId(address);
+                return rememberTokenId(address, location.name(), unsl1.getReverseTokenId(address), blocks);
             case Layer2:
-                return unsl2.getReverseTokenId(address);
+                return rememberTokenId(address, location.name(), unsl2.getReverseTokenId(address), blocks);
         }
         return null;
     }
 
+    /**
+     * @param address wallet address
+     * @return domain name the reverse record of the address points at, verified against its token ID
+     */
+    public String getReverse(String address) throws NamingServiceException {
+        String cached = cachedName(address, getType().name());
+        if (cached != null) {
+            return cached;
+        }
+        long[] blocks = pinnedBlocks();
+        return reverseName(address, getType().name(), getReverseTokenId(address), blocks);
+    }
+
+    /**
+     * @param address wallet address
+     * @param location layer to read the reverse record from
+     * @return domain name the reverse record of the address points at, verified against its token ID
+     */
+    public String getReverse(String address, UNSLocation location) throws NamingServiceException {
+        String cached = cachedName(address, location.name());
+        if (cached != null) {
+            return cached;
+        }
+        long[] blocks = pinnedBlocks();
+        return reverseName(address, location.name(), getReverseTokenId(address, location), blocks);
+    }
+
+    public CompletableFuture<String> getReverseAsync(String address, Executor executor) {
+        String cached = cachedName(address, getType().name());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long[] blocks = pinnedBlocks();
+        return getReverseTokenIdAsync(address, executor).thenCompose(tokenId -> {
+            return getDomainNameAsync(Utilities.namehashToTokenID(tokenId), executor).thenApply(domainName -> {
+                try {
+                    return verifiedName(address, getType().name(), tokenId, domainName, blocks);
+                } catch (NamingServiceException e) {
+                    throw new CompletionException(e);
+                }
+            });
+        });
+    }
+
+    private String reverseName(String address, String scope, String tokenId, long[] blocks) throws NamingServiceException {
+        String domainName = getDomainName(Utilities.namehashToTokenID(tokenId));
+        return verifiedName(address, scope, tokenId, domainName, blocks);
+    }
+
+    private String verifiedName(String address, String scope, String tokenId, String domainName, long[] blocks) throws NamingServiceException {
+        if (!getNamehash(domainName).equals(tokenId)) {
+            throw new NamingServiceException(NSExceptionCode.UnknownError, new NSExceptionParams("m", "unhash"));
+        }
+        if (reverseCache != null) {
+            reverseCache.putName(address, scope, tokenId, domainName);
+            dropIfBlocksMoved(tokenId, blocks);
+        }
+        return domainName;
+    }
+
+    private String cachedTokenId(String address, String scope) {
+        return reverseCache == null ? null : reverseCache.getTokenId(address, scope);
+    }
+
+    private String cachedName(String address, String scope) {
+        return reverseCache == null ? null : reverseCache.getName(address, scope);
+    }
+
+    private String rememberTokenId(String address, String scope, String tokenId, long[] blocks) {
+        if (reverseCache != null && tokenId != null) {
+            reverseCache.putTokenId(address, scope, tokenId);
+            dropIfBlocksMoved(tokenId, blocks);
+        }
+        return tokenId;
+    }
+
+    /**
+     * Drops the reverse entries stored for the token if they may have been read before a block
+     * whose events invalidated them
+     */
+    private void dropIfBlocksMoved(String tokenId, long[] blocks) {
+        if (blocksMoved(blocks)) {
+            reverseCache.invalidate(tokenId);
+        }
+    }
+
     public String getAddress(String domain, String network, String token) throws NamingServiceException {
-        return resolver.resolve(ResolutionMethods.<String>builder()
+        return resolveDomain(domain, ResolutionMethods.<String>builder()
             .l2Func(() -> {
                 return unsl2.getAddress(domain, network, token);
             })
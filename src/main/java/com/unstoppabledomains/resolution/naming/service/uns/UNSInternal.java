@@ -5,6 +5,7 @@ import java.math.BigInteger;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,6 +14,8 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import com.unstoppabledomains.config.KnownRecords;
+import com.unstoppabledomains.config.network.NetworkConfigLoader;
+import com.unstoppabledomains.config.network.model.Contract;
 import com.unstoppabledomains.config.network.model.Location;
 import com.unstoppabledomains.exceptions.ContractCallException;
 import com.unstoppabledomains.exceptions.dns.DnsException;
@@ -21,27 +24,96 @@ import com.unstoppabledomains.exceptions.ns.NSExceptionParams;
 import com.unstoppabledomains.exceptions.ns.NamingServiceException;
 import com.unstoppabledomains.resolution.Namehash;
 import com.unstoppabledomains.resolution.TokenUriMetadata;
-import com.unstoppabledomains.resolution.contracts.JsonProvider;
+import com.unstoppabledomains.resolution.cache.DnsCache;
+import com.unstoppabledomains.resolution.cache.NegativeCache;
+import com.unstoppabledomains.resolution.cache.RecordCache;
+import com.unstoppabledomains.resolution.cache.ReverseCache;
+import com.unstoppabledomains.resolution.contracts.BlockPinningConfig;
+import com.unstoppabledomains.resolution.contracts.BlockTracker;
+import com.unstoppabledomains.resolution.contracts.MetadataClient;
 import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
 import com.unstoppabledomains.resolution.contracts.uns.ProxyData;
 import com.unstoppabledomains.resolution.contracts.uns.ProxyReader;
+import com.unstoppabledomains.resolution.contracts.uns.Registry;
 import com.unstoppabledomains.resolution.dns.DnsRecord;
 import com.unstoppabledomains.resolution.dns.DnsRecordsType;
 import com.unstoppabledomains.resolution.dns.DnsUtils;
 import com.unstoppabledomains.resolution.naming.service.BaseNamingService;
 import com.unstoppabledomains.resolution.naming.service.NSConfig;
 import com.unstoppabledomains.resolution.naming.service.NamingServiceType;
+import com.unstoppabledomains.resolution.naming.service.ResolutionOptions;
 import com.unstoppabledomains.util.Utilities;
 
 class UNSInternal extends BaseNamingService {
   private final ProxyReader proxyReaderContract;
   private UNSLocation location;
-  
+  private final RecordCache recordCache;
+  private final NegativeCache negativeCache;
+  private final ReverseCache reverseCache;
+  private final DnsCache dnsCache;
+  private final LayerAffinityCache layerAffinity;
+  private final MetadataClient metadataClient;
+  private final BlockTracker blockTracker;
+  private final List<Registry> registries;
+
   UNSInternal(UNSLocation location, NSConfig config, IProvider provider) {
+    this(location, config, provider, new ResolutionOptions());
+  }
+
+  UNSInternal(UNSLocation location, NSConfig config, IProvider provider, ResolutionOptions options) {
     super(config, provider);
     this.location = location;
     String proxyReaderAddress = config.getContractAddress();
-    this.proxyReaderContract = new ProxyReader(config.getBlockchainProviderUrl(), proxyReaderAddress, provider);
+    this.proxyReaderContract = new ProxyReader(config.getBlockchainProviderUrl(), proxyReaderAddress, provider,
+        options.getMulticallBatching());
+    if (options.isKeyHashReads()) {
+      proxyReaderContract.enableKeyHashReads();
+    }
+    this.recordCache = options.getRecordCache();
+    this.negativeCache = options.getNegativeCache();
+    this.reverseCache = options.getReverseCache();
+    this.dnsCache = options.getDnsCache();
+    this.layerAffinity = options.getLayerAffinity();
+    this.metadataClient = options.getMetadataClient() != null ? options.getMetadataClient() : MetadataClient.getDefault();
+    BlockPinningConfig pinning = options.getBlockPinning();
+    if (pinning != null) {
+      this.blockTracker = new BlockTracker(config.getBlockchainProviderUrl(), provider, pinning);
+      this.registries = watchedContracts(config, provider);
+      proxyReaderContract.pinToBlock(blockTracker);
+      blockTracker.addListener(this::onNewBlocks);
+    } else {
+      this.blockTracker = null;
+      this.registries = Collections.emptyList();
+    }
+  }
+
+  /**
+   * Registries and CNS resolvers of the network, whose events tell which domains changed
+   */
+  private static List<Registry> watchedContracts(NSConfig config, IProvider provider) {
+    List<Registry> contracts = new ArrayList<>();
+    if (config.getChainId() == null) {
+      return contracts;
+    }
+    for (String name : new String[] { "UNSRegistry", "CNSRegistry", "Resolver" }) {
+      Contract contract;
+      try {
+        contract = NetworkConfigLoader.getContract(config.getChainId(), name);
+      } catch (IllegalArgumentException e) {
+        continue;
+      }
+      List<String> addresses = new ArrayList<>();
+      addresses.add(contract.getAddress());
+      if (contract.getLegacyAddresses() != null) {
+        addresses.addAll(contract.getLegacyAddresses());
+      }
+      for (String address : addresses) {
+        if (address != null && !Utilities.isEmptyResponse(address)) {
+          contracts.add(new Registry(config.getBlockchainProviderUrl(), address, provider));
+        }
+      }
+    }
+    return contracts;
   }
 
   @Override
@@ -81,11 +153,13 @@ class UNSInternal extends BaseNamingService {
     if (recordKey.equals("dweb.ipfs.hash") || recordKey.equals("ipfs.html.value")) {
       return getIpfsHash(domain);
     }
+    String namehash = getNamehash(domain);
+    long block = pinnedBlock();
+    throwIfKnownMiss(namehash, recordKey);
     ProxyData data = resolveKey(recordKey, domain);
-    checkDomainOwnership(data, domain);
     String result = data.getValues().get(0);
     if (Utilities.isEmptyResponse(result)) {
-      throw new NamingServiceException(NSExceptionCode.RecordNotFound, new NSExceptionParams("d|r|l", domain, recordKey, location.getName()));
+      throw miss(namehash, recordKey, block, NSExceptionCode.RecordNotFound, new NSExceptionParams("d|r|l", domain, recordKey, location.getName()));
     }
     return result;
   }
@@ -103,12 +177,24 @@ class UNSInternal extends BaseNamingService {
   @Override
   public  String getOwner(String domain) throws NamingServiceException {
     try {
-      BigInteger tokenID = getTokenID(domain);
-      String owner = owner(tokenID);
-      if (Utilities.isEmptyResponse(owner)) {
+      String namehash = getNamehash(domain);
+      long block = pinnedBlock();
+      if (negativeCache != null) {
+        NamingServiceException known = negativeCache.get(namehash, null, location.name());
+        if (known != null && known.getCode() == NSExceptionCode.UnregisteredDomain) {
+          throw known;
+        }
+      }
+      String owner = owner(new BigInteger(namehash.substring(2), 16));
+      if (owner == null) {
+        // the call reverted, not an answer worth remembering
         throw new NamingServiceException(NSExceptionCode.UnregisteredDomain,
           new NSExceptionParams("d|n|l", domain, "UNS", location.getName()));
       }
+      if (Utilities.isEmptyResponse(owner)) {
+        throw miss(namehash, null, block, NSExceptionCode.UnregisteredDomain,
+          new NSExceptionParams("d|n|l", domain, "UNS", location.getName()));
+      }
       return owner;
     } catch (Exception e) {
       throw configureNamingServiceException(e,
@@ -217,13 +303,12 @@ class UNSInternal extends BaseNamingService {
   public String getAddress(String domain, String network, String token) throws NamingServiceException {
     BigInteger tokenID = getTokenID(domain);
 
-    String owner = owner(tokenID);
-    if (Utilities.isEmptyResponse(owner)) {
+    String[] ownerAndAddress = proxyReaderContract.getOwnerAndAddress(tokenID, network, token);
+    if (Utilities.isEmptyResponse(ownerAndAddress[0])) {
       throw new NamingServiceException(NSExceptionCode.UnregisteredDomain,
         new NSExceptionParams("d|n|l", domain, "UNS", location.getName()));
     }
-    String address = proxyReaderContract.getAddress(tokenID, network, token);
-    return address;
+    return ownerAndAddress[1];
   }
 
   protected  ProxyData resolveKey(String key, String domain) throws NamingServiceException {
@@ -231,19 +316,38 @@ class UNSInternal extends BaseNamingService {
   }
 
   protected ProxyData resolveKeys(String[] keys, String domain) throws NamingServiceException {
-    BigInteger tokenID = getTokenID(domain);
+    String namehash = getNamehash(domain);
+    long block = pinnedBlock();
+    throwIfKnownMiss(namehash, null);
+    if (recordCache != null) {
+      ProxyData cached = recordCache.get(namehash, location.name(), keys);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    BigInteger tokenID = new BigInteger(namehash.substring(2), 16);
     ProxyData data =  proxyReaderContract.getProxyData(keys, tokenID);
-    checkDomainOwnership(data, domain);
+    checkDomainOwnership(data, domain, namehash, block);
+    if (recordCache != null) {
+      recordCache.put(namehash, location.name(), keys, data);
+      if (blockMoved(block)) {
+        // the data may predate events the tracker has already handled
+        recordCache.invalidate(namehash);
+      }
+    }
     return data;
   }
 
   private  String getIpfsHash(String domain) throws NamingServiceException {
     String[] keys = {"dweb.ipfs.hash", "ipfs.html.value"};
+    String namehash = getNamehash(domain);
+    long block = pinnedBlock();
+    throwIfKnownMiss(namehash, keys[0]);
     ProxyData data = resolveKeys(keys, domain);
 
     List<String> values = data.getValues();
     if (values.get(0).isEmpty() && values.get(1).isEmpty()) {
-      throw new NamingServiceException(NSExceptionCode.RecordNotFound,
+      throw miss(namehash, keys[0], block, NSExceptionCode.RecordNotFound,
               new NSExceptionParams("d|r|l", domain, keys[0], location.getName()));
     }
     return values.get(0).isEmpty() ? values.get(1) : values.get(0);
@@ -261,27 +365,111 @@ class UNSInternal extends BaseNamingService {
 
   private TokenUriMetadata getTokenUriMetadata(BigInteger tokenID) throws NamingServiceException {
     try {
-      String tokenURI = this.getTokenUri(tokenID);
-      JsonProvider provider = new JsonProvider();
-      TokenUriMetadata metadata = provider.request(tokenURI, TokenUriMetadata.class);
-      return metadata;
+      return metadataClient.getTokenMetadata(location.name(), tokenID, this::getTokenUri);
     } catch (Exception e) {
       throw configureNamingServiceException(e,
           new NSExceptionParams("m|n|l", "getTokenUriMetadata", "UNS", location.getName()));
     }
   }
 
-  private void checkDomainOwnership(ProxyData data, String domain) throws NamingServiceException {
+  private void checkDomainOwnership(ProxyData data, String domain, String namehash, long block) throws NamingServiceException {
     if (data.getResolver().isEmpty()) {
       if (data.getOwner().isEmpty()) {
-        throw new NamingServiceException(NSExceptionCode.UnregisteredDomain, 
+        throw miss(namehash, null, block, NSExceptionCode.UnregisteredDomain, 
           new NSExceptionParams("d|l", domain, location.getName()));
       }
-      throw new NamingServiceException(NSExceptionCode.UnspecifiedResolver,
+      throw miss(namehash, null, block, NSExceptionCode.UnspecifiedResolver,
       new NSExceptionParams("d|l", domain, location.getName()));
     }
   }
 
+  private void throwIfKnownMiss(String namehash, String recordKey) throws NamingServiceException {
+    if (negativeCache != null) {
+      NamingServiceException known = negativeCache.get(namehash, recordKey, location.name());
+      if (known != null) {
+        throw known;
+      }
+    }
+  }
+
+  private NamingServiceException miss(String namehash, String recordKey, long block, NSExceptionCode code, NSExceptionParams params) {
+    if (negativeCache == null) {
+      return new NamingServiceException(code, params);
+    }
+    NamingServiceException e = negativeCache.remember(namehash, recordKey, location.name(), code, params);
+    if (blockMoved(block)) {
+      negativeCache.invalidate(namehash);
+    }
+    return e;
+  }
+
+  /**
+   * @return block the calls are pinned to, -1 when pinning is disabled
+   */
+  long pinnedBlock() {
+    return blockTracker == null ? -1 : blockTracker.currentBlock();
+  }
+
+  boolean blockMoved(long block) {
+    return blockTracker != null && blockTracker.getBlock() != block;
+  }
+
+  /**
+   * Drops cached data of the domains that registry events in the new blocks touched,
+   * or of the whole layer if the events can't be scanned
+   */
+  private void onNewBlocks(long fromBlock, long toBlock) {
+    if (recordCache == null && negativeCache == null && reverseCache == null && dnsCache == null && layerAffinity == null) {
+      return;
+    }
+    try {
+      if (registries.isEmpty() || toBlock - fromBlock >= blockTracker.getConfig().getMaxScanRange()) {
+        invalidateLayer();
+        return;
+      }
+      for (Registry registry : registries) {
+        for (String namehash : registry.fetchChangedDomains(fromBlock, toBlock)) {
+          if (recordCache != null) {
+            recordCache.invalidate(namehash);
+          }
+          if (negativeCache != null) {
+            negativeCache.invalidate(namehash);
+          }
+          if (reverseCache != null) {
+            reverseCache.invalidate(namehash);
+          }
+          if (dnsCache != null) {
+            dnsCache.invalidate(namehash);
+          }
+          if (layerAffinity != null) {
+            // a transfer or burn may have moved the domain to the other layer
+            layerAffinity.forget(namehash);
+          }
+        }
+      }
+    } catch (NamingServiceException | RuntimeException e) {
+      invalidateLayer();
+    }
+  }
+
+  private void invalidateLayer() {
+    if (recordCache != null) {
+      recordCache.invalidateLayer(location.name());
+    }
+    if (negativeCache != null) {
+      negativeCache.invalidateLayer(location.name());
+    }
+    if (reverseCache != null) {
+      reverseCache.clear();
+    }
+    if (dnsCache != null) {
+      dnsCache.clear();
+    }
+    if (layerAffinity != null) {
+      layerAffinity.clear();
+    }
+  }
+
   private NamingServiceException configureNamingServiceException(Exception e, NSExceptionParams params) {
     if (e instanceof NamingServiceException) {
       return (NamingServiceException) e;
@@ -294,8 +482,8 @@ class UNSInternal extends BaseNamingService {
     return new NamingServiceException(NSExceptionCode.UnknownError, params, e);
   }
 
-  private String owner(BigInteger tokenID) {
-    return proxyReaderContract.getOwner(tokenID);
+  private String owner(BigInteger tokenID) throws NamingServiceException {
+    return proxyReaderContract.fetchOwner(tokenID);
   }
 
   private BigInteger getTokenID(String domain) throws NamingServiceException {
@@ -0,0 +1,41 @@
+package com.unstoppabledomains.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared executor for asynchronous calls when the caller doesn't provide its own.
+ * Uses daemon threads so it never keeps the JVM alive. The pool is bounded: when all its threads are busy calls
+ * wait in a bounded queue, and once that is full they are rejected with {@link RejectedExecutionException},
+ * so a call is never run on the thread that submitted it
+ */
+public class DefaultExecutor {
+  /** Largest amount of threads, calls are blocking network requests so there are more than cores */
+  public static final int MAX_THREADS = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+  /** Largest amount of calls waiting for a thread */
+  public static final int QUEUE_CAPACITY = 10_000;
+  private static final long KEEP_ALIVE_SECONDS = 60;
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+  private static final ExecutorService INSTANCE = create(MAX_THREADS, QUEUE_CAPACITY);
+
+  private DefaultExecutor() {}
+
+  public static ExecutorService getInstance() {
+    return INSTANCE;
+  }
+
+  static ExecutorService create(int maxThreads, int queueCapacity) {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+          Thread thread = new Thread(runnable, "resolution-async-" + THREAD_COUNTER.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+}
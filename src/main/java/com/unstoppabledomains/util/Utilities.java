@@ -6,10 +6,10 @@ import java.util.Iterator;
 import java.util.Set;
 import java.util.function.BiConsumer;
 
+import com.unstoppabledomains.resolution.artifacts.Hash;
+import com.unstoppabledomains.resolution.artifacts.HexCodec;
 import com.unstoppabledomains.resolution.artifacts.Numeric;
 
-import org.bouncycastle.crypto.digests.SHA256Digest;
-
 public class Utilities {
   private Utilities() {}
 
@@ -26,16 +26,9 @@ public class Utilities {
   }
 
   public static String sha256(String key, boolean hexEncoding) {
-    SHA256Digest digester = new SHA256Digest();
-    byte[] retValue = new byte[digester.getDigestSize()];
-    if (hexEncoding) {
-        digester.update(Numeric.hexStringToByteArray(key), 0, Numeric.hexStringToByteArray(key).length);
-    } else {
-        digester.update(key.getBytes(), 0, key.length());
-    }
-    digester.doFinal(retValue, 0);
-    String result = Numeric.toHexString(retValue);
-    return result.replace("0x", "");
+    byte[] input = hexEncoding ? Numeric.hexStringToByteArray(key) : key.getBytes();
+    byte[] retValue = Hash.sha256(input, 0, hexEncoding ? input.length : key.length());
+    return HexCodec.encode(retValue, 0, retValue.length, false);
   }
 
   /**
@@ -44,7 +37,7 @@ public class Utilities {
    * @return namehash from provided token id
    */
   public static String tokenIDToNamehash(BigInteger tokenID) {
-    return String.format("0x%64s", tokenID.toString(16)).replace(' ', '0');
+    return HexCodec.encode(tokenID, 64);
   }
 
   /**
@@ -57,7 +50,7 @@ public class Utilities {
   }
 
   public static String convertEthAddress(BigInteger address) {
-    return normalizeAddress(address.toString(16), 40);
+    return HexCodec.encode(address, 40);
   }
 
   public static String normalizeAddress(String address) {
@@ -65,14 +58,7 @@ public class Utilities {
   }
 
   public static String normalizeAddress(String address, int length) {
-    String hexPrefix = "0x";
-    String cleanAddress = address.startsWith(hexPrefix) ? address.substring(2) : address;
-    if (cleanAddress.length() < length) {
-      int amountOfZeroes = length - cleanAddress.length();
-      String zeros = new String(new char[amountOfZeroes]).replace('\0', '0');
-      return hexPrefix + zeros + cleanAddress;
-    } 
-    return hexPrefix + cleanAddress;
+    return HexCodec.padded(address, length);
   }
 
   public static boolean verifyAddress(String address) {
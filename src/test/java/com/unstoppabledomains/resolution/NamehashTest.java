@@ -0,0 +1,96 @@
+package com.unstoppabledomains.resolution;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.unstoppabledomains.exceptions.ns.NamingServiceException;
+import com.unstoppabledomains.resolution.artifacts.Hash;
+import com.unstoppabledomains.resolution.artifacts.Numeric;
+
+public class NamehashTest {
+  @Test
+  public void hashesDomains() throws Exception {
+    assertEquals("0x0000000000000000000000000000000000000000000000000000000000000000", Namehash.nameHash(""));
+    assertEquals("0x0f4a10a4f46c288cea365fcf45cccf0e9d901b945b9829ccdb54c10dc3cb7a6f", Namehash.nameHash("crypto"));
+    assertEquals("0x756e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9", Namehash.nameHash("brad.crypto"));
+    assertEquals("0x756e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9", Namehash.nameHash("Brad.Crypto"));
+    assertEquals("0x756e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9", Namehash.nameHash("brad.crypto."));
+  }
+
+  @Test
+  public void reusesParentHashes() throws Exception {
+    String subdomain = Namehash.nameHash("pay.brad.crypto");
+    String parent = Namehash.nameHash("brad.crypto");
+    assertEquals(subdomain, Namehash.nameHash("PAY.brad.crypto"));
+    assertEquals(parent, Namehash.nameHash("brad.crypto"));
+    assertEquals(Namehash.nameHash("udtestdev-test.crypto"), Namehash.nameHash("udtestdev-test.crypto"));
+  }
+
+  @Test
+  public void returnsCopiesOfBytes() throws Exception {
+    byte[] hash = Namehash.nameHashAsBytes("brad.crypto");
+    hash[0] = 0;
+    assertArrayEquals(Numeric.hexStringToByteArray("0x756e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9"),
+        Namehash.nameHashAsBytes("brad.crypto"));
+  }
+
+  @Test
+  public void hashesDomainsInBulk() throws Exception {
+    String[] domains = { "bulk-1.brad.crypto", "Brad.Crypto", "", "bulk-2.crypto." };
+    byte[] hashes = Namehash.nameHashes(domains);
+    assertEquals(domains.length * 32, hashes.length);
+    for (int i = 0; i < domains.length; i++) {
+      assertArrayEquals(Namehash.nameHashAsBytes(domains[i]), Arrays.copyOfRange(hashes, i * 32, i * 32 + 32));
+    }
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(hashes.length);
+    Namehash.nameHashes(domains, direct);
+    byte[] written = new byte[hashes.length];
+    direct.flip();
+    direct.get(written);
+    assertArrayEquals(hashes, written);
+  }
+
+  @Test
+  public void matchesRecursiveImplementationOnEdgeInputs() throws Exception {
+    String[] domains = { "", ".", "crypto.", "brad.crypto.", "Brad.Crypto.", "a.b.c.d.crypto", "a..crypto", ".crypto",
+        "crypto..", "brad.crypto..", "..", "a\u3002crypto", "\u0443\u0434.crypto", "x" };
+    for (int pass = 0; pass < 2; pass++) {
+      for (String domain : domains) {
+        String expected;
+        try {
+          expected = recursiveNameHash(domain);
+        } catch (NamingServiceException e) {
+          assertThrows(NamingServiceException.class, () -> Namehash.nameHash(domain), domain);
+          continue;
+        }
+        assertEquals(expected, Namehash.nameHash(domain), domain);
+        assertEquals(expected, Numeric.toHexString(Namehash.nameHashes(new String[] { domain })), domain);
+      }
+    }
+  }
+
+  /**
+   * Namehash as computed before parent hashes were cached
+   */
+  private static String recursiveNameHash(String domain) throws NamingServiceException {
+    return Numeric.toHexString(recursiveNameHash(Namehash.normalise(domain).split("\\.")));
+  }
+
+  private static byte[] recursiveNameHash(String[] labels) {
+    if (labels.length == 0 || labels[0].equals("")) {
+      return new byte[32];
+    }
+    byte[] result = Arrays.copyOf(recursiveNameHash(Arrays.copyOfRange(labels, 1, labels.length)), 64);
+    byte[] labelHash = Hash.sha3(labels[0].getBytes(StandardCharsets.UTF_8));
+    System.arraycopy(labelHash, 0, result, 32, labelHash.length);
+    return Hash.sha3(result);
+  }
+}
@@ -2,6 +2,7 @@ package com.unstoppabledomains.resolution;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 
 import java.util.Map;
@@ -61,7 +62,7 @@ public class ResolutionBuilderTest {
             .znsContractAddress(expectedZNSConfig.getContractAddress())
             .build();
 
-        verify(mockConnector).buildResolution(servicesCaptor.capture());
+        verify(mockConnector).buildResolution(servicesCaptor.capture(), any());
 
         Map<NamingServiceType, NamingService> capturedServices = servicesCaptor.getValue();
         UNS unsService = (UNS) capturedServices.get(NamingServiceType.UNS);
@@ -82,7 +83,7 @@ public class ResolutionBuilderTest {
             .znsContractAddress(expectedZNSConfig.getContractAddress())
             .build();
 
-        verify(mockConnector).buildResolution(servicesCaptor.capture());
+        verify(mockConnector).buildResolution(servicesCaptor.capture(), any());
 
         Map<NamingServiceType, NamingService> capturedServices = servicesCaptor.getValue();
         UNS unsService = (UNS) capturedServices.get(NamingServiceType.UNS);
@@ -130,7 +131,7 @@ public class ResolutionBuilderTest {
             .unsProviderUrl(UNSLocation.Layer2, expectedUNSL2Config.getBlockchainProviderUrl())
             .build();
 
-        verify(mockConnector).buildResolution(servicesCaptor.capture());
+        verify(mockConnector).buildResolution(servicesCaptor.capture(), any());
 
         Map<NamingServiceType, NamingService> capturedServices = servicesCaptor.getValue();
         UNS unsService = (UNS) capturedServices.get(NamingServiceType.UNS);
@@ -0,0 +1,117 @@
+package com.unstoppabledomains.resolution.artifacts;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.bouncycastle.jcajce.provider.digest.Keccak;
+
+public class HashTest {
+  private static final String[] LABELS = { "brad", "crypto", "", "m\u00fcnchen", "udtestdev-test" };
+
+  @Test
+  public void hashes64BytesWithSpecializedPermutation() {
+    Random random = new Random(42);
+    for (int i = 0; i < 100; i++) {
+      byte[] input = new byte[70];
+      random.nextBytes(input);
+      int offset = random.nextInt(7);
+      byte[] out = new byte[40];
+      KeccakF1600.hash64(input, offset, out, 3);
+      assertArrayEquals(keccak(Arrays.copyOfRange(input, offset, offset + 64)), Arrays.copyOfRange(out, 3, 35));
+    }
+  }
+
+  @Test
+  public void reusesDigestsAcrossCalls() throws Exception {
+    Random random = new Random(7);
+    for (int length : new int[]{ 0, 1, 63, 64, 65, 135, 136, 137, 1000 }) {
+      byte[] input = new byte[length];
+      random.nextBytes(input);
+      assertArrayEquals(keccak(input), Hash.sha3(input));
+      assertArrayEquals(keccak(input), Hash.sha3(input));
+      assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(input), Hash.sha256(input));
+      assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(input), Hash.hash(input, "sha-256"));
+    }
+    assertEquals("0xc5d2460186f7233c927e7db2dcc703c0e500b653ca82273b7bfad8045d85a470", Hash.sha3String(""));
+  }
+
+  @Test
+  public void hashesCorrectlyAfterFailedCalls() {
+    byte[] brad = keccak("brad".getBytes(StandardCharsets.UTF_8));
+    byte[] out = new byte[Hash.HASH_LENGTH];
+
+    assertThrows(RuntimeException.class, () -> Hash.sha3String("abc", 0, 10, new byte[Hash.HASH_LENGTH], 0));
+    Hash.sha3String("brad", 0, 4, out, 0);
+    assertArrayEquals(brad, out);
+
+    assertThrows(RuntimeException.class, () -> Hash.sha3(new byte[10], 0, 10, new byte[8], 0));
+    assertArrayEquals(brad, Hash.sha3("brad".getBytes(StandardCharsets.UTF_8)));
+
+    assertThrows(RuntimeException.class, () -> Hash.sha256(new byte[10], 0, 10, new byte[8], 0));
+    assertArrayEquals(Hash.sha256(new byte[0]), Hash.sha256(new byte[0], 0, 0));
+  }
+
+  @Test
+  public void hashesStringsInBulk() {
+    byte[] expected = new byte[LABELS.length * Hash.HASH_LENGTH];
+    for (int i = 0; i < LABELS.length; i++) {
+      System.arraycopy(keccak(LABELS[i].getBytes(StandardCharsets.UTF_8)), 0, expected, i * Hash.HASH_LENGTH, Hash.HASH_LENGTH);
+    }
+    assertArrayEquals(expected, Hash.sha3Strings(LABELS));
+
+    ByteBuffer heap = ByteBuffer.allocate(expected.length + 1);
+    heap.put((byte) 1);
+    Hash.sha3Strings(LABELS, heap);
+    assertEquals(heap.capacity(), heap.position());
+    assertArrayEquals(expected, Arrays.copyOfRange(heap.array(), 1, heap.capacity()));
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(expected.length);
+    Hash.sha3Strings(LABELS, direct);
+    byte[] written = new byte[expected.length];
+    direct.flip();
+    direct.get(written);
+    assertArrayEquals(expected, written);
+  }
+
+  @Test
+  public void keepsDigestsPerThread() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<CompletableFuture<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        byte[] input = ("input-" + i).getBytes(StandardCharsets.UTF_8);
+        results.add(CompletableFuture.supplyAsync(() -> {
+          for (int j = 0; j < 200; j++) {
+            if (!Arrays.equals(keccak(input), Hash.sha3(input))) {
+              return false;
+            }
+          }
+          return true;
+        }, executor));
+      }
+      for (CompletableFuture<Boolean> result : results) {
+        assertEquals(true, result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static byte[] keccak(byte[] input) {
+    return new Keccak.Digest256().digest(input);
+  }
+}
@@ -0,0 +1,60 @@
+package com.unstoppabledomains.resolution.artifacts;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+public class HexCodecTest {
+  private static final byte[] BYTES = { 0x00, 0x0f, (byte) 0xab, 0x7f, (byte) 0x80, (byte) 0xff };
+
+  @Test
+  public void encodesWithLookupTable() {
+    assertEquals("0x000fab7f80ff", HexCodec.encode(BYTES));
+    assertEquals("ab7f", HexCodec.encode(BYTES, 2, 2, false));
+    assertEquals("0x", HexCodec.encode(new byte[0]));
+    byte[] large = new byte[1000];
+    large[999] = 1;
+    assertEquals(2002, HexCodec.encode(large).length());
+    assertEquals("01", HexCodec.encode(large, 999, 1, false));
+
+    byte[] body = "[\"0x\"]".getBytes(StandardCharsets.US_ASCII);
+    byte[] request = new byte[body.length + 4];
+    System.arraycopy(body, 0, request, 0, 4);
+    int pos = HexCodec.encodeTo(BYTES, 2, 2, request, 4);
+    System.arraycopy(body, 4, request, pos, 2);
+    assertEquals("[\"0xab7f\"]", new String(request, StandardCharsets.US_ASCII));
+  }
+
+  @Test
+  public void decodesWithOrWithoutPrefix() {
+    assertArrayEquals(BYTES, HexCodec.decode("0x000fAB7f80FF"));
+    assertArrayEquals(BYTES, HexCodec.decode("000fab7f80ff"));
+    assertArrayEquals(new byte[]{ 0x0a, (byte) 0xbc }, HexCodec.decode("0xabc"));
+    assertArrayEquals(new byte[0], HexCodec.decode("0x"));
+    assertArrayEquals(new byte[]{ 0x12 }, HexCodec.decode("[\"0x12\"]", 2, 4));
+    assertThrows(IllegalArgumentException.class, () -> HexCodec.decode("0xzz"));
+    assertThrows(IllegalArgumentException.class, () -> HexCodec.decode("0x\u0660\u0661"));
+  }
+
+  @Test
+  public void padsNumbers() {
+    assertEquals("0x00ff", HexCodec.padded("ff", 4));
+    assertEquals("0x00ff", HexCodec.padded("0xff", 4));
+    assertEquals("0xabcdef", HexCodec.padded("abcdef", 4));
+    String address = "0x8aad44321a86b170879d7a244c1e8d360c99dda8";
+    assertEquals(address, HexCodec.padded(address, 40));
+
+    assertEquals("0x" + String.join("", Collections.nCopies(64, "0")), HexCodec.encode(BigInteger.ZERO, 64));
+    assertEquals("0x00ff", HexCodec.encode(BigInteger.valueOf(255), 4));
+    BigInteger tokenID = new BigInteger("fd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9", 16);
+    assertEquals(String.format("0x%64s", tokenID.toString(16)).replace(' ', '0'), HexCodec.encode(tokenID, 64));
+    assertEquals("0x" + BigInteger.ONE.shiftLeft(255).toString(16), HexCodec.encode(BigInteger.ONE.shiftLeft(255), 64));
+    assertThrows(IllegalArgumentException.class, () -> HexCodec.encode(BigInteger.ONE.negate(), 64));
+  }
+}
@@ -0,0 +1,77 @@
+package com.unstoppabledomains.resolution.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.unstoppabledomains.resolution.dns.DnsRecord;
+import com.unstoppabledomains.resolution.dns.DnsRecordsType;
+
+public class DnsCacheTest {
+  private static final String NAMEHASH = "0x756e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9";
+  private static final List<DnsRecordsType> TYPES = Arrays.asList(DnsRecordsType.A, DnsRecordsType.AAAA);
+
+  @Test
+  public void servesAllRequestedTypesIncludingEmptyOnes() {
+    DnsCache cache = new DnsCache(DnsCacheConfig.builder().prefetchRatio(0).build());
+    List<DnsRecord> records = Arrays.asList(
+        new DnsRecord(DnsRecordsType.A, 60, "10.0.0.1"),
+        new DnsRecord(DnsRecordsType.A, 60, "10.0.0.2"));
+    cache.put(NAMEHASH, TYPES, records);
+
+    assertEquals(records, cache.get(NAMEHASH, TYPES, () -> { throw new AssertionError(); }));
+    assertEquals(records, cache.get(NAMEHASH, Collections.singletonList(DnsRecordsType.A), () -> { throw new AssertionError(); }));
+    assertNull(cache.get(NAMEHASH, Arrays.asList(DnsRecordsType.A, DnsRecordsType.CNAME), () -> { throw new AssertionError(); }));
+
+    cache.invalidate(NAMEHASH);
+    assertNull(cache.get(NAMEHASH, TYPES, () -> { throw new AssertionError(); }));
+  }
+
+  @Test
+  public void honorsRecordTtls() throws Exception {
+    DnsCache cache = new DnsCache(DnsCacheConfig.builder().maxTtl(50).prefetchRatio(0).build());
+    List<DnsRecordsType> a = Collections.singletonList(DnsRecordsType.A);
+    cache.put(NAMEHASH, a, Collections.singletonList(new DnsRecord(DnsRecordsType.A, 0, "10.0.0.1")));
+    assertNull(cache.get(NAMEHASH, a, Collections::emptyList));
+
+    cache.put(NAMEHASH, a, Collections.singletonList(new DnsRecord(DnsRecordsType.A, 3600, "10.0.0.1")));
+    assertEquals(1, cache.get(NAMEHASH, a, Collections::emptyList).size());
+    Thread.sleep(100);
+    assertNull(cache.get(NAMEHASH, a, Collections::emptyList));
+  }
+
+  @Test
+  public void prefetchesEntriesCloseToExpiry() {
+    DnsCache cache = new DnsCache(DnsCacheConfig.builder().prefetchRatio(1).build(), Runnable::run);
+    List<DnsRecordsType> a = Collections.singletonList(DnsRecordsType.A);
+    cache.put(NAMEHASH, a, Collections.singletonList(new DnsRecord(DnsRecordsType.A, 60, "10.0.0.1")));
+
+    AtomicInteger loads = new AtomicInteger();
+    List<DnsRecord> served = cache.get(NAMEHASH, a, () -> {
+      loads.incrementAndGet();
+      return Collections.singletonList(new DnsRecord(DnsRecordsType.A, 60, "10.0.0.2"));
+    });
+
+    assertEquals("10.0.0.1", served.get(0).getData());
+    assertEquals(1, loads.get());
+    cache.put(NAMEHASH, a, Collections.emptyList());
+    assertEquals(0, cache.get(NAMEHASH, a, Collections::emptyList).size());
+  }
+
+  @Test
+  public void keepsEntryWhenPrefetchLoadsNothing() {
+    DnsCache cache = new DnsCache(DnsCacheConfig.builder().prefetchRatio(1).build(), Runnable::run);
+    List<DnsRecordsType> a = Collections.singletonList(DnsRecordsType.A);
+    cache.put(NAMEHASH, a, Collections.singletonList(new DnsRecord(DnsRecordsType.A, 60, "10.0.0.1")));
+
+    cache.get(NAMEHASH, a, () -> null);
+
+    assertEquals("10.0.0.1", cache.get(NAMEHASH, a, () -> null).get(0).getData());
+  }
+}
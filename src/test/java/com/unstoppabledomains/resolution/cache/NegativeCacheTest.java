@@ -0,0 +1,54 @@
+package com.unstoppabledomains.resolution.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.unstoppabledomains.exceptions.ns.NSExceptionCode;
+import com.unstoppabledomains.exceptions.ns.NSExceptionParams;
+import com.unstoppabledomains.exceptions.ns.NamingServiceException;
+
+public class NegativeCacheTest {
+  private static final String NAMEHASH = "0x756e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9";
+
+  @Test
+  public void remembersMissesPerRecordAndLayer() {
+    NegativeCache cache = new NegativeCache();
+    NSExceptionParams params = new NSExceptionParams("d|r|l", "brad.crypto", "crypto.LTC.address", "UNSL1");
+    NamingServiceException thrown = cache.remember(NAMEHASH, "crypto.LTC.address", "Layer1", NSExceptionCode.RecordNotFound, params);
+
+    NamingServiceException cached = cache.get(NAMEHASH, "crypto.LTC.address", "Layer1");
+    assertEquals(NSExceptionCode.RecordNotFound, cached.getCode());
+    assertEquals(thrown.getMessage(), cached.getMessage());
+    assertNull(cache.get(NAMEHASH, "crypto.LTC.address", "Layer2"));
+    assertNull(cache.get(NAMEHASH, "crypto.ETH.address", "Layer1"));
+    assertNull(cache.get(NAMEHASH, null, "Layer1"));
+    assertEquals(1, cache.getStats().getHits());
+  }
+
+  @Test
+  public void ignoresOtherErrors() {
+    NegativeCache cache = new NegativeCache();
+    NamingServiceException thrown = cache.remember(NAMEHASH, null, "Layer1", NSExceptionCode.BlockchainIsDown,
+        new NSExceptionParams("n", "UNS"));
+
+    assertEquals(NSExceptionCode.BlockchainIsDown, thrown.getCode());
+    assertNull(cache.get(NAMEHASH, null, "Layer1"));
+  }
+
+  @Test
+  public void expiresAndInvalidates() throws Exception {
+    NegativeCache cache = new NegativeCache(CacheConfig.builder().ttl(50).build());
+    NSExceptionParams params = new NSExceptionParams("d|l", "unregistered.crypto", "UNSL1");
+    cache.remember(NAMEHASH, null, "Layer1", NSExceptionCode.UnregisteredDomain, params);
+    cache.remember(NAMEHASH, null, "Layer2", NSExceptionCode.UnregisteredDomain, params);
+
+    cache.invalidate(NAMEHASH);
+    assertNull(cache.get(NAMEHASH, null, "Layer1"));
+
+    cache.remember(NAMEHASH, null, "Layer1", NSExceptionCode.UnregisteredDomain, params);
+    Thread.sleep(100);
+    assertNull(cache.get(NAMEHASH, null, "Layer1"));
+  }
+}
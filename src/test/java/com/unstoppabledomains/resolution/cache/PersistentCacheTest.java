@@ -0,0 +1,154 @@
+package com.unstoppabledomains.resolution.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.unstoppabledomains.resolution.contracts.uns.ProxyData;
+
+public class PersistentCacheTest {
+  private static final String NAMEHASH = "0x756e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9";
+  private static final String OTHER = "0x0f4a10a4f46c288cea365fcf45cccf0e9d901b945b9829ccdb54c10dc3cb7a6f";
+  private static final String RESOLVER = "0xb66dce2da6afaaa98f2013446dbcb0f4b0ab2842";
+  private static final String OWNER = "0x8aad44321a86b170879d7a244c1e8d360c99dda8";
+
+  @TempDir
+  Path dir;
+
+  @Test
+  public void survivesRestart() throws Exception {
+    Path file = dir.resolve("cache.bin");
+    try (PersistentCache cache = new PersistentCache(file)) {
+      cache.put(NAMEHASH, "Layer1", new String[] { "crypto.ETH.address" }, new ProxyData(RESOLVER, OWNER, Arrays.asList("0x1")));
+      cache.put(NAMEHASH, "Layer1", new String[] { "crypto.BTC.address" }, new ProxyData(RESOLVER, OWNER, Arrays.asList("bc1")));
+      cache.putAll(OTHER, "ZNS", Collections.singletonMap("crypto.ZIL.address", "zil1"));
+      cache.putLocation(NAMEHASH, "Layer2");
+    }
+
+    try (PersistentCache cache = new PersistentCache(file)) {
+      ProxyData data = cache.get(NAMEHASH, "Layer1", new String[] { "crypto.BTC.address", "crypto.ETH.address" });
+      assertEquals(OWNER, data.getOwner());
+      assertEquals(Arrays.asList("bc1", "0x1"), data.getValues());
+      assertNull(cache.get(NAMEHASH, "Layer2", new String[] { "crypto.ETH.address" }));
+      assertEquals("zil1", cache.getAll(OTHER, "ZNS").get("crypto.ZIL.address"));
+      assertEquals("Layer2", cache.getLocation(NAMEHASH));
+    }
+  }
+
+  @Test
+  public void expiresByWriteTime() throws Exception {
+    try (PersistentCache cache = new PersistentCache(dir.resolve("cache.bin"), PersistentCacheConfig.builder().ttl(50).build())) {
+      cache.putLocation(NAMEHASH, "Layer1");
+      assertEquals("Layer1", cache.getLocation(NAMEHASH));
+      Thread.sleep(100);
+      assertNull(cache.getLocation(NAMEHASH));
+    }
+  }
+
+  @Test
+  public void invalidatesDomainsAndLayers() throws Exception {
+    try (PersistentCache cache = new PersistentCache(dir.resolve("cache.bin"))) {
+      String[] keys = { "crypto.ETH.address" };
+      cache.put(NAMEHASH, "Layer1", keys, new ProxyData(RESOLVER, OWNER, Arrays.asList("0x1")));
+      cache.put(OTHER, "Layer1", keys, new ProxyData(RESOLVER, OWNER, Arrays.asList("0x2")));
+      cache.put(OTHER, "Layer2", keys, new ProxyData(RESOLVER, OWNER, Arrays.asList("0x3")));
+      cache.putLocation(NAMEHASH, "Layer1");
+
+      cache.invalidate(NAMEHASH);
+      assertNull(cache.get(NAMEHASH, "Layer1", keys));
+      assertEquals("Layer1", cache.getLocation(NAMEHASH));
+
+      cache.invalidateLayer("Layer1");
+      assertNull(cache.get(OTHER, "Layer1", keys));
+      assertEquals(Arrays.asList("0x3"), cache.get(OTHER, "Layer2", keys).getValues());
+    }
+  }
+
+  @Test
+  public void skipsTombstonesForUncachedDomains() throws Exception {
+    Path file = dir.resolve("cache.bin");
+    try (PersistentCache cache = new PersistentCache(file)) {
+      String[] keys = { "crypto.ETH.address" };
+      cache.put(NAMEHASH, "Layer1", keys, new ProxyData(RESOLVER, OWNER, Arrays.asList("0x1")));
+      cache.putLocation(OTHER, "Layer2");
+      long end = fileEnd(file);
+
+      cache.invalidate(OTHER);
+      cache.invalidateLayer("Layer2");
+      assertEquals(end, fileEnd(file));
+
+      cache.invalidate(NAMEHASH);
+      assertTrue(fileEnd(file) > end);
+      end = fileEnd(file);
+      cache.invalidateLayer("Layer1");
+      assertEquals(end, fileEnd(file));
+      assertEquals("Layer2", cache.getLocation(OTHER));
+    }
+  }
+
+  @Test
+  public void mergedValuesKeepTheirWriteTime() throws Exception {
+    try (PersistentCache cache = new PersistentCache(dir.resolve("cache.bin"), PersistentCacheConfig.builder().ttl(300).build())) {
+      cache.put(NAMEHASH, "Layer1", new String[] { "crypto.ETH.address" }, new ProxyData(RESOLVER, OWNER, Arrays.asList("0x1")));
+      Thread.sleep(200);
+      cache.put(NAMEHASH, "Layer1", new String[] { "crypto.BTC.address" }, new ProxyData(RESOLVER, OWNER, Arrays.asList("bc1")));
+      assertEquals(Arrays.asList("0x1", "bc1"), cache.get(NAMEHASH, "Layer1", new String[] { "crypto.ETH.address", "crypto.BTC.address" }).getValues());
+      Thread.sleep(150);
+      assertNull(cache.get(NAMEHASH, "Layer1", new String[] { "crypto.ETH.address" }));
+
+      // values replacing all stored ones are fresh
+      cache.put(NAMEHASH, "Layer1", new String[] { "crypto.ETH.address" }, new ProxyData(RESOLVER, OWNER, Arrays.asList("0x2")));
+      Thread.sleep(200);
+      cache.put(NAMEHASH, "Layer1", new String[] { "crypto.ETH.address" }, new ProxyData(RESOLVER, OWNER, Arrays.asList("0x3")));
+      Thread.sleep(150);
+      assertEquals(Arrays.asList("0x3"), cache.get(NAMEHASH, "Layer1", new String[] { "crypto.ETH.address" }).getValues());
+    }
+  }
+
+  @Test
+  public void compactsWhenFull() throws Exception {
+    try (PersistentCache cache = new PersistentCache(dir.resolve("cache.bin"), PersistentCacheConfig.builder().capacity(4096).build())) {
+      for (int i = 0; i < 200; i++) {
+        cache.putLocation(NAMEHASH, "Layer" + (i % 2 + 1));
+        cache.putLocation(OTHER, "Layer1");
+      }
+      assertEquals("Layer2", cache.getLocation(NAMEHASH));
+      assertEquals("Layer1", cache.getLocation(OTHER));
+      assertEquals(2, cache.getStats().getSize());
+    }
+  }
+
+  @Test
+  public void backsRecordCache() throws Exception {
+    Path file = dir.resolve("cache.bin");
+    String[] keys = { "crypto.ETH.address" };
+    try (PersistentCache disk = new PersistentCache(file)) {
+      new RecordCache(CacheConfig.defaultConfig(), disk).put(NAMEHASH, "Layer1", keys, new ProxyData(RESOLVER, OWNER, Arrays.asList("0x1")));
+    }
+    try (PersistentCache disk = new PersistentCache(file)) {
+      RecordCache cache = new RecordCache(CacheConfig.defaultConfig(), disk);
+      assertEquals(Arrays.asList("0x1"), cache.get(NAMEHASH, "Layer1", keys).getValues());
+      assertEquals(1, disk.getStats().getHits());
+      cache.get(NAMEHASH, "Layer1", keys);
+      assertEquals(1, disk.getStats().getHits());
+    }
+  }
+
+  private static long fileEnd(Path file) throws Exception {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(16);
+      channel.read(header, 0);
+      return header.getLong(8);
+    }
+  }
+}
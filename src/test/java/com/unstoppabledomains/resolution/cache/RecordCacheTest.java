@@ -0,0 +1,75 @@
+package com.unstoppabledomains.resolution.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.unstoppabledomains.resolution.contracts.uns.ProxyData;
+
+public class RecordCacheTest {
+  private static final String NAMEHASH = "0x756e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9";
+  private static final String RESOLVER = "0xb66dce2da6afaaa98f2013446dbcb0f4b0ab2842";
+  private static final String OWNER = "0x8aad44321a86b170879d7a244c1e8d360c99dda8";
+
+  @Test
+  public void answersWhenAllKeysAreCached() {
+    RecordCache cache = new RecordCache();
+    String[] keys = { "crypto.ETH.address", "crypto.BTC.address" };
+    cache.put(NAMEHASH, "Layer1", keys, new ProxyData(RESOLVER, OWNER, Arrays.asList("0x1", "bc1")));
+
+    ProxyData cached = cache.get(NAMEHASH, "Layer1", new String[] { "crypto.BTC.address" });
+    assertEquals(RESOLVER, cached.getResolver());
+    assertEquals(OWNER, cached.getOwner());
+    assertEquals(Arrays.asList("bc1"), cached.getValues());
+
+    assertNull(cache.get(NAMEHASH, "Layer2", keys));
+    assertNull(cache.get(NAMEHASH, "Layer1", new String[] { "crypto.ETH.address", "crypto.LTC.address" }));
+    assertEquals(1, cache.getKeyStats().get("crypto.ETH.address").getHits());
+    assertEquals(1, cache.getKeyStats().get("crypto.ETH.address").getMisses());
+    assertEquals(1, cache.getKeyStats().get("crypto.LTC.address").getMisses());
+  }
+
+  @Test
+  public void countsUnknownKeysTogether() {
+    RecordCache cache = new RecordCache();
+    cache.get(NAMEHASH, "Layer1", new String[] { "custom.one" });
+    cache.get(NAMEHASH, "Layer1", new String[] { "custom.two" });
+
+    assertEquals(2, cache.getKeyStats().get(RecordCache.OTHER_RECORDS).getMisses());
+    assertNull(cache.getKeyStats().get("custom.one"));
+  }
+
+  @Test
+  public void invalidatesDomainOnAllLayers() {
+    RecordCache cache = new RecordCache();
+    String[] keys = { "crypto.ETH.address" };
+    cache.put(NAMEHASH, "Layer1", keys, new ProxyData(RESOLVER, OWNER, Arrays.asList("0x1")));
+    cache.put(NAMEHASH, "Layer2", keys, new ProxyData(RESOLVER, OWNER, Arrays.asList("0x2")));
+
+    cache.invalidate(NAMEHASH);
+
+    assertNull(cache.get(NAMEHASH, "Layer1", keys));
+    assertNull(cache.get(NAMEHASH, "Layer2", keys));
+  }
+
+  @Test
+  public void invalidatesLayer() {
+    RecordCache cache = new RecordCache(CacheConfig.builder().maxSize(2).build());
+    String[] keys = { "crypto.ETH.address" };
+    cache.put(NAMEHASH, "Layer1", keys, new ProxyData(RESOLVER, OWNER, Arrays.asList("0x1")));
+    cache.put(NAMEHASH, "Layer2", keys, new ProxyData(RESOLVER, OWNER, Arrays.asList("0x2")));
+    cache.putAll(NAMEHASH, "ZNS", Collections.singletonMap("crypto.ZIL.address", "zil1"));
+
+    cache.invalidateLayer("Layer1");
+
+    assertNull(cache.get(NAMEHASH, "Layer1", keys));
+    assertEquals(Arrays.asList("0x2"), cache.get(NAMEHASH, "Layer2", keys).getValues());
+    cache.invalidateLayer("ZNS");
+    assertNull(cache.getAll(NAMEHASH, "ZNS"));
+    assertEquals(Arrays.asList("0x2"), cache.get(NAMEHASH, "Layer2", keys).getValues());
+  }
+}
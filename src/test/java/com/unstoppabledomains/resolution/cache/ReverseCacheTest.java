@@ -0,0 +1,52 @@
+package com.unstoppabledomains.resolution.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ReverseCacheTest {
+  private static final String NAMEHASH = "0x756e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9";
+  private static final String OTHER_NAMEHASH = "0x8aaf9aabd8c9d0d7bcd8e6c4a3a1a49c4c6dcd6d7d8e9f0a1b2c3d4e5f607182";
+  private static final String ADDRESS = "0x8aaD44321A86b170879d7A244c1e8d360c99DdA8";
+
+  @Test
+  public void remembersTokenIdAndNamePerScope() {
+    ReverseCache cache = new ReverseCache();
+    cache.putTokenId(ADDRESS, "UNS", NAMEHASH);
+    assertEquals(NAMEHASH, cache.getTokenId(ADDRESS.toLowerCase(), "UNS"));
+    assertNull(cache.getName(ADDRESS, "UNS"));
+    assertNull(cache.getTokenId(ADDRESS, "Layer1"));
+
+    cache.putName(ADDRESS, "UNS", NAMEHASH, "brad.crypto");
+    cache.putTokenId(ADDRESS, "UNS", NAMEHASH);
+    assertEquals("brad.crypto", cache.getName(ADDRESS, "UNS"));
+
+    cache.putTokenId(ADDRESS, "UNS", OTHER_NAMEHASH);
+    assertNull(cache.getName(ADDRESS, "UNS"));
+  }
+
+  @Test
+  public void dropsEntriesWhenAnotherOwnerIsSeen() {
+    ReverseCache cache = new ReverseCache();
+    cache.putName(ADDRESS, "UNS", NAMEHASH, "brad.crypto");
+    cache.putName(ADDRESS, "Layer1", NAMEHASH, "brad.crypto");
+
+    cache.ownerSeen(NAMEHASH, ADDRESS.toUpperCase().replace("0X", "0x"));
+    cache.ownerSeen(OTHER_NAMEHASH, null);
+    assertEquals("brad.crypto", cache.getName(ADDRESS, "UNS"));
+
+    cache.ownerSeen(NAMEHASH, "0x000000000000000000000000000000000000dEaD");
+    assertNull(cache.getName(ADDRESS, "UNS"));
+    assertNull(cache.getTokenId(ADDRESS, "Layer1"));
+  }
+
+  @Test
+  public void dropsEntriesOfUnregisteredDomains() {
+    ReverseCache cache = new ReverseCache();
+    cache.putTokenId(ADDRESS, "Layer2", NAMEHASH);
+
+    cache.ownerSeen(NAMEHASH, null);
+    assertNull(cache.getTokenId(ADDRESS, "Layer2"));
+  }
+}
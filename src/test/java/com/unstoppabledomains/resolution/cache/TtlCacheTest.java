@@ -0,0 +1,57 @@
+package com.unstoppabledomains.resolution.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TtlCacheTest {
+  @Test
+  public void evictsLeastRecentlyUsed() {
+    TtlCache<String, String> cache = new TtlCache<>(2, 60_000);
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.get("a");
+    cache.put("c", "3");
+
+    assertEquals("1", cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals("3", cache.get("c"));
+    assertEquals(1, cache.getStats().getEvictions());
+  }
+
+  @Test
+  public void expiresEntries() throws Exception {
+    TtlCache<String, String> cache = new TtlCache<>(10, 60_000);
+    cache.put("a", "1", 20);
+    cache.put("b", "2");
+    Thread.sleep(40);
+
+    assertNull(cache.get("a"));
+    assertEquals("2", cache.get("b"));
+    assertEquals(1, cache.getStats().getHits());
+    assertEquals(1, cache.getStats().getMisses());
+  }
+
+  @Test
+  public void reportsDroppedKeys() throws Exception {
+    List<String> dropped = new ArrayList<>();
+    TtlCache<String, String> cache = new TtlCache<>(2, 60_000, dropped::add);
+    cache.put("a", "1", 20);
+    cache.put("b", "2");
+    cache.put("c", "3");
+    Thread.sleep(40);
+    cache.get("b");
+    cache.remove("c");
+
+    assertEquals(Arrays.asList("a"), dropped);
+    cache.put("d", "4", 20);
+    Thread.sleep(40);
+    cache.get("d");
+    assertEquals(Arrays.asList("a", "d"), dropped);
+  }
+}
@@ -0,0 +1,70 @@
+package com.unstoppabledomains.resolution.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.unstoppabledomains.config.network.model.Network;
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+import com.unstoppabledomains.resolution.naming.service.NSConfig;
+import com.unstoppabledomains.resolution.naming.service.ResolutionOptions;
+import com.unstoppabledomains.resolution.naming.service.ZNS;
+
+public class ZnsCacheTest {
+  private static final String REGISTRY = "0x9611c53be6d1b32058b2747bdececed7e1216793";
+  private static final String RESOLVER = "0x02621c64a57e1424adfe122569f2356145f05d4f";
+  private static final String OWNER = "0x2d418942dce1afa02d0733a2000c71b371a6ac07";
+
+  @Test
+  public void keepsAddressesAndRecordMaps() {
+    ZnsCache cache = new ZnsCache();
+    String[] addresses = { OWNER, RESOLVER };
+    cache.putAddresses("0xABC", addresses);
+    addresses[0] = "changed";
+    assertEquals(OWNER, cache.getAddresses("0xabc")[0]);
+
+    JsonObject records = new JsonObject();
+    records.addProperty("crypto.ZIL.address", "zil1");
+    cache.putRecords(RESOLVER, records);
+    cache.getRecords(RESOLVER).addProperty("crypto.ETH.address", "0x1");
+    assertEquals(1, cache.getRecords(RESOLVER.toUpperCase().replace("0X", "0x")).size());
+
+    cache.invalidate("0xabc");
+    assertNull(cache.getAddresses("0xabc"));
+    cache.invalidateResolver(RESOLVER);
+    assertNull(cache.getRecords(RESOLVER));
+  }
+
+  @Test
+  public void answersRepeatedZnsLookupsFromMemory() throws Exception {
+    IProvider provider = mock(IProvider.class);
+    when(provider.request(anyString(), any(JsonObject.class))).thenAnswer(invocation -> {
+      JsonObject body = invocation.getArgument(1);
+      String address = body.getAsJsonArray("params").get(0).getAsString();
+      String namehash = body.getAsJsonArray("params").get(2).getAsJsonArray().size() > 0
+          ? body.getAsJsonArray("params").get(2).getAsJsonArray().get(0).getAsString() : null;
+      String result = address.equals(REGISTRY.substring(2))
+          ? "{\"records\":{\"" + namehash + "\":{\"arguments\":[\"" + OWNER + "\",\"" + RESOLVER + "\"]}}}"
+          : "{\"records\":{\"crypto.ZIL.address\":\"zil1\"}}";
+      return JsonParser.parseString("{\"result\":" + result + "}").getAsJsonObject();
+    });
+    ResolutionOptions options = new ResolutionOptions();
+    options.setZnsCache(new ZnsCache());
+    ZNS zns = new ZNS(new NSConfig(Network.MAINNET, "http://localhost/zil", REGISTRY), provider, options);
+
+    assertEquals("zil1", zns.getRecord("brad.zil", "crypto.ZIL.address"));
+    assertEquals("zil1", zns.getRecord("brad.zil", "crypto.ZIL.address"));
+    assertEquals(OWNER, zns.getOwner("brad.zil"));
+
+    verify(provider, times(2)).request(anyString(), any(JsonObject.class));
+  }
+}
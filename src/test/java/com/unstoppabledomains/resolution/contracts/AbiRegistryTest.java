@@ -0,0 +1,62 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.esaulpaugh.headlong.abi.Function;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import com.unstoppabledomains.resolution.artifacts.Hash;
+
+public class AbiRegistryTest {
+  private static final String ABI = "[{\"inputs\":[{\"indexed\":true,\"name\":\"tokenId\",\"type\":\"uint256\"},"
+      + "{\"indexed\":false,\"name\":\"key\",\"type\":\"string\"}],\"name\":\"Set\",\"type\":\"event\"},"
+      + "{\"inputs\":[{\"name\":\"tokenId\",\"type\":\"uint256\"}],\"name\":\"ownerOf\","
+      + "\"outputs\":[{\"name\":\"\",\"type\":\"address\"}],\"stateMutability\":\"view\",\"type\":\"function\"}]";
+
+  @Test
+  public void indexesFunctionsByNameAndArity() {
+    AbiRegistry registry = AbiRegistry.fromJson(JsonParser.parseString(ABI).getAsJsonArray());
+
+    Function ownerOf = registry.getFunction("ownerOf", 1);
+    assertEquals("ownerOf(uint256)", ownerOf.getCanonicalSignature());
+    assertSame(ownerOf, registry.getFunction("ownerOf", 1));
+    assertTrue(registry.hasFunction("ownerOf", 1));
+    assertFalse(registry.hasFunction("ownerOf", 2));
+    assertFalse(registry.hasFunction("Set", 2));
+    assertThrows(RuntimeException.class, () -> registry.getFunction("getData", 2));
+  }
+
+  @Test
+  public void hashesEventTopics() {
+    AbiRegistry registry = AbiRegistry.fromJson(JsonParser.parseString(ABI).getAsJsonArray());
+
+    assertEquals(Hash.sha3String("Set(uint256,string)"), registry.getEventTopic("Set"));
+    assertEquals(1, registry.getTopicIndex("Set", "tokenId"));
+    assertEquals(-1, registry.getTopicIndex("Set", "key"));
+    assertThrows(RuntimeException.class, () -> registry.getEventTopic("Transfer"));
+  }
+
+  @Test
+  public void loadsEachPathOnce() {
+    AtomicInteger loads = new AtomicInteger();
+    AbiRegistry first = AbiRegistry.forPath("abi-registry-test", () -> {
+      loads.incrementAndGet();
+      return JsonParser.parseString(ABI).getAsJsonArray();
+    });
+    AbiRegistry second = AbiRegistry.forPath("abi-registry-test", () -> {
+      loads.incrementAndGet();
+      return new JsonArray();
+    });
+
+    assertSame(first, second);
+    assertEquals(1, loads.get());
+  }
+}
@@ -2,13 +2,21 @@ package com.unstoppabledomains.resolution.contracts;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.esaulpaugh.headlong.abi.Tuple;
 import com.google.gson.Gson;
@@ -131,4 +139,39 @@ public class BaseContractTest {
     assertEquals("test value", result.get(0).get(0));
     assertEquals("test value 2", result.get(1).get(0));
   }
+
+  @Test
+  public void testBaseContractFetchBatch() throws Exception {
+    JsonObject first = new Gson().fromJson("{\"jsonrpc\":\"2.0\"," + "\"id\":1,"
+        + "\"result\":\"0x00000000000000000000000000000000000000000000000000000000000000200000000000000000000000000000000000000000000000000000000000000011746573742072657475726e2076616c7565000000000000000000000000000000\"}",
+        JsonObject.class);
+    JsonObject second = new Gson().fromJson("{\"jsonrpc\":\"2.0\"," + "\"id\":2," + "\"error\": {"
+        + "\"code\": -32000," + "\"message\": \"execution reverted\"" + "}}", JsonObject.class);
+    when(mockProvider.requestBatch(eq(TEST_URL), any())).thenReturn(Arrays.asList(first, second));
+
+    List<BaseContract.MulticallArgs> args = new ArrayList<>();
+    args.add(testContract.new MulticallArgs("getValue", new Object[] { BigInteger.valueOf(1L) }));
+    args.add(testContract.new MulticallArgs("getValue", new Object[] { BigInteger.valueOf(2L) }));
+    List<Tuple> result = testContract.fetchBatch(args);
+
+    assertEquals("test return value", result.get(0).get(0));
+    assertEquals(0, result.get(1).size());
+  }
+
+  @Test
+  public void testBaseContractBatchesConcurrentCallsIntoMulticall() throws Exception {
+    JsonObject returnObject = new Gson().fromJson("{\"jsonrpc\":\"2.0\"," + "\"id\":1,"
+        + "\"result\":\"0x00000000000000000000000000000000000000000000000000000000000000200000000000000000000000000000000000000000000000000000000000000002000000000000000000000000000000000000000000000000000000000000004000000000000000000000000000000000000000000000000000000000000000c000000000000000000000000000000000000000000000000000000000000000600000000000000000000000000000000000000000000000000000000000000020000000000000000000000000000000000000000000000000000000000000000a746573742076616c75650000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000600000000000000000000000000000000000000000000000000000000000000020000000000000000000000000000000000000000000000000000000000000000c746573742076616c756520320000000000000000000000000000000000000000\"}",
+        JsonObject.class);
+    when(mockProvider.request(eq(TEST_URL), any())).thenReturn(returnObject);
+    testContract.enableMulticallBatching(MulticallBatchingConfig.builder().window(10_000).maxBatchSize(2).build());
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    Future<String> first = executor.submit(() -> testContract.<String>fetchOne("getValue", new Object[] { BigInteger.valueOf(1L) }));
+    Future<String> second = executor.submit(() -> testContract.<String>fetchOne("getValue", new Object[] { BigInteger.valueOf(2L) }));
+
+    assertEquals(new HashSet<>(Arrays.asList("test value", "test value 2")), new HashSet<>(Arrays.asList(first.get(), second.get())));
+    verify(mockProvider, times(1)).request(eq(TEST_URL), any());
+    executor.shutdown();
+  }
 }
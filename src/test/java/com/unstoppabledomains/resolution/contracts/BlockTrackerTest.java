@@ -0,0 +1,117 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+
+@ExtendWith(MockitoExtension.class)
+public class BlockTrackerTest {
+  private static final String URL = "http://rpc/";
+
+  @Mock
+  private IProvider mockProvider;
+
+  private static JsonObject blockNumber(String hex) {
+    JsonObject response = new JsonObject();
+    response.addProperty("result", hex);
+    return response;
+  }
+
+  @Test
+  public void pollsInBackground() throws Exception {
+    when(mockProvider.request(eq(URL), any())).thenReturn(blockNumber("0x10"));
+    BlockTracker tracker = new BlockTracker(URL, mockProvider, BlockPinningConfig.builder().pollInterval(60_000).build());
+
+    assertEquals(-1, tracker.getBlock());
+    tracker.currentBlock();
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (tracker.currentBlock() < 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(16, tracker.currentBlock());
+    verify(mockProvider, times(1)).request(eq(URL), any());
+  }
+
+  @Test
+  public void reportsNewBlocksToListeners() throws Exception {
+    when(mockProvider.request(eq(URL), any()))
+        .thenReturn(blockNumber("0x10"))
+        .thenReturn(blockNumber("0x10"))
+        .thenReturn(blockNumber("0x13"));
+    BlockTracker tracker = new BlockTracker(URL, mockProvider);
+    List<long[]> ranges = new ArrayList<>();
+    tracker.addListener((from, to) -> ranges.add(new long[] { from, to }));
+
+    tracker.poll();
+    tracker.poll();
+    tracker.poll();
+    assertEquals(19, tracker.getBlock());
+    assertEquals(1, ranges.size());
+    assertEquals(Arrays.asList(17L, 19L), Arrays.asList(ranges.get(0)[0], ranges.get(0)[1]));
+  }
+
+  @Test
+  public void publishesNewBlockBeforeListenersFinish() throws Exception {
+    when(mockProvider.request(eq(URL), any()))
+        .thenReturn(blockNumber("0x10"))
+        .thenReturn(blockNumber("0x11"));
+    BlockTracker tracker = new BlockTracker(URL, mockProvider);
+    CountDownLatch scanning = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    tracker.addListener((from, to) -> {
+      scanning.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    tracker.poll();
+
+    Thread poller = new Thread(tracker::poll);
+    poller.start();
+    assertTrue(scanning.await(5, TimeUnit.SECONDS));
+    assertEquals(17, tracker.currentBlock());
+    release.countDown();
+    poller.join();
+  }
+
+  @Test
+  public void keepsLastBlockWhenPollFails() throws Exception {
+    when(mockProvider.request(eq(URL), any()))
+        .thenReturn(blockNumber("0x10"))
+        .thenThrow(new IOException("Connection reset"));
+    BlockTracker tracker = new BlockTracker(URL, mockProvider);
+
+    tracker.poll();
+    tracker.poll();
+    assertEquals(16, tracker.getBlock());
+  }
+
+  @Test
+  public void pinsTemplateToBlock() {
+    EthCallTemplate template = new EthCallTemplate("0x578853aa776eef10cee6c4dd2b5862bdce767a8b").atBlock(26);
+    assertEquals("0x1a", template.getBlockTag());
+    assertEquals("0x1a", template.toJson(new byte[] { 1 }).getAsJsonArray("params").get(1).getAsString());
+    assertEquals("latest", EthCallTemplate.toBlockTag(-1));
+  }
+}
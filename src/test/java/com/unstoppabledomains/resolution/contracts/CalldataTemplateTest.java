@@ -0,0 +1,43 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+
+import com.esaulpaugh.headlong.abi.Function;
+
+public class CalldataTemplateTest {
+  private static final Function GET_DATA = Function.parse("getData(string[],uint256)");
+
+  @Test
+  public void fillsTheTokenIdIntoPrecompiledCalldata() {
+    String[] keys = { "crypto.ETH.address", "dns.A", "dns.A.ttl" };
+    CalldataTemplate template = CalldataTemplate.compile(GET_DATA, new Object[]{ keys, BigInteger.ONE }, 1);
+
+    BigInteger[] tokenIds = {
+      BigInteger.ZERO,
+      BigInteger.valueOf(255),
+      new BigInteger("756e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9", 16),
+      BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE)
+    };
+    for (BigInteger tokenId : tokenIds) {
+      assertArrayEquals(GET_DATA.encodeCallWithArgs(keys, tokenId).array(), template.fill(tokenId));
+    }
+  }
+
+  @Test
+  public void rejectsSlotsThatCantBeFilledInPlace() {
+    String[] keys = { "crypto.ETH.address" };
+    assertThrows(IllegalArgumentException.class,
+        () -> CalldataTemplate.compile(GET_DATA, new Object[]{ keys, BigInteger.ONE }, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> CalldataTemplate.compile(Function.parse("f(uint256[2],uint256)"), new Object[]{ new BigInteger[2], BigInteger.ONE }, 1));
+
+    CalldataTemplate template = CalldataTemplate.compile(GET_DATA, new Object[]{ keys, BigInteger.ONE }, 1);
+    assertThrows(IllegalArgumentException.class, () -> template.fill(BigInteger.ONE.negate()));
+    assertThrows(IllegalArgumentException.class, () -> template.fill(BigInteger.ONE.shiftLeft(256)));
+  }
+}
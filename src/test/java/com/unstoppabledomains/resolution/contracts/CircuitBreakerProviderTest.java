@@ -0,0 +1,87 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+
+@ExtendWith(MockitoExtension.class)
+public class CircuitBreakerProviderTest {
+  private static final String URL = "http://rpc/";
+
+  @Mock
+  private IProvider mockProvider;
+
+  private JsonObject body() {
+    return HTTPUtil.prepareBody("eth_call", new JsonArray());
+  }
+
+  @Test
+  public void opensAfterFailuresAndProbesAfterOpenTime() throws Exception {
+    JsonObject response = new JsonObject();
+    when(mockProvider.request(eq(URL), any()))
+        .thenThrow(new IOException("Connection refused"))
+        .thenThrow(new IOException("Connection refused"))
+        .thenReturn(response);
+
+    CircuitBreakerProvider provider = new CircuitBreakerProvider(mockProvider,
+        CircuitBreakerConfig.builder().failureThreshold(2).openTime(100).build());
+
+    assertThrows(IOException.class, () -> provider.request(URL, body()));
+    assertThrows(IOException.class, () -> provider.request(URL, body()));
+    assertThrows(CircuitOpenException.class, () -> provider.request(URL, body()));
+    assertEquals(CircuitBreakerProvider.State.OPEN, provider.getStates().get(URL));
+    verify(mockProvider, times(2)).request(eq(URL), any());
+
+    Thread.sleep(150);
+    assertEquals(response, provider.request(URL, body()));
+    assertEquals(CircuitBreakerProvider.State.CLOSED, provider.getStates().get(URL));
+  }
+
+  @Test
+  public void opensRightAwayOnForbidden() throws Exception {
+    when(mockProvider.request(eq(URL), any()))
+        .thenThrow(new HttpStatusException(403, -1, "Server returned HTTP response code: 403 for URL: " + URL, null));
+
+    CircuitBreakerProvider provider = new CircuitBreakerProvider(mockProvider);
+
+    assertThrows(HttpStatusException.class, () -> provider.request(URL, body()));
+    assertThrows(CircuitOpenException.class, () -> provider.request(URL, body()));
+    verify(mockProvider, times(1)).request(eq(URL), any());
+  }
+
+  @Test
+  public void unexpectedProbeErrorReopensCircuit() throws Exception {
+    JsonObject response = new JsonObject();
+    when(mockProvider.request(eq(URL), any()))
+        .thenThrow(new IOException("Connection refused"))
+        .thenThrow(new IllegalStateException("Not a JSON Object"))
+        .thenReturn(response);
+
+    CircuitBreakerProvider provider = new CircuitBreakerProvider(mockProvider,
+        CircuitBreakerConfig.builder().failureThreshold(1).openTime(50).build());
+
+    assertThrows(IOException.class, () -> provider.request(URL, body()));
+    Thread.sleep(100);
+    assertThrows(IllegalStateException.class, () -> provider.request(URL, body()));
+    assertEquals(CircuitBreakerProvider.State.OPEN, provider.getStates().get(URL));
+
+    Thread.sleep(100);
+    assertEquals(response, provider.request(URL, body()));
+    assertEquals(CircuitBreakerProvider.State.CLOSED, provider.getStates().get(URL));
+  }
+}
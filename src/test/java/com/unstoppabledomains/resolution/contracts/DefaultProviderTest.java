@@ -0,0 +1,198 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterAll;
+
+import org.mockserver.integration.ClientAndServer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockserver.integration.ClientAndServer.startClientAndServer;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.Header.header;
+import static org.mockserver.model.HttpResponse.response;
+import static org.mockserver.model.JsonBody.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class DefaultProviderTest {
+  private static final String URL = "http://localhost:1082/rpc";
+  private static ClientAndServer mockServer;
+
+  @BeforeAll
+  public static void startMockServer() {
+    mockServer = startClientAndServer(1082);
+  }
+
+  @AfterAll
+  public static void stopMockServer() {
+    mockServer.stop();
+  }
+
+  @BeforeEach
+  public void resetMockServer() {
+    mockServer.reset();
+  }
+
+  @Test
+  public void correlatesBatchResponsesById() throws Exception {
+    mockServer.when(request().withMethod("POST").withPath("/rpc"))
+        .respond(response().withStatusCode(200).withBody("["
+            + "{\"jsonrpc\":\"2.0\",\"id\":3,\"result\":\"third\"},"
+            + "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"first\"}"
+            + "]"));
+
+    List<JsonObject> bodies = Arrays.asList(
+        HTTPUtil.prepareBody("eth_call", new JsonArray(), 1),
+        HTTPUtil.prepareBody("eth_call", new JsonArray(), 2),
+        HTTPUtil.prepareBody("eth_call", new JsonArray(), 3));
+    List<JsonObject> responses = new DefaultProvider().requestBatch(URL, bodies);
+
+    assertEquals(3, responses.size());
+    assertEquals("first", responses.get(0).get("result").getAsString());
+    assertNotNull(responses.get(1).get("error"));
+    assertEquals("third", responses.get(2).get("result").getAsString());
+  }
+
+  @Test
+  public void fallsBackToSingleRequestsWhenBatchIsRejected() throws Exception {
+    mockServer.when(request().withMethod("POST").withPath("/rpc").withBody(json("{\"id\": 1}")))
+        .respond(response().withStatusCode(200).withBody("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"first\"}"));
+    mockServer.when(request().withMethod("POST").withPath("/rpc").withBody(json("{\"id\": 2}")))
+        .respond(response().withStatusCode(200).withBody("{\"jsonrpc\":\"2.0\",\"id\":2,\"result\":\"second\"}"));
+    mockServer.when(request().withMethod("POST").withPath("/rpc"))
+        .respond(response().withStatusCode(200)
+            .withBody("{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32600,\"message\":\"batch not supported\"}}"));
+
+    List<JsonObject> bodies = Arrays.asList(
+        HTTPUtil.prepareBody("eth_call", new JsonArray(), 1),
+        HTTPUtil.prepareBody("eth_call", new JsonArray(), 2));
+    List<JsonObject> responses = new DefaultProvider().requestBatch(URL, bodies);
+
+    assertEquals("first", responses.get(0).get("result").getAsString());
+    assertEquals("second", responses.get(1).get("result").getAsString());
+  }
+
+  @Test
+  public void decodesGzipResponse() throws Exception {
+    String body = "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"0x1234\"}";
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(body.getBytes(StandardCharsets.UTF_8));
+    }
+    mockServer.when(request().withMethod("POST").withPath("/rpc").withHeader(header("Accept-Encoding", "gzip")))
+        .respond(response().withStatusCode(200)
+            .withHeader(header("Content-Encoding", "gzip"))
+            .withBody(compressed.toByteArray()));
+
+    JsonObject response = new DefaultProvider().request(URL, HTTPUtil.prepareBody("eth_call", new JsonArray(), 1));
+
+    assertEquals("0x1234", response.get("result").getAsString());
+    assertEquals(1, response.get("id").getAsInt());
+  }
+
+  @Test
+  public void keepsAllFieldsOfStreamedResponse() throws Exception {
+    mockServer.when(request().withMethod("POST").withPath("/rpc"))
+        .respond(response().withStatusCode(200)
+            .withBody("{\"jsonrpc\":\"2.0\",\"id\":1,\"error\":{\"code\":3,\"message\":\"execution reverted\"},\"extra\":[1,2]}"));
+
+    JsonObject response = new DefaultProvider().request(URL, HTTPUtil.prepareBody("eth_call", new JsonArray(), 1));
+
+    assertEquals("execution reverted", response.getAsJsonObject("error").get("message").getAsString());
+    assertEquals(2, response.getAsJsonArray("extra").size());
+  }
+
+  @Test
+  public void sendsEthCallFromTemplate() throws Exception {
+    EthCallTemplate template = new EthCallTemplate("0x58034a288d2e56b661c9056a0c27273e5460b63c");
+    byte[] calldata = new byte[] { 0x1b, (byte) 0xe5, 0x00, (byte) 0xff };
+    String expected = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"eth_call\",\"params\":"
+        + "[{\"data\":\"0x1be500ff\",\"to\":\"0x58034a288d2e56b661c9056a0c27273e5460b63c\"},\"latest\"]}";
+    mockServer.when(request().withMethod("POST").withPath("/rpc").withBody(json(expected)))
+        .respond(response().withStatusCode(200).withBody("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"0x01\"}"));
+
+    JsonObject response = new DefaultProvider().ethCall(URL, template, calldata);
+
+    assertEquals("0x01", response.get("result").getAsString());
+    assertEquals(JsonParser.parseString(expected), template.toJson(calldata));
+  }
+
+  @Test
+  public void reportsHttpStatus() throws Exception {
+    mockServer.when(request().withMethod("POST").withPath("/rpc"))
+        .respond(response().withStatusCode(429).withHeader(header("Retry-After", "3")).withBody("Too Many Requests"));
+
+    HttpStatusException thrown = assertThrows(HttpStatusException.class,
+        () -> new DefaultProvider().request(URL, HTTPUtil.prepareBody("eth_call", new JsonArray(), 1)));
+
+    assertEquals(429, thrown.getStatusCode());
+    assertEquals(3000, thrown.getRetryAfter());
+    assertTrue(thrown.isRejected());
+    assertTrue(thrown.getMessage().contains("response code: 429"));
+  }
+
+  @Test
+  public void reportsMalformedResponsesAsIOException() throws Exception {
+    for (String body : new String[] { "[1,2]", "\"bad gateway\"", "null", "{\"result\": " }) {
+      assertThrows(IOException.class, () -> DefaultProvider.readResponse(new StringReader(body)));
+    }
+  }
+
+  @Test
+  public void answersMalformedBatchItemsWithErrors() throws Exception {
+    mockServer.when(request().withMethod("POST").withPath("/rpc"))
+        .respond(response().withStatusCode(200).withBody("["
+            + "\"oops\","
+            + "{\"jsonrpc\":\"2.0\",\"id\":2,\"result\":\"second\"}"
+            + "]"));
+
+    List<JsonObject> bodies = Arrays.asList(
+        HTTPUtil.prepareBody("eth_call", new JsonArray(), 1),
+        HTTPUtil.prepareBody("eth_call", new JsonArray(), 2));
+    List<JsonObject> responses = new DefaultProvider().requestBatch(URL, bodies);
+
+    assertNotNull(responses.get(0).get("error"));
+    assertEquals("second", responses.get(1).get("result").getAsString());
+  }
+
+  @Test
+  public void abortsRequestFromAnotherThread() throws Exception {
+    mockServer.when(request().withMethod("POST").withPath("/rpc"))
+        .respond(response().withStatusCode(200).withDelay(TimeUnit.SECONDS, 5)
+            .withBody("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"0x01\"}"));
+    RequestAbort abort = new RequestAbort();
+    CompletableFuture<JsonObject> pending = CompletableFuture.supplyAsync(() -> {
+      try {
+        return abort.run(() -> new DefaultProvider().request(URL, HTTPUtil.prepareBody("eth_call", new JsonArray(), 1)));
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    });
+
+    Thread.sleep(200);
+    long start = System.currentTimeMillis();
+    abort.abort();
+    ExecutionException thrown = assertThrows(ExecutionException.class, () -> pending.get(2, TimeUnit.SECONDS));
+    assertTrue(thrown.getCause() instanceof IOException);
+    assertTrue(System.currentTimeMillis() - start < 2_000);
+  }
+}
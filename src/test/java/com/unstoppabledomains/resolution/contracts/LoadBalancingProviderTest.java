@@ -0,0 +1,160 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+
+@ExtendWith(MockitoExtension.class)
+public class LoadBalancingProviderTest {
+  private static final String PRIMARY = "http://primary/rpc";
+  private static final String SECONDARY = "http://secondary/rpc";
+
+  @Mock
+  private IProvider mockProvider;
+
+  private JsonObject body() {
+    return HTTPUtil.prepareBody("eth_call", new JsonArray());
+  }
+
+  @Test
+  public void passesThroughUnknownUrls() throws Exception {
+    JsonObject response = new JsonObject();
+    when(mockProvider.request(eq("http://other/rpc"), any())).thenReturn(response);
+
+    LoadBalancingProvider provider = new LoadBalancingProvider(mockProvider)
+        .addEndpoints(PRIMARY, Arrays.asList(PRIMARY, SECONDARY));
+
+    assertEquals(response, provider.request("http://other/rpc", body()));
+  }
+
+  @Test
+  public void takesFailingEndpointOutOfRotation() throws Exception {
+    JsonObject response = new JsonObject();
+    when(mockProvider.request(eq(PRIMARY), any())).thenThrow(new IOException("Connection refused"));
+    when(mockProvider.request(eq(SECONDARY), any())).thenReturn(response);
+
+    LoadBalancingProvider provider = new LoadBalancingProvider(mockProvider, LoadBalancingConfig.builder()
+        .minRequests(1)
+        .ejectionTime(60_000)
+        .build()).addEndpoints(PRIMARY, Arrays.asList(PRIMARY, SECONDARY));
+
+    int failures = 0;
+    for (int i = 0; i < 20; i++) {
+      try {
+        provider.request(PRIMARY, body());
+      } catch (IOException e) {
+        failures++;
+      }
+    }
+
+    assertTrue(failures <= 1);
+    assertFalse(provider.getEndpointStats().get(PRIMARY).isAvailable());
+    assertTrue(provider.getEndpointStats().get(SECONDARY).isAvailable());
+    verify(mockProvider, times(20 - failures)).request(eq(SECONDARY), any());
+  }
+
+  @Test
+  public void keepsLastEndpointInRotation() throws Exception {
+    when(mockProvider.request(eq(PRIMARY), any())).thenThrow(new IOException("Connection refused"));
+
+    LoadBalancingProvider provider = new LoadBalancingProvider(mockProvider, LoadBalancingConfig.builder()
+        .minRequests(1)
+        .build()).addEndpoints(PRIMARY, Arrays.asList(PRIMARY));
+
+    for (int i = 0; i < 3; i++) {
+      try {
+        provider.request(PRIMARY, body());
+      } catch (IOException e) {
+        // expected
+      }
+    }
+
+    assertTrue(provider.getEndpointStats().get(PRIMARY).isAvailable());
+    verify(mockProvider, never()).request(eq(SECONDARY), any());
+  }
+
+  @Test
+  public void hedgesSlowReadOnlyRequest() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    JsonObject response = new JsonObject();
+    when(mockProvider.request(any(), any())).thenAnswer(invocation -> {
+      if (calls.incrementAndGet() == 6) {
+        Thread.sleep(1_000);
+      }
+      return response;
+    });
+
+    LoadBalancingProvider provider = new LoadBalancingProvider(mockProvider, LoadBalancingConfig.builder()
+        .hedging(HedgingConfig.builder().minSamples(3).minDelay(20).budget(1).maxBurst(1).build())
+        .build()).addEndpoints(PRIMARY, Arrays.asList(PRIMARY, SECONDARY));
+
+    for (int i = 0; i < 5; i++) {
+      provider.request(PRIMARY, body());
+    }
+    long start = System.currentTimeMillis();
+    assertEquals(response, provider.request(PRIMARY, body()));
+
+    assertTrue(System.currentTimeMillis() - start < 800);
+    assertEquals(7, calls.get());
+    verify(mockProvider, atLeastOnce()).request(eq(PRIMARY), any());
+    verify(mockProvider, atLeastOnce()).request(eq(SECONDARY), any());
+  }
+
+  @Test
+  public void skipsHedgeWhenHedgingPoolIsFull() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    JsonObject response = new JsonObject();
+    when(mockProvider.request(any(), any())).thenAnswer(invocation -> {
+      if (calls.incrementAndGet() == 6) {
+        Thread.sleep(300);
+      }
+      return response;
+    });
+
+    LoadBalancingProvider provider = new LoadBalancingProvider(mockProvider, LoadBalancingConfig.builder()
+        .hedging(HedgingConfig.builder().minSamples(3).minDelay(20).budget(1).maxBurst(1).maxConcurrent(1).build())
+        .build()).addEndpoints(PRIMARY, Arrays.asList(PRIMARY, SECONDARY));
+
+    for (int i = 0; i < 5; i++) {
+      provider.request(PRIMARY, body());
+    }
+    assertEquals(response, provider.request(PRIMARY, body()));
+    assertEquals(6, calls.get());
+  }
+
+  @Test
+  public void doesNotHedgeWriteRequests() throws Exception {
+    JsonObject response = new JsonObject();
+    when(mockProvider.request(any(), any())).thenReturn(response);
+
+    LoadBalancingProvider provider = new LoadBalancingProvider(mockProvider, LoadBalancingConfig.builder()
+        .hedging(HedgingConfig.builder().minSamples(1).minDelay(0).budget(1).build())
+        .build()).addEndpoints(PRIMARY, Arrays.asList(PRIMARY, SECONDARY));
+
+    for (int i = 0; i < 5; i++) {
+      provider.request(PRIMARY, HTTPUtil.prepareBody("eth_sendRawTransaction", new JsonArray()));
+    }
+
+    verify(mockProvider, times(5)).request(any(), any());
+  }
+}
@@ -0,0 +1,108 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterAll;
+
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.verify.VerificationTimes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockserver.integration.ClientAndServer.startClientAndServer;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.unstoppabledomains.resolution.TokenUriMetadata;
+
+public class MetadataClientTest {
+  private static final String URL = "http://localhost:1083/metadata/1";
+  private static final String BODY = "{\"name\": \"test.crypto\"}";
+  private static ClientAndServer mockServer;
+
+  @BeforeAll
+  public static void startMockServer() {
+    mockServer = startClientAndServer(1083);
+  }
+
+  @AfterAll
+  public static void stopMockServer() {
+    mockServer.stop();
+  }
+
+  @BeforeEach
+  public void resetMockServer() {
+    mockServer.reset();
+  }
+
+  @Test
+  public void servesFreshDocumentsFromMemory() throws Exception {
+    mockServer.when(request().withMethod("GET").withPath("/metadata/1"))
+        .respond(response().withStatusCode(200).withHeader("Cache-Control", "public, max-age=60").withBody(BODY));
+
+    MetadataClient client = new MetadataClient();
+    assertEquals("test.crypto", client.get(URL, TokenUriMetadata.class).getName());
+    assertEquals("test.crypto", client.get(URL, TokenUriMetadata.class).getName());
+
+    mockServer.verify(request().withPath("/metadata/1"), VerificationTimes.once());
+  }
+
+  @Test
+  public void revalidatesStaleDocumentsWithEtag() throws Exception {
+    mockServer.when(request().withMethod("GET").withPath("/metadata/1").withHeader("If-None-Match", "\"v1\""))
+        .respond(response().withStatusCode(304).withHeader("ETag", "\"v1\""));
+    mockServer.when(request().withMethod("GET").withPath("/metadata/1"))
+        .respond(response().withStatusCode(200).withHeader("Cache-Control", "no-cache").withHeader("ETag", "\"v1\"").withBody(BODY));
+
+    MetadataClient client = new MetadataClient();
+    assertEquals("test.crypto", client.get(URL, TokenUriMetadata.class).getName());
+    assertEquals("test.crypto", client.get(URL, TokenUriMetadata.class).getName());
+
+    mockServer.verify(request().withPath("/metadata/1").withHeader("If-None-Match", "\"v1\""), VerificationTimes.once());
+  }
+
+  @Test
+  public void neverStoresNoStoreDocuments() throws Exception {
+    mockServer.when(request().withMethod("GET").withPath("/metadata/1"))
+        .respond(response().withStatusCode(200).withHeader("Cache-Control", "no-store").withHeader("ETag", "\"v1\"").withBody(BODY));
+
+    MetadataClient client = new MetadataClient();
+    client.get(URL, TokenUriMetadata.class);
+    client.get(URL, TokenUriMetadata.class);
+
+    mockServer.verify(request().withPath("/metadata/1").withHeader("If-None-Match", "\"v1\""), VerificationTimes.exactly(0));
+    mockServer.verify(request().withPath("/metadata/1"), VerificationTimes.exactly(2));
+  }
+
+  @Test
+  public void remembersTokenUris() throws Exception {
+    mockServer.when(request().withMethod("GET").withPath("/metadata/1"))
+        .respond(response().withStatusCode(200).withBody(BODY));
+
+    MetadataClient client = new MetadataClient();
+    AtomicInteger lookups = new AtomicInteger();
+    MetadataClient.TokenUriSource source = tokenId -> {
+      lookups.incrementAndGet();
+      return URL;
+    };
+    assertEquals("test.crypto", client.getTokenMetadata("Layer1", BigInteger.ONE, source).getName());
+    assertEquals("test.crypto", client.getTokenMetadata("Layer1", BigInteger.ONE, source).getName());
+    client.getTokenMetadata("Layer2", BigInteger.ONE, source);
+
+    assertEquals(2, lookups.get());
+    mockServer.verify(request().withPath("/metadata/1"), VerificationTimes.once());
+  }
+
+  @Test
+  public void parsesFreshness() {
+    assertEquals(120_000, MetadataClient.maxAge("public, max-age=120", null, 5));
+    assertEquals(0, MetadataClient.maxAge("max-age=120, no-cache", null, 5));
+    assertEquals(-1, MetadataClient.maxAge("no-store, max-age=120", null, 5));
+    assertEquals(0, MetadataClient.maxAge(null, "not a date", 5));
+    assertEquals(0, MetadataClient.maxAge(null, "Thu, 01 Jan 1970 00:00:00 GMT", 5));
+    assertEquals(5, MetadataClient.maxAge("public", null, 5));
+  }
+}
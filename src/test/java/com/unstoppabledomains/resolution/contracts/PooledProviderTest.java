@@ -0,0 +1,86 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterAll;
+
+import org.mockserver.integration.ClientAndServer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockserver.integration.ClientAndServer.startClientAndServer;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+public class PooledProviderTest {
+  private static final String URL = "http://localhost:1081/rpc";
+  private static ClientAndServer mockServer;
+
+  @BeforeAll
+  public static void startMockServer() {
+    mockServer = startClientAndServer(1081);
+  }
+
+  @AfterAll
+  public static void stopMockServer() {
+    mockServer.stop();
+  }
+
+  @BeforeEach
+  public void resetMockServer() {
+    mockServer.reset();
+  }
+
+  private JsonObject body() {
+    return HTTPUtil.prepareBody("eth_blockNumber", new JsonArray());
+  }
+
+  @Test
+  public void limitsConnectionsPerHost() throws Exception {
+    mockServer.when(request().withMethod("POST").withPath("/rpc"))
+        .respond(response().withStatusCode(200).withDelay(TimeUnit.MILLISECONDS, 50)
+            .withBody("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"0x10\"}"));
+
+    PooledProvider provider = new PooledProvider(ConnectionPoolConfig.builder().maxConnectionsPerHost(2).build());
+    ExecutorService executor = Executors.newFixedThreadPool(6);
+    List<Future<JsonObject>> results = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      results.add(executor.submit(() -> provider.request(URL, body())));
+    }
+    for (Future<JsonObject> result : results) {
+      assertEquals("0x10", result.get().get("result").getAsString());
+    }
+    executor.shutdown();
+
+    PoolStats stats = provider.getPoolStats().get("localhost:1081");
+    assertEquals(6, stats.getTotalRequests());
+    assertEquals(0, stats.getActiveConnections());
+    assertTrue(stats.getPeakConnections() <= 2);
+  }
+
+  @Test
+  public void countsFailedRequests() {
+    mockServer.when(request().withMethod("POST").withPath("/rpc"))
+        .respond(response().withStatusCode(429).withBody("too many requests"));
+
+    PooledProvider provider = new PooledProvider();
+    IOException exception = assertThrows(IOException.class, () -> provider.request(URL, body()));
+
+    assertTrue(exception.getMessage().contains("response code: 429"));
+    PoolStats stats = provider.getPoolStats().get("localhost:1081");
+    assertEquals(1, stats.getFailedRequests());
+  }
+}
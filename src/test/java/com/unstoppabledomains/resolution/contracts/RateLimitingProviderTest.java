@@ -0,0 +1,61 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimitingProviderTest {
+  private static final String URL = "http://rpc/";
+
+  @Mock
+  private IProvider mockProvider;
+
+  private JsonObject body() {
+    return HTTPUtil.prepareBody("eth_call", new JsonArray());
+  }
+
+  @Test
+  public void spacesRequestsOverBurst() throws Exception {
+    when(mockProvider.request(eq(URL), any())).thenReturn(new JsonObject());
+
+    RateLimitingProvider provider = new RateLimitingProvider(mockProvider,
+        RateLimitConfig.builder().maxRate(20).burst(2).build());
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 4; i++) {
+      provider.request(URL, body());
+    }
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    assertTrue(elapsedMillis >= 80, "took " + elapsedMillis + "ms");
+  }
+
+  @Test
+  public void slowsDownOnTooManyRequests() throws Exception {
+    when(mockProvider.request(eq(URL), any()))
+        .thenThrow(new HttpStatusException(429, 5_000, "Server returned HTTP response code: 429 for URL: " + URL, null));
+
+    RateLimitingProvider provider = new RateLimitingProvider(mockProvider,
+        RateLimitConfig.builder().maxRate(10).maxWait(1_000).build());
+
+    assertThrows(HttpStatusException.class, () -> provider.request(URL, body()));
+    assertEquals(5.0, provider.getRates().get(URL));
+    // Retry-After of 5 seconds is longer than the allowed wait
+    IOException thrown = assertThrows(IOException.class, () -> provider.request(URL, body()));
+    assertEquals("Rate limit of " + URL + " exceeded", thrown.getMessage());
+  }
+}
@@ -0,0 +1,79 @@
+package com.unstoppabledomains.resolution.contracts;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+
+@ExtendWith(MockitoExtension.class)
+public class RetryingProviderTest {
+  private static final String URL = "http://rpc/";
+
+  @Mock
+  private IProvider mockProvider;
+
+  private RetryConfig fastRetries() {
+    return RetryConfig.builder().initialBackoff(1).maxBackoff(5).build();
+  }
+
+  @Test
+  public void retriesTransientErrorsOfReadOnlyRequests() throws Exception {
+    JsonObject response = new JsonObject();
+    when(mockProvider.request(eq(URL), any()))
+        .thenThrow(new IOException("Connection reset"))
+        .thenThrow(new HttpStatusException(502, -1, "Server returned HTTP response code: 502 for URL: " + URL, null))
+        .thenReturn(response);
+
+    RetryingProvider provider = new RetryingProvider(mockProvider, fastRetries());
+
+    assertEquals(response, provider.request(URL, HTTPUtil.prepareBody("eth_call", new JsonArray())));
+    verify(mockProvider, times(3)).request(eq(URL), any());
+  }
+
+  @Test
+  public void doesNotRetryClientErrors() throws Exception {
+    when(mockProvider.request(eq(URL), any()))
+        .thenThrow(new HttpStatusException(400, -1, "Server returned HTTP response code: 400 for URL: " + URL, null));
+
+    RetryingProvider provider = new RetryingProvider(mockProvider, fastRetries());
+
+    assertThrows(HttpStatusException.class, () -> provider.request(URL, HTTPUtil.prepareBody("eth_call", new JsonArray())));
+    verify(mockProvider, times(1)).request(eq(URL), any());
+  }
+
+  @Test
+  public void doesNotRetryWriteRequests() throws Exception {
+    when(mockProvider.request(eq(URL), any())).thenThrow(new IOException("Connection reset"));
+
+    RetryingProvider provider = new RetryingProvider(mockProvider, fastRetries());
+
+    assertThrows(IOException.class,
+        () -> provider.request(URL, HTTPUtil.prepareBody("eth_sendRawTransaction", new JsonArray())));
+    verify(mockProvider, times(1)).request(eq(URL), any());
+  }
+
+  @Test
+  public void stopsWhenBudgetIsSpent() throws Exception {
+    when(mockProvider.request(eq(URL), any())).thenThrow(new IOException("Connection reset"));
+
+    RetryingProvider provider = new RetryingProvider(mockProvider,
+        RetryConfig.builder().initialBackoff(1).maxAttempts(5).budget(0).maxBurst(2).build());
+
+    assertThrows(IOException.class, () -> provider.request(URL, HTTPUtil.prepareBody("eth_call", new JsonArray())));
+    verify(mockProvider, times(3)).request(eq(URL), any());
+  }
+}
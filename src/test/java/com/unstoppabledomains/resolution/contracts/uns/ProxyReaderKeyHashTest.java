@@ -0,0 +1,85 @@
+package com.unstoppabledomains.resolution.contracts.uns;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.esaulpaugh.headlong.abi.Function;
+import com.esaulpaugh.headlong.abi.Tuple;
+import com.esaulpaugh.headlong.util.FastHex;
+import com.google.gson.JsonObject;
+import com.unstoppabledomains.resolution.artifacts.Hash;
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+
+public class ProxyReaderKeyHashTest {
+  private static final String URL = "http://rpc/";
+  private static final String READER = "0x58034a288d2e56b661c9056a0c27273e5460b63c";
+  private static final BigInteger TOKEN = new BigInteger("756e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9", 16);
+  private static final Function BY_HASH = Function.parse("getDataByHash(uint256[],uint256)", "(address,address,string[],string[])");
+  private static final String[] KEYS = { "crypto.ETH.address", "custom.unknown.key" };
+
+  @Test
+  public void hashesKnownAndCustomKeys() {
+    for (String key : KEYS) {
+      assertEquals(new BigInteger(1, Hash.sha3(key.getBytes(StandardCharsets.UTF_8))), ProxyReader.keyHash(key));
+    }
+  }
+
+  @Test
+  public void readsRecordsByKeyHash() throws Exception {
+    IProvider provider = mock(IProvider.class);
+    List<String> calls = new ArrayList<>();
+    when(provider.request(anyString(), any(JsonObject.class))).thenAnswer(invocation -> {
+      JsonObject body = invocation.getArgument(1);
+      calls.add(body.getAsJsonArray("params").get(0).getAsJsonObject().get("data").getAsString());
+      Tuple answer = new Tuple(BigInteger.ONE, BigInteger.TEN, KEYS, new String[]{ "0x8aad", "" });
+      JsonObject response = new JsonObject();
+      response.addProperty("result", "0x" + FastHex.encodeToString(BY_HASH.getOutputTypes().encode(answer).array()));
+      return response;
+    });
+    ProxyReader reader = new ProxyReader(URL, READER, provider);
+    reader.enableKeyHashReads();
+
+    ProxyData data = reader.getProxyData(KEYS, TOKEN);
+
+    assertEquals(Arrays.asList("0x8aad", ""), data.getValues());
+    assertEquals("0xa", data.getOwner());
+    BigInteger[] hashes = { ProxyReader.keyHash(KEYS[0]), ProxyReader.keyHash(KEYS[1]) };
+    assertEquals("0x" + FastHex.encodeToString(BY_HASH.encodeCallWithArgs(hashes, TOKEN).array()), calls.get(0));
+  }
+
+  @Test
+  public void fallsBackToKeyStringsWhenReaderLacksByHashMethods() throws Exception {
+    IProvider provider = mock(IProvider.class);
+    Function getData = Function.parse("getData(string[],uint256)", "(address,address,string[])");
+    when(provider.request(anyString(), any(JsonObject.class))).thenAnswer(invocation -> {
+      JsonObject body = invocation.getArgument(1);
+      String data = body.getAsJsonArray("params").get(0).getAsJsonObject().get("data").getAsString();
+      JsonObject response = new JsonObject();
+      if (data.startsWith("0x" + FastHex.encodeToString(BY_HASH.selector()))) {
+        response.addProperty("result", "0x");
+      } else {
+        Tuple answer = new Tuple(BigInteger.ONE, BigInteger.TEN, new String[]{ "0x8aad", "" });
+        response.addProperty("result", "0x" + FastHex.encodeToString(getData.getOutputTypes().encode(answer).array()));
+      }
+      return response;
+    });
+    ProxyReader reader = new ProxyReader(URL, READER, provider);
+    reader.enableKeyHashReads();
+
+    assertEquals(Arrays.asList("0x8aad", ""), reader.getProxyData(KEYS, TOKEN).getValues());
+    verify(provider, times(2)).request(anyString(), any(JsonObject.class));
+  }
+}
@@ -0,0 +1,47 @@
+package com.unstoppabledomains.resolution.contracts.uns;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+import com.google.gson.JsonObject;
+import com.unstoppabledomains.exceptions.ns.NSExceptionCode;
+import com.unstoppabledomains.exceptions.ns.NamingServiceException;
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+
+public class ProxyReaderOwnerTest {
+  private static final String URL = "http://rpc/";
+  private static final String READER = "0x58034a288d2e56b661c9056a0c27273e5460b63c";
+  private static final BigInteger TOKEN = new BigInteger("756e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9", 16);
+
+  @Test
+  public void fetchOwnerThrowsOnTransportFailure() throws Exception {
+    IProvider provider = mock(IProvider.class);
+    when(provider.request(anyString(), any(JsonObject.class))).thenThrow(new IOException("connection reset"));
+    ProxyReader reader = new ProxyReader(URL, READER, provider);
+
+    NamingServiceException thrown = assertThrows(NamingServiceException.class, () -> reader.fetchOwner(TOKEN));
+    assertEquals(NSExceptionCode.BlockchainIsDown, thrown.getCode());
+    assertNull(reader.getOwner(TOKEN));
+  }
+
+  @Test
+  public void fetchOwnerReturnsZeroAddressOfUnmintedToken() throws Exception {
+    IProvider provider = mock(IProvider.class);
+    JsonObject response = new JsonObject();
+    response.addProperty("result", "0x0000000000000000000000000000000000000000000000000000000000000000");
+    when(provider.request(anyString(), any(JsonObject.class))).thenReturn(response);
+    ProxyReader reader = new ProxyReader(URL, READER, provider);
+
+    assertEquals("0x0", reader.fetchOwner(TOKEN));
+  }
+}
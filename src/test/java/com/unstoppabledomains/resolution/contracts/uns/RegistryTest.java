@@ -0,0 +1,61 @@
+package com.unstoppabledomains.resolution.contracts.uns;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Set;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.unstoppabledomains.resolution.contracts.interfaces.IProvider;
+
+@ExtendWith(MockitoExtension.class)
+public class RegistryTest {
+  private static final String URL = "http://rpc/";
+  private static final String REGISTRY = "0x049aba7510f45ba5b64ea9e658e342f904db358d";
+  private static final String TRANSFER = "0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef";
+  private static final String NAMEHASH = "0x756e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9";
+  private static final String ADDRESS_TOPIC = "0x0000000000000000000000008aad44321a86b170879d7a244c1e8d360c99dda8";
+
+  @Mock
+  private IProvider mockProvider;
+
+  @Test
+  public void findsDomainsChangedInBlockRange() throws Exception {
+    JsonArray topics = new JsonArray();
+    topics.add(TRANSFER);
+    topics.add(ADDRESS_TOPIC);
+    topics.add(ADDRESS_TOPIC);
+    topics.add(NAMEHASH.toUpperCase().replace("0X", "0x"));
+    JsonObject log = new JsonObject();
+    log.add("topics", topics);
+    JsonArray logs = new JsonArray();
+    logs.add(log);
+    JsonObject response = new JsonObject();
+    response.add("result", logs);
+    ArgumentCaptor<JsonObject> body = ArgumentCaptor.forClass(JsonObject.class);
+    when(mockProvider.request(eq(URL), body.capture())).thenReturn(response);
+
+    Set<String> changed = new Registry(URL, REGISTRY, mockProvider).fetchChangedDomains(16, 19);
+
+    assertEquals(Collections.singleton(NAMEHASH), changed);
+    verify(mockProvider).request(eq(URL), body.capture());
+    JsonObject filter = body.getValue().getAsJsonArray("params").get(0).getAsJsonObject();
+    assertEquals("0x10", filter.get("fromBlock").getAsString());
+    assertEquals("0x13", filter.get("toBlock").getAsString());
+    assertEquals(REGISTRY, filter.get("address").getAsString());
+    JsonArray events = filter.getAsJsonArray("topics").get(0).getAsJsonArray();
+    assertEquals(4, events.size());
+    assertTrue(events.toString().contains(TRANSFER));
+  }
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.atMostOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -11,6 +12,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.unstoppabledomains.exceptions.ns.NSExceptionCode;
 import com.unstoppabledomains.exceptions.ns.NamingServiceException;
@@ -167,4 +172,81 @@ public class L2ResolverTest {
         verify(mockCallable2).call();
         assertEquals(expected, result);
     }
+
+    @Test
+    public void resolveAsyncReturnsResultFromL2() throws Exception {
+        Executor executor = Runnable::run;
+        Callable<String> mockCallable = mock(Callable.class);
+        Callable<String> mockCallable2 = mock(Callable.class);
+
+        when(mockCallable.call()).thenReturn("test return value 1");
+        when(mockCallable2.call()).thenReturn("test return value 2");
+
+        String result = resolver.resolveAsync(
+                ResolutionMethods.<String>builder().l1Func(mockCallable).l2Func(mockCallable2).build(), executor).join();
+
+        assertEquals("test return value 2", result);
+    }
+
+    @Test
+    public void resolveAsyncFallsBackToL1() throws Exception {
+        CompletableFuture<String> l1 = new CompletableFuture<>();
+        CompletableFuture<String> result = resolver.resolveAsync(l1,
+                L2Resolver.failedFuture(new NamingServiceException(NSExceptionCode.UnregisteredDomain)));
+
+        assertEquals(false, result.isDone()); // composed without blocking on L1
+        l1.complete("test return value 1");
+        assertEquals("test return value 1", result.join());
+    }
+
+    @Test
+    public void resolveAsyncFailsWithNSErrorFromL2() throws Exception {
+        Executor executor = Runnable::run;
+        Callable<String> mockCallable = mock(Callable.class);
+        Callable<String> mockCallable2 = mock(Callable.class);
+        NullPointerException ex = new NullPointerException();
+
+        when(mockCallable.call()).thenReturn("test return value 1");
+        when(mockCallable2.call()).thenThrow(ex);
+
+        CompletionException thrown = assertThrows(CompletionException.class, () -> resolver.resolveAsync(
+                ResolutionMethods.<String>builder().l1Func(mockCallable).l2Func(mockCallable2).build(), executor).join());
+
+        NamingServiceException cause = (NamingServiceException) thrown.getCause();
+        assertEquals(NSExceptionCode.UnknownError, cause.getCode());
+        assertEquals(ex, cause.getCause());
+    }
+
+    @Test
+    public void resolveOnBothLayersAsyncCombinesResults() throws Exception {
+        Executor executor = Runnable::run;
+        Callable<String> mockCallable = mock(Callable.class);
+        Callable<String> mockCallable2 = mock(Callable.class);
+        List<String> expected = new ArrayList<>();
+        expected.add("value 1");
+        expected.add("value 2");
+
+        when(mockCallable.call()).thenReturn("value 1");
+        when(mockCallable2.call()).thenReturn("value 2");
+
+        List<String> result = resolver.resolveOnBothLayersAsync(
+                ResolutionMethods.<String>builder().l1Func(mockCallable).l2Func(mockCallable2).build(), executor).join();
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void callAsyncFailsWhenExecutorRejects() throws Exception {
+        Executor saturated = runnable -> {
+            throw new RejectedExecutionException("saturated");
+        };
+        Callable<String> mockCallable = mock(Callable.class);
+
+        CompletionException thrown = assertThrows(CompletionException.class,
+                () -> L2Resolver.callAsync(mockCallable, saturated).join());
+
+        NamingServiceException cause = (NamingServiceException) thrown.getCause();
+        assertEquals(NSExceptionCode.UnknownError, cause.getCode());
+        verify(mockCallable, never()).call();
+    }
 }
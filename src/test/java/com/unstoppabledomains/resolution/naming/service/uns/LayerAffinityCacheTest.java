@@ -0,0 +1,113 @@
+package com.unstoppabledomains.resolution.naming.service.uns;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.unstoppabledomains.config.network.model.Network;
+import com.unstoppabledomains.exceptions.ns.NSExceptionCode;
+import com.unstoppabledomains.exceptions.ns.NamingServiceException;
+import com.unstoppabledomains.resolution.contracts.DefaultProvider;
+import com.unstoppabledomains.resolution.naming.service.NSConfig;
+import com.unstoppabledomains.resolution.naming.service.ResolutionOptions;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class LayerAffinityCacheTest {
+    private static final String DOMAIN = "brad.crypto";
+    private static final String NAMEHASH = "0x756e4e998dbffd803c21d23b06cd855cdc7a4b57706c95964a37e24b47c10fc9";
+    private static final String ETH = "crypto.ETH.address";
+
+    @Mock
+    private UNSInternal unsl1;
+    @Mock
+    private UNSInternal unsl2;
+    @Spy
+    private L2Resolver resolver = new L2Resolver();
+
+    private LayerAffinityCache cache = new LayerAffinityCache();
+
+    @InjectMocks
+    private UNS uns = new UNS(new UNSConfig(new NSConfig(Network.MAINNET, "example.com", "0x01"),
+            new NSConfig(Network.MATIC_MAINNET, "example.com", "0x02")), new DefaultProvider(), resolver, options(cache));
+
+    private static ResolutionOptions options(LayerAffinityCache cache) {
+        ResolutionOptions options = new ResolutionOptions();
+        options.setLayerAffinity(cache);
+        return options;
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        lenient().when(unsl1.getNamehash(DOMAIN)).thenReturn(NAMEHASH);
+    }
+
+    @Test
+    public void queriesOnlyKnownLayer() throws Exception {
+        when(unsl1.getOwner(DOMAIN)).thenReturn("0x1");
+        when(unsl2.getOwner(DOMAIN)).thenThrow(new NamingServiceException(NSExceptionCode.UnregisteredDomain));
+
+        assertEquals("0x1", uns.getOwner(DOMAIN));
+        assertEquals(UNSLocation.Layer1, cache.get(NAMEHASH));
+        assertEquals("0x1", uns.getOwner(DOMAIN));
+        assertEquals("0x1", uns.getOwnerAsync(DOMAIN, Runnable::run).get());
+
+        verify(unsl1, times(3)).getOwner(DOMAIN);
+        verify(unsl2, times(1)).getOwner(DOMAIN);
+    }
+
+    @Test
+    public void remembersLayerOfMissingRecords() throws Exception {
+        // layer 1 is queried concurrently but its answer isn't waited for once layer 2 has the domain
+        lenient().when(unsl1.getRecord(DOMAIN, ETH)).thenReturn("0x1");
+        when(unsl2.getRecord(DOMAIN, ETH)).thenThrow(new NamingServiceException(NSExceptionCode.RecordNotFound));
+
+        assertThrows(NamingServiceException.class, () -> uns.getRecord(DOMAIN, ETH));
+        assertEquals(UNSLocation.Layer2, cache.get(NAMEHASH));
+        NamingServiceException thrown = assertThrows(NamingServiceException.class, () -> uns.getRecord(DOMAIN, ETH));
+        assertEquals(NSExceptionCode.RecordNotFound, thrown.getCode());
+        verify(unsl2, times(2)).getRecord(DOMAIN, ETH);
+    }
+
+    @Test
+    public void fallsBackToBothLayersWhenDomainMoved() throws Exception {
+        cache.learn(NAMEHASH, UNSLocation.Layer2);
+        when(unsl1.getOwner(DOMAIN)).thenReturn("0x1");
+        when(unsl2.getOwner(DOMAIN)).thenThrow(new NamingServiceException(NSExceptionCode.UnregisteredDomain));
+
+        assertEquals("0x1", uns.getOwner(DOMAIN));
+        assertEquals(UNSLocation.Layer1, cache.get(NAMEHASH));
+        verify(unsl2, times(2)).getOwner(DOMAIN);
+    }
+
+    @Test
+    public void doesNotPinLayer1WhenLayer2IsDown() throws Exception {
+        lenient().when(unsl1.getOwner(DOMAIN)).thenReturn("0x1");
+        when(unsl2.getOwner(DOMAIN)).thenThrow(new NamingServiceException(NSExceptionCode.BlockchainIsDown));
+
+        NamingServiceException thrown = assertThrows(NamingServiceException.class, () -> uns.getOwner(DOMAIN));
+        assertEquals(NSExceptionCode.BlockchainIsDown, thrown.getCode());
+        assertNull(cache.get(NAMEHASH));
+    }
+
+    @Test
+    public void layer2TakesPriority() {
+        cache.learn(NAMEHASH, UNSLocation.Layer2);
+        cache.learn(NAMEHASH, UNSLocation.Layer1);
+        assertEquals(UNSLocation.Layer2, cache.get(NAMEHASH));
+        cache.forget(NAMEHASH);
+        cache.learn(NAMEHASH, UNSLocation.Layer1);
+        assertEquals(UNSLocation.Layer1, cache.get(NAMEHASH));
+    }
+}
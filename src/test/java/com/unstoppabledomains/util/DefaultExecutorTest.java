@@ -0,0 +1,48 @@
+package com.unstoppabledomains.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+public class DefaultExecutorTest {
+  @Test
+  public void queuesAndRejectsInsteadOfRunningOnCaller() throws Exception {
+    ExecutorService executor = DefaultExecutor.create(1, 1);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch queuedRan = new CountDownLatch(1);
+    Thread caller = Thread.currentThread();
+    AtomicBoolean ranOnCaller = new AtomicBoolean();
+    try {
+      executor.execute(() -> {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      executor.execute(() -> {
+        ranOnCaller.compareAndSet(false, Thread.currentThread() == caller);
+        queuedRan.countDown();
+      });
+      assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> ranOnCaller.set(true)));
+
+      release.countDown();
+      assertTrue(queuedRan.await(5, TimeUnit.SECONDS));
+      assertFalse(ranOnCaller.get());
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+}